@@ -0,0 +1,21 @@
+package com.flightapp.messaging;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEvent {
+	private String eventType;
+	private String pnr;
+	private String userEmail;
+	private Double totalPrice;
+	private String departureFlightId;
+	private String returnFlightId;
+	private Integer passengerCount;
+	private String locale;
+}
@@ -0,0 +1,166 @@
+package com.flightapp.messaging;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of {@link BookingEvent}, as described by
+ * schema/booking_event.proto. The body uses the protobuf wire format so a
+ * generated protobuf class could read it. It is prefixed with a magic byte and
+ * the writer's schema version.
+ *
+ * Absent (null) fields are not written. Decoders skip field numbers they do
+ * not know, but reject records written with a schema version newer than
+ * their own, so consumers have to be upgraded before producers. Field
+ * numbers must never be reused.
+ */
+public final class BookingEventCodec {
+
+	public static final byte MAGIC = 0x0;
+	public static final byte SCHEMA_VERSION = 3;
+
+	private static final int EVENT_TYPE = 1;
+	private static final int PNR = 2;
+	private static final int USER_EMAIL = 3;
+	private static final int TOTAL_PRICE = 4;
+	// added in schema version 2
+	private static final int DEPARTURE_FLIGHT_ID = 5;
+	private static final int RETURN_FLIGHT_ID = 6;
+	private static final int PASSENGER_COUNT = 7;
+	// added in schema version 3
+	private static final int LOCALE = 8;
+
+	private static final int VARINT = 0;
+	private static final int FIXED64 = 1;
+	private static final int LENGTH_DELIMITED = 2;
+	private static final int FIXED32 = 5;
+
+	private BookingEventCodec() {
+	}
+
+	public static byte[] encode(BookingEvent event) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+		out.write(MAGIC);
+		out.write(SCHEMA_VERSION);
+		writeString(out, EVENT_TYPE, event.getEventType());
+		writeString(out, PNR, event.getPnr());
+		writeString(out, USER_EMAIL, event.getUserEmail());
+		if (event.getTotalPrice() != null) {
+			writeVarint(out, tag(TOTAL_PRICE, FIXED64));
+			long bits = Double.doubleToLongBits(event.getTotalPrice());
+			for (int i = 0; i < 8; i++) {
+				out.write((int) (bits >>> (8 * i)));
+			}
+		}
+		writeString(out, DEPARTURE_FLIGHT_ID, event.getDepartureFlightId());
+		writeString(out, RETURN_FLIGHT_ID, event.getReturnFlightId());
+		if (event.getPassengerCount() != null) {
+			writeVarint(out, tag(PASSENGER_COUNT, VARINT));
+			writeVarint(out, event.getPassengerCount());
+		}
+		writeString(out, LOCALE, event.getLocale());
+		return out.toByteArray();
+	}
+
+	public static BookingEvent decode(byte[] data) {
+		if (data.length < 2 || data[0] != MAGIC) {
+			throw new IllegalArgumentException("Not a binary booking event");
+		}
+		if (data[1] < 1 || data[1] > SCHEMA_VERSION) {
+			throw new IllegalArgumentException("Unknown booking event schema version " + data[1]);
+		}
+		ByteBuffer in = ByteBuffer.wrap(data, 2, data.length - 2).order(ByteOrder.LITTLE_ENDIAN);
+		BookingEvent event = new BookingEvent();
+		try {
+			while (in.hasRemaining()) {
+				long key = readVarint(in);
+				int field = (int) (key >>> 3);
+				int wireType = (int) (key & 0x7);
+				switch (field) {
+				case EVENT_TYPE -> event.setEventType(readString(in, wireType));
+				case PNR -> event.setPnr(readString(in, wireType));
+				case USER_EMAIL -> event.setUserEmail(readString(in, wireType));
+				case TOTAL_PRICE -> {
+					expect(wireType, FIXED64);
+					event.setTotalPrice(in.getDouble());
+				}
+				case DEPARTURE_FLIGHT_ID -> event.setDepartureFlightId(readString(in, wireType));
+				case RETURN_FLIGHT_ID -> event.setReturnFlightId(readString(in, wireType));
+				case PASSENGER_COUNT -> {
+					expect(wireType, VARINT);
+					event.setPassengerCount((int) readVarint(in));
+				}
+				case LOCALE -> event.setLocale(readString(in, wireType));
+				default -> skip(in, wireType);
+				}
+			}
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Truncated booking event", e);
+		}
+		return event;
+	}
+
+	private static long tag(int field, int wireType) {
+		return ((long) field << 3) | wireType;
+	}
+
+	private static void writeString(ByteArrayOutputStream out, int field, String value) {
+		if (value == null) {
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarint(out, tag(field, LENGTH_DELIMITED));
+		writeVarint(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static void writeVarint(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+	private static long readVarint(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint in booking event");
+	}
+
+	private static String readString(ByteBuffer in, int wireType) {
+		expect(wireType, LENGTH_DELIMITED);
+		int length = (int) readVarint(in);
+		String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return value;
+	}
+
+	private static void skip(ByteBuffer in, int wireType) {
+		switch (wireType) {
+		case VARINT -> readVarint(in);
+		case FIXED64 -> in.position(in.position() + 8);
+		case LENGTH_DELIMITED -> {
+			int length = (int) readVarint(in);
+			in.position(in.position() + length);
+		}
+		case FIXED32 -> in.position(in.position() + 4);
+		default -> throw new IllegalArgumentException("Unsupported wire type " + wireType);
+		}
+	}
+
+	private static void expect(int wireType, int expected) {
+		if (wireType != expected) {
+			throw new IllegalArgumentException("Unexpected wire type " + wireType);
+		}
+	}
+}
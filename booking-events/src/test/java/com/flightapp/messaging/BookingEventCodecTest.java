@@ -0,0 +1,74 @@
+package com.flightapp.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class BookingEventCodecTest {
+
+	@Test
+	void roundTripsAllFields() {
+		BookingEvent event = BookingEvent.builder().eventType("BOOKING_CONFIRMED").pnr("PNR123")
+				.userEmail("pooja@gmail.com").totalPrice(4999.5).departureFlightId("FL1").returnFlightId("FL2")
+				.passengerCount(3).locale("fr-CA").build();
+
+		byte[] bytes = BookingEventCodec.encode(event);
+
+		assertThat(bytes[0]).isEqualTo(BookingEventCodec.MAGIC);
+		assertThat(bytes[1]).isEqualTo(BookingEventCodec.SCHEMA_VERSION);
+		assertThat(BookingEventCodec.decode(bytes)).isEqualTo(event);
+	}
+
+	@Test
+	void omitsNullFields() {
+		BookingEvent event = BookingEvent.builder().eventType("BOOKING_CANCELLED").pnr("PNR123").build();
+
+		byte[] bytes = BookingEventCodec.encode(event);
+
+		assertThat(bytes).hasSize(2 + 2 + "BOOKING_CANCELLED".length() + 2 + "PNR123".length());
+		assertThat(BookingEventCodec.decode(bytes)).isEqualTo(event);
+	}
+
+	@Test
+	void skipsUnknownFields() {
+		BookingEvent event = BookingEvent.builder().eventType("BOOKING_CONFIRMED").pnr("PNR123").build();
+		ByteArrayOutputStream newer = new ByteArrayOutputStream();
+		newer.writeBytes(BookingEventCodec.encode(event));
+		// field 20, length-delimited "meal"
+		newer.writeBytes(new byte[] { (byte) 0xA2, 0x01, 4 });
+		newer.writeBytes("meal".getBytes(StandardCharsets.UTF_8));
+		// field 21, varint 300
+		newer.writeBytes(new byte[] { (byte) 0xA8, 0x01, (byte) 0xAC, 0x02 });
+		// field 22, fixed64
+		newer.writeBytes(new byte[] { (byte) 0xB1, 0x01, 1, 2, 3, 4, 5, 6, 7, 8 });
+
+		assertThat(BookingEventCodec.decode(newer.toByteArray())).isEqualTo(event);
+	}
+
+	@Test
+	void rejectsJsonAndTruncatedInput() {
+		byte[] bytes = BookingEventCodec.encode(BookingEvent.builder().pnr("PNR123").build());
+
+		assertThatThrownBy(() -> BookingEventCodec.decode("{\"pnr\":\"PNR123\"}".getBytes(StandardCharsets.UTF_8)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> BookingEventCodec.decode(Arrays.copyOf(bytes, bytes.length - 1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rejectsUnknownSchemaVersions() {
+		byte[] newer = BookingEventCodec.encode(BookingEvent.builder().pnr("PNR123").build());
+		newer[1] = BookingEventCodec.SCHEMA_VERSION + 1;
+		byte[] unversioned = newer.clone();
+		unversioned[1] = 0;
+
+		assertThatThrownBy(() -> BookingEventCodec.decode(newer)).isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("schema version");
+		assertThatThrownBy(() -> BookingEventCodec.decode(unversioned)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
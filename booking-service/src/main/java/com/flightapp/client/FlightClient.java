@@ -0,0 +1,43 @@
+package com.flightapp.client;
+
+import java.util.List;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.flightapp.dto.FlightDto;
+import com.flightapp.dto.SeatHoldDto;
+import com.flightapp.dto.SeatLeg;
+
+import reactor.core.publisher.Mono;
+
+@Component
+public class FlightClient {
+
+	private static final String BASE_URL = "http://flight-service/api/flight";
+
+	private final WebClient webClient;
+
+	public FlightClient(@LoadBalanced WebClient.Builder webClientBuilder) {
+		this.webClient = webClientBuilder.baseUrl(BASE_URL).build();
+	}
+
+	public Mono<SeatHoldDto> holdSeats(List<SeatLeg> legs) {
+		return webClient.post().uri("/internal/holds").bodyValue(legs).retrieve().bodyToMono(SeatHoldDto.class);
+	}
+
+	public Mono<SeatHoldDto> confirmHold(String holdId) {
+		return webClient.put().uri("/internal/holds/{holdId}/confirm", holdId).retrieve()
+				.bodyToMono(SeatHoldDto.class);
+	}
+
+	public Mono<SeatHoldDto> releaseHold(String holdId) {
+		return webClient.delete().uri("/internal/holds/{holdId}", holdId).retrieve().bodyToMono(SeatHoldDto.class);
+	}
+
+	public Mono<List<FlightDto>> releaseSeats(List<SeatLeg> legs) {
+		return webClient.put().uri("/internal/release").bodyValue(legs).retrieve().bodyToFlux(FlightDto.class)
+				.collectList();
+	}
+}
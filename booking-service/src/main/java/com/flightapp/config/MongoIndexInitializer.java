@@ -0,0 +1,37 @@
+package com.flightapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+
+import com.flightapp.model.IdempotencyRecord;
+import com.flightapp.model.OutboxEvent;
+import com.flightapp.model.Ticket;
+
+import reactor.core.publisher.Flux;
+
+@Component
+public class MongoIndexInitializer {
+
+	private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	public MongoIndexInitializer(ReactiveMongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void ensureIndexes() {
+		IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+		Flux.just(Ticket.class, OutboxEvent.class, IdempotencyRecord.class)
+				.concatMap(type -> Flux.fromIterable(resolver.resolveIndexFor(type))
+						.concatMap(index -> mongoTemplate.indexOps(type).ensureIndex(index)))
+				.subscribe(name -> log.info("Ensured index {}", name),
+						e -> log.error("Failed to create indexes", e));
+	}
+}
@@ -1,19 +1,30 @@
 package com.flightapp.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.flightapp.dto.CursorPage;
 import com.flightapp.model.FLIGHTTYPE;
 import com.flightapp.model.Passenger;
 import com.flightapp.model.Ticket;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.IdempotencyService;
 
 import jakarta.validation.Valid;
 import lombok.Data;
@@ -26,7 +37,11 @@ import reactor.core.publisher.Mono;
 @RequestMapping("/api/flight")
 public class BookingController {
 
+	static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+	private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
 	private final BookingService bookingService;
+	private final IdempotencyService idempotencyService;
 
 	@Data
 	public static class BookingRequest {
@@ -37,9 +52,64 @@ public class BookingController {
 	}
 
 	@PostMapping("/booking/{departureFlightId}")
-	public Mono<String> bookTicket(@PathVariable String departureFlightId, @RequestBody BookingRequest request) {
-		return bookingService.bookTicket(request.getUserEmail(), departureFlightId, request.getReturnFlightId(),
-				request.getPassengers(), request.getTripType());
+	public Mono<String> bookTicket(@PathVariable String departureFlightId, @RequestBody BookingRequest request,
+			@RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+			@RequestHeader(name = HttpHeaders.ACCEPT_LANGUAGE, required = false) String acceptLanguage) {
+		String locale = preferredLanguageTag(acceptLanguage);
+		Mono<String> booking = Mono.defer(() -> bookingService.bookTicket(request.getUserEmail(), departureFlightId,
+				request.getReturnFlightId(), request.getPassengers(), request.getTripType(), locale));
+		if (idempotencyKey == null) {
+			return booking;
+		}
+		if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key"));
+		}
+		// keys are per customer, so two customers picking the same key never see each other's booking
+		return idempotencyService.execute(request.getUserEmail() + "|" + idempotencyKey,
+				fingerprint(departureFlightId, request), booking);
+	}
+
+	/**
+	 * Digest of the fields that make up a booking, listed explicitly so that a
+	 * change to BookingRequest cannot silently change what counts as the same
+	 * request.
+	 */
+	static String fingerprint(String departureFlightId, BookingRequest request) {
+		StringBuilder fields = new StringBuilder();
+		append(fields, departureFlightId);
+		append(fields, request.getUserEmail());
+		append(fields, request.getReturnFlightId());
+		append(fields, request.getTripType());
+		if (request.getPassengers() != null) {
+			for (Passenger passenger : request.getPassengers()) {
+				append(fields, passenger.getName());
+				append(fields, passenger.getGender());
+				append(fields, passenger.getAge());
+				append(fields, passenger.getSeatNumber());
+				append(fields, passenger.getMealPreference());
+			}
+		}
+		return DigestUtils.md5DigestAsHex(fields.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void append(StringBuilder fields, Object value) {
+		// unit separator, so adjacent fields cannot run into each other
+		fields.append(value).append('\u001f');
+	}
+
+	// the highest-weighted concrete range of the header; null when absent or unparseable
+	static String preferredLanguageTag(String acceptLanguage) {
+		if (acceptLanguage == null || acceptLanguage.isBlank()) {
+			return null;
+		}
+		try {
+			return Locale.LanguageRange.parse(acceptLanguage).stream().map(Locale.LanguageRange::getRange)
+					.filter(range -> !range.startsWith("*"))
+					.map(range -> Locale.forLanguageTag(range).toLanguageTag())
+					.findFirst().orElse(null);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
 	}
 
 	@GetMapping("/ticket/{pnr}")
@@ -47,11 +117,18 @@ public class BookingController {
 		return bookingService.getByPnr(pnr);
 	}
 
-	@GetMapping("/booking/history/{emailId}")
+	@GetMapping(value = "/booking/history/{emailId}", produces = { MediaType.APPLICATION_JSON_VALUE,
+			MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
 	public Flux<Ticket> history(@PathVariable String emailId) {
 		return bookingService.historyByEmail(emailId);
 	}
 
+	@GetMapping("/booking/history/{emailId}/page")
+	public Mono<CursorPage<Ticket>> historyPage(@PathVariable String emailId,
+			@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+		return bookingService.historyPageByEmail(emailId, cursor, size);
+	}
+
 	@DeleteMapping("/booking/cancel/{pnr}")
 	public Mono<String> cancel(@PathVariable String pnr) {
 		return bookingService.cancelByPnr(pnr);
@@ -0,0 +1,35 @@
+package com.flightapp.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public record PageCursor(LocalDateTime time, String id) {
+
+	private static final String SEPARATOR = "|";
+
+	public String encode() {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((time + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static PageCursor decode(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int split = raw.indexOf(SEPARATOR);
+			if (split < 0) {
+				throw new IllegalArgumentException(cursor);
+			}
+			return new PageCursor(LocalDateTime.parse(raw.substring(0, split)), raw.substring(split + 1));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page cursor", e);
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package com.flightapp.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class SeatHoldDto {
+    private String id;
+    private List<SeatLeg> legs;
+    private List<FlightDto> flights;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,80 @@
+package com.flightapp.messaging;
+
+import java.time.LocalDateTime;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import com.flightapp.model.OutboxEvent;
+import com.flightapp.model.Ticket;
+import com.flightapp.repository.OutboxEventRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+@RequiredArgsConstructor
+public class BookingEventOutbox {
+
+	public static final String TOPIC = "booking-events";
+
+	private final OutboxEventRepository outboxEventRepository;
+
+	/**
+	 * Writes the event for the ticket without making it visible to the relay.
+	 * The event id is derived from the ticket, so parking the same event again
+	 * returns the existing record.
+	 */
+	public Mono<OutboxEvent> park(String eventType, Ticket ticket) {
+		BookingEvent event = BookingEvent.builder().eventType(eventType).pnr(ticket.getPnr())
+				.userEmail(ticket.getUserEmail()).totalPrice(ticket.getTotalPrice())
+				.departureFlightId(ticket.getDepartureFlightId()).returnFlightId(ticket.getReturnFlightId())
+				.passengerCount(passengerCount(ticket)).locale(ticket.getLocale()).build();
+
+		OutboxEvent outboxEvent = new OutboxEvent();
+		outboxEvent.setId(eventId(eventType, ticket));
+		outboxEvent.setTopic(TOPIC);
+		outboxEvent.setMessageKey(ticket.getPnr());
+		outboxEvent.setPayload(event);
+		outboxEvent.setCreatedAt(LocalDateTime.now());
+		return outboxEventRepository.insert(outboxEvent)
+				.onErrorResume(DuplicateKeyException.class, e -> outboxEventRepository.findById(outboxEvent.getId()));
+	}
+
+	/** Hands a parked event to the relay; a no-op if it was released already. */
+	public Mono<Void> release(String eventType, Ticket ticket) {
+		return outboxEventRepository.release(eventId(eventType, ticket), LocalDateTime.now());
+	}
+
+	/** Drops a parked event whose booking change did not happen. */
+	public Mono<Void> discard(String eventType, Ticket ticket) {
+		return outboxEventRepository.discardParked(eventId(eventType, ticket));
+	}
+
+	/** Events parked before the given time, for the sweep that settles them once their ticket has. */
+	public Flux<OutboxEvent> parkedBefore(LocalDateTime createdBefore, int limit) {
+		return outboxEventRepository.findParked(createdBefore, limit);
+	}
+
+	public Mono<Void> release(OutboxEvent event) {
+		return outboxEventRepository.release(event.getId(), LocalDateTime.now());
+	}
+
+	public Mono<Void> discard(OutboxEvent event) {
+		return outboxEventRepository.discardParked(event.getId());
+	}
+
+	private static String eventId(String eventType, Ticket ticket) {
+		return eventType + ":" + ticket.getId();
+	}
+
+	private static Integer passengerCount(Ticket ticket) {
+		if (ticket.getPassengers() != null && !ticket.getPassengers().isEmpty()) {
+			return ticket.getPassengers().size();
+		}
+		return ticket.getSeatsBooked() != null && !ticket.getSeatsBooked().isEmpty()
+				? ticket.getSeatsBooked().split(",").length
+				: null;
+	}
+}
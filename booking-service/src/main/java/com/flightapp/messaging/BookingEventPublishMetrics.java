@@ -0,0 +1,44 @@
+package com.flightapp.messaging;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.support.ProducerListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts send completions per event type. Runs on the producer I/O thread, so
+ * it only increments counters.
+ */
+@Component
+public class BookingEventPublishMetrics implements ProducerListener<String, BookingEvent> {
+
+	private static final Logger log = LoggerFactory.getLogger(BookingEventPublishMetrics.class);
+
+	private final MeterRegistry meterRegistry;
+
+	public BookingEventPublishMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void onSuccess(ProducerRecord<String, BookingEvent> producerRecord, RecordMetadata recordMetadata) {
+		increment(producerRecord, "success");
+	}
+
+	@Override
+	public void onError(ProducerRecord<String, BookingEvent> producerRecord, RecordMetadata recordMetadata,
+			Exception exception) {
+		increment(producerRecord, "failure");
+		log.warn("Failed to publish booking event for {}", producerRecord.key(), exception);
+	}
+
+	private void increment(ProducerRecord<String, BookingEvent> producerRecord, String result) {
+		BookingEvent event = producerRecord.value();
+		String eventType = event != null && event.getEventType() != null ? event.getEventType() : "unknown";
+		meterRegistry.counter("booking.events.published", "eventType", eventType, "result", result).increment();
+	}
+}
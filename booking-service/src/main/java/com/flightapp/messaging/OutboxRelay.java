@@ -0,0 +1,84 @@
+package com.flightapp.messaging;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.flightapp.model.OutboxEvent;
+import com.flightapp.repository.OutboxEventRepository;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Publishes pending outbox events to Kafka in batches. Each event is leased
+ * before sending so concurrent relays do not publish it twice in the normal
+ * case; delivery is still at-least-once, and consumers can de-duplicate on the
+ * eventId header.
+ */
+@Component
+public class OutboxRelay {
+
+	public static final String EVENT_ID_HEADER = "eventId";
+
+	private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+	private final OutboxEventRepository outboxEventRepository;
+	private final KafkaTemplate<String, BookingEvent> kafkaTemplate;
+	private final int batchSize;
+	private final Duration lease;
+	private final Duration retryBackoff;
+	private final Duration maxRetryBackoff;
+
+	public OutboxRelay(OutboxEventRepository outboxEventRepository, KafkaTemplate<String, BookingEvent> kafkaTemplate,
+			@Value("${booking.outbox.batch-size:100}") int batchSize,
+			@Value("${booking.outbox.lease:30s}") Duration lease,
+			@Value("${booking.outbox.retry-backoff:1s}") Duration retryBackoff,
+			@Value("${booking.outbox.max-retry-backoff:5m}") Duration maxRetryBackoff) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.kafkaTemplate = kafkaTemplate;
+		this.batchSize = batchSize;
+		this.lease = lease;
+		this.retryBackoff = retryBackoff;
+		this.maxRetryBackoff = maxRetryBackoff;
+	}
+
+	@Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:1000}")
+	public Mono<Long> relay() {
+		LocalDateTime now = LocalDateTime.now();
+		return outboxEventRepository.findReadyToPublish(now, batchSize)
+				.concatMap(event -> outboxEventRepository.claim(event.getId(), now, now.plus(lease)))
+				.flatMap(this::publish)
+				.filter(Boolean::booleanValue)
+				.count();
+	}
+
+	private Mono<Boolean> publish(OutboxEvent event) {
+		ProducerRecord<String, BookingEvent> producerRecord = new ProducerRecord<>(event.getTopic(),
+				event.getMessageKey(), event.getPayload());
+		producerRecord.headers().add(EVENT_ID_HEADER, event.getId().getBytes(StandardCharsets.UTF_8));
+
+		return Mono.fromFuture(() -> kafkaTemplate.send(producerRecord))
+				.then(Mono.defer(() -> outboxEventRepository.markPublished(event.getId(), LocalDateTime.now())))
+				.thenReturn(true)
+				.onErrorResume(e -> {
+					log.warn("Failed to publish outbox event {} (attempt {})", event.getId(), event.getAttempts(), e);
+					return outboxEventRepository
+							.markFailed(event.getId(), e.getMessage(), LocalDateTime.now().plus(backoff(event)))
+							.thenReturn(false);
+				});
+	}
+
+	private Duration backoff(OutboxEvent event) {
+		int exponent = Math.min(Math.max(event.getAttempts() - 1, 0), 20);
+		Duration delay = retryBackoff.multipliedBy(1L << exponent);
+		return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+	}
+}
@@ -0,0 +1,37 @@
+package com.flightapp.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+	public enum Status {
+		IN_PROGRESS, COMPLETED
+	}
+
+	@Id
+	private String key;
+
+	private String fingerprint;
+
+	private Status status;
+
+	private String pnr;
+
+	private LocalDateTime createdAt;
+
+	// short lease while IN_PROGRESS, so a key held by a crashed instance frees up
+	@Indexed(name = "expires_ttl_idx", expireAfter = "0s")
+	private LocalDateTime expiresAt;
+}
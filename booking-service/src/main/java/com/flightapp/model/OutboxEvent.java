@@ -0,0 +1,39 @@
+package com.flightapp.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.flightapp.messaging.BookingEvent;
+
+import lombok.Data;
+
+@Data
+@Document(collection = "outbox_events")
+@CompoundIndex(name = "pending_idx", def = "{'publishedAt': 1, 'nextAttemptAt': 1}")
+public class OutboxEvent {
+
+	@Id
+	private String id;
+
+	private String topic;
+
+	private String messageKey;
+
+	private BookingEvent payload;
+
+	private LocalDateTime createdAt;
+
+	/** Unset while the event is parked behind a booking change that has not happened yet. */
+	private LocalDateTime nextAttemptAt;
+
+	private int attempts;
+
+	private String lastError;
+
+	@Indexed(name = "published_ttl_idx", expireAfter = "7d")
+	private LocalDateTime publishedAt;
+}
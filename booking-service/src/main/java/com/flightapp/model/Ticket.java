@@ -5,8 +5,12 @@ import java.util.List;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -14,12 +18,25 @@ import lombok.Data;
 
 @Data
 @Document(collection = "tickets")
+@CompoundIndex(name = "user_booking_time_idx", def = "{'userEmail': 1, 'bookingTime': -1, '_id': -1}")
+@CompoundIndex(name = "status_hold_expires_idx", def = "{'status': 1, 'holdExpiresAt': 1}")
 public class Ticket {
 
+	/**
+	 * A ticket is PENDING from the moment it is saved until its seat hold is
+	 * confirmed, and EXPIRED if the hold lapses first. A cancel moves it to
+	 * CANCELLING before returning the seats and to CANCELLED after. Tickets
+	 * saved before the status existed have none and count as confirmed.
+	 */
+	public enum Status {
+		PENDING, CONFIRMED, EXPIRED, CANCELLING, CANCELLED
+	}
+
 	@Id
 	private String id;
 
 	@NotBlank
+	@Indexed(name = "pnr_unique_idx", unique = true)
 	private String pnr;
 
 	@NotBlank
@@ -40,11 +57,22 @@ public class Ticket {
 
 	private String mealType;
 
+	/** Language tag for notifications about this ticket; null uses the default. */
+	private String locale;
+
 	@Min(0)
 	private Double totalPrice;
 
 	private boolean canceled;
 
+	private Status status;
+
+	@JsonIgnore
+	private String holdId;
+
+	@JsonIgnore
+	private LocalDateTime holdExpiresAt;
+
 	@Transient
 	private List<Passenger> passengers;
 }
@@ -0,0 +1,14 @@
+package com.flightapp.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.flightapp.model.IdempotencyRecord;
+
+import reactor.core.publisher.Mono;
+
+public interface IdempotencyRecordRepository extends ReactiveMongoRepository<IdempotencyRecord, String> {
+
+	Mono<Long> deleteByKeyAndExpiresAtBefore(String key, LocalDateTime now);
+}
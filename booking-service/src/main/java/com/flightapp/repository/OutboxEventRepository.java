@@ -0,0 +1,10 @@
+package com.flightapp.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightapp.model.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends ReactiveMongoRepository<OutboxEvent, String>, OutboxEventRepositoryCustom {
+}
@@ -0,0 +1,34 @@
+package com.flightapp.repository;
+
+import java.time.LocalDateTime;
+
+import com.flightapp.model.OutboxEvent;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface OutboxEventRepositoryCustom {
+
+	Flux<OutboxEvent> findReadyToPublish(LocalDateTime now, int limit);
+
+	/**
+	 * Atomically leases a pending event to this relay by pushing nextAttemptAt to
+	 * leaseUntil. Completes empty when another relay instance got there first.
+	 */
+	Mono<OutboxEvent> claim(String eventId, LocalDateTime now, LocalDateTime leaseUntil);
+
+	Mono<Void> markPublished(String eventId, LocalDateTime publishedAt);
+
+	Mono<Void> markFailed(String eventId, String error, LocalDateTime nextAttemptAt);
+
+	/**
+	 * Makes a parked event (one without nextAttemptAt) ready to publish. Events
+	 * that were released already are left alone.
+	 */
+	Mono<Void> release(String eventId, LocalDateTime now);
+
+	Mono<Void> discardParked(String eventId);
+
+	/** Parked events created before the given time, oldest first. */
+	Flux<OutboxEvent> findParked(LocalDateTime createdBefore, int limit);
+}
@@ -0,0 +1,81 @@
+package com.flightapp.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightapp.model.OutboxEvent;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+	private static final String ID = "_id";
+	private static final String PUBLISHED_AT = "publishedAt";
+	private static final String NEXT_ATTEMPT_AT = "nextAttemptAt";
+	private static final String CREATED_AT = "createdAt";
+	private static final String ATTEMPTS = "attempts";
+	private static final String LAST_ERROR = "lastError";
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	public OutboxEventRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public Flux<OutboxEvent> findReadyToPublish(LocalDateTime now, int limit) {
+		Query query = Query.query(where(PUBLISHED_AT).is(null).and(NEXT_ATTEMPT_AT).lte(now))
+				.with(Sort.by(Sort.Direction.ASC, CREATED_AT)).limit(limit);
+		return mongoTemplate.find(query, OutboxEvent.class);
+	}
+
+	@Override
+	public Mono<OutboxEvent> claim(String eventId, LocalDateTime now, LocalDateTime leaseUntil) {
+		Query query = Query.query(where(ID).is(eventId).and(PUBLISHED_AT).is(null).and(NEXT_ATTEMPT_AT).lte(now));
+		Update update = new Update().set(NEXT_ATTEMPT_AT, leaseUntil).inc(ATTEMPTS, 1);
+		return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+				OutboxEvent.class);
+	}
+
+	@Override
+	public Mono<Void> markPublished(String eventId, LocalDateTime publishedAt) {
+		return mongoTemplate.updateFirst(Query.query(where(ID).is(eventId)),
+				new Update().set(PUBLISHED_AT, publishedAt).unset(LAST_ERROR), OutboxEvent.class).then();
+	}
+
+	@Override
+	public Mono<Void> markFailed(String eventId, String error, LocalDateTime nextAttemptAt) {
+		return mongoTemplate.updateFirst(Query.query(where(ID).is(eventId)),
+				new Update().set(NEXT_ATTEMPT_AT, nextAttemptAt).set(LAST_ERROR, error), OutboxEvent.class).then();
+	}
+
+	@Override
+	public Mono<Void> release(String eventId, LocalDateTime now) {
+		return mongoTemplate.updateFirst(parked(eventId), new Update().set(NEXT_ATTEMPT_AT, now), OutboxEvent.class)
+				.then();
+	}
+
+	@Override
+	public Mono<Void> discardParked(String eventId) {
+		return mongoTemplate.remove(parked(eventId), OutboxEvent.class).then();
+	}
+
+	@Override
+	public Flux<OutboxEvent> findParked(LocalDateTime createdBefore, int limit) {
+		Query query = Query.query(where(PUBLISHED_AT).is(null).and(NEXT_ATTEMPT_AT).is(null).and(CREATED_AT)
+				.lt(createdBefore)).with(Sort.by(Sort.Direction.ASC, CREATED_AT)).limit(limit);
+		return mongoTemplate.find(query, OutboxEvent.class);
+	}
+
+	private static Query parked(String eventId) {
+		return Query.query(where(ID).is(eventId).and(PUBLISHED_AT).is(null).and(NEXT_ATTEMPT_AT).is(null));
+	}
+}
@@ -1,5 +1,8 @@
 package com.flightapp.repository;
 
+import java.time.LocalDateTime;
+
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,7 +12,11 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface TicketRepository extends ReactiveMongoRepository<Ticket, String> {
+public interface TicketRepository extends ReactiveMongoRepository<Ticket, String>, TicketRepositoryCustom {
 	Mono<Ticket> findByPnr(String pnr);
+
+	@Meta(cursorBatchSize = 200)
 	Flux<Ticket> findByUserEmail(String email);
+
+	Flux<Ticket> findByStatusAndHoldExpiresAtBefore(Ticket.Status status, LocalDateTime time);
 }
@@ -0,0 +1,32 @@
+package com.flightapp.repository;
+
+import com.flightapp.dto.PageCursor;
+import com.flightapp.model.Ticket;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface TicketRepositoryCustom {
+
+	/**
+	 * Returns up to limit tickets for the user, newest booking first, starting
+	 * strictly after the given cursor (or from the newest when cursor is null).
+	 */
+	Flux<Ticket> findPageByUserEmail(String userEmail, PageCursor after, int limit);
+
+	/**
+	 * Atomically moves the ticket from one status to another. Completes empty
+	 * when the ticket is no longer in the expected status.
+	 */
+	Mono<Ticket> transitionStatus(String ticketId, Ticket.Status from, Ticket.Status to);
+
+	/**
+	 * Atomically moves a confirmed, not yet cancelled ticket to CANCELLING.
+	 * Completes empty when it is in any other state, so only one cancel returns
+	 * the seats.
+	 */
+	Mono<Ticket> beginCancellation(String ticketId);
+
+	/** Atomically moves a CANCELLING ticket to CANCELLED and flags it canceled. */
+	Mono<Ticket> completeCancellation(String ticketId);
+}
@@ -0,0 +1,65 @@
+package com.flightapp.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightapp.dto.PageCursor;
+import com.flightapp.model.Ticket;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class TicketRepositoryCustomImpl implements TicketRepositoryCustom {
+
+	private static final String ID = "_id";
+	private static final String USER_EMAIL = "userEmail";
+	private static final String BOOKING_TIME = "bookingTime";
+	private static final String STATUS = "status";
+	private static final String CANCELED = "canceled";
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	public TicketRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public Flux<Ticket> findPageByUserEmail(String userEmail, PageCursor after, int limit) {
+		Criteria criteria = where(USER_EMAIL).is(userEmail);
+		if (after != null) {
+			criteria = criteria.orOperator(where(BOOKING_TIME).lt(after.time()),
+					where(BOOKING_TIME).is(after.time()).and(ID).lt(after.id()));
+		}
+		Query query = Query.query(criteria).with(Sort.by(Sort.Direction.DESC, BOOKING_TIME, ID)).limit(limit);
+		return mongoTemplate.find(query, Ticket.class);
+	}
+
+	@Override
+	public Mono<Ticket> transitionStatus(String ticketId, Ticket.Status from, Ticket.Status to) {
+		return mongoTemplate.findAndModify(Query.query(where(ID).is(ticketId).and(STATUS).is(from)),
+				new Update().set(STATUS, to), FindAndModifyOptions.options().returnNew(true), Ticket.class);
+	}
+
+	@Override
+	public Mono<Ticket> beginCancellation(String ticketId) {
+		// tickets saved before the status existed have none and count as confirmed
+		Query query = Query.query(where(ID).is(ticketId).and(CANCELED).ne(true).and(STATUS)
+				.in(Ticket.Status.CONFIRMED, null));
+		return mongoTemplate.findAndModify(query, new Update().set(STATUS, Ticket.Status.CANCELLING),
+				FindAndModifyOptions.options().returnNew(true), Ticket.class);
+	}
+
+	@Override
+	public Mono<Ticket> completeCancellation(String ticketId) {
+		Query query = Query.query(where(ID).is(ticketId).and(STATUS).is(Ticket.Status.CANCELLING));
+		return mongoTemplate.findAndModify(query,
+				new Update().set(STATUS, Ticket.Status.CANCELLED).set(CANCELED, true),
+				FindAndModifyOptions.options().returnNew(true), Ticket.class);
+	}
+}
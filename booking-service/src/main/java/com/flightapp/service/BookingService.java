@@ -1,5 +1,6 @@
 package com.flightapp.service;
 
+import com.flightapp.dto.CursorPage;
 import com.flightapp.model.FLIGHTTYPE;
 import com.flightapp.model.Passenger;
 import com.flightapp.model.Ticket;
@@ -10,12 +11,22 @@ import java.util.List;
 
 public interface BookingService {
 
+	/**
+	 * @param locale language tag for the customer's notifications, or null for
+	 *               the notification service's default
+	 */
 	Mono<String> bookTicket(String userEmail, String departureFlightId, String returnFlightId,
-			List<Passenger> passengers, FLIGHTTYPE tripType);
+			List<Passenger> passengers, FLIGHTTYPE tripType, String locale);
 
 	Mono<Ticket> getByPnr(String pnr);
 
 	Flux<Ticket> historyByEmail(String email);
 
+	Mono<CursorPage<Ticket>> historyPageByEmail(String email, String cursor, int size);
+
 	Mono<String> cancelByPnr(String pnr);
+
+	Mono<Long> settleStalePendingBookings();
+
+	Mono<Long> releaseSettledBookingEvents();
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.flightapp.service;
+
+import reactor.core.publisher.Mono;
+
+public interface IdempotencyService {
+
+	/**
+	 * Runs {@code action} at most once per key and replays its result for
+	 * repeated requests. Concurrent duplicates wait for the first request;
+	 * reusing a key for a request with a different fingerprint is rejected.
+	 */
+	Mono<String> execute(String key, String fingerprint, Mono<String> action);
+}
@@ -1,30 +1,73 @@
 package com.flightapp.service;
 
 import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.BookingEventPublishMetrics;
+import com.flightapp.messaging.BookingEventSerializer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.*;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
-import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Producer for booking events. Connection, security and any explicit
+ * spring.kafka.producer.* settings come from Spring Boot's KafkaProperties;
+ * the selected {@link ProducerMode} only fills in tuning values that were not
+ * configured there.
+ */
 @Configuration
 public class KafkaProducerConfig {
 
+	public enum ProducerMode {
+		/** Send as soon as possible; small batches, no compression. */
+		LATENCY,
+		/** Wait briefly to fill large compressed batches; for peak booking load. */
+		THROUGHPUT
+	}
+
+	private final KafkaProperties kafkaProperties;
+	private final ProducerMode mode;
+
+	public KafkaProducerConfig(KafkaProperties kafkaProperties,
+			@Value("${booking.kafka.producer.mode:throughput}") ProducerMode mode) {
+		this.kafkaProperties = kafkaProperties;
+		this.mode = mode;
+	}
+
 	@Bean
-	public ProducerFactory<String, BookingEvent> bookingEventProducerFactory() {
-		Map<String, Object> config = new HashMap<>();
-		config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+	public ProducerFactory<String, BookingEvent> bookingEventProducerFactory(ObjectProvider<SslBundles> sslBundles) {
+		Map<String, Object> config = kafkaProperties.buildProducerProperties(sslBundles.getIfAvailable());
 		config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-		config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+		config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BookingEventSerializer.class);
+
+		config.putIfAbsent(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+		config.putIfAbsent(ProducerConfig.ACKS_CONFIG, "all");
+		config.putIfAbsent(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+
+		if (mode == ProducerMode.THROUGHPUT) {
+			config.putIfAbsent(ProducerConfig.LINGER_MS_CONFIG, 20);
+			config.putIfAbsent(ProducerConfig.BATCH_SIZE_CONFIG, 128 * 1024);
+			config.putIfAbsent(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+		} else {
+			config.putIfAbsent(ProducerConfig.LINGER_MS_CONFIG, 0);
+			config.putIfAbsent(ProducerConfig.BATCH_SIZE_CONFIG, 16 * 1024);
+			config.putIfAbsent(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+		}
 		return new DefaultKafkaProducerFactory<>(config);
 	}
 
 	@Bean
-	public KafkaTemplate<String, BookingEvent> bookingEventKafkaTemplate() {
-		return new KafkaTemplate<>(bookingEventProducerFactory());
+	public KafkaTemplate<String, BookingEvent> bookingEventKafkaTemplate(
+			ProducerFactory<String, BookingEvent> bookingEventProducerFactory,
+			BookingEventPublishMetrics bookingEventPublishMetrics) {
+		KafkaTemplate<String, BookingEvent> template = new KafkaTemplate<>(bookingEventProducerFactory);
+		template.setProducerListener(bookingEventPublishMetrics);
+		return template;
 	}
 }
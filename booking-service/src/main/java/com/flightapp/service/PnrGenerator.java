@@ -0,0 +1,47 @@
+package com.flightapp.service;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Airline-style six character record locators over a 32 symbol alphabet
+ * without I, L, O and U, so codes read back over the phone unambiguously.
+ * That is 30 random bits per code; uniqueness is enforced by the unique index
+ * on {@code tickets.pnr} and callers retry on the rare duplicate.
+ *
+ * A PNR alone is enough to view or cancel a booking, so codes come from a
+ * SecureRandom and cannot be predicted from earlier ones. Each thread gets
+ * its own DRBG instance: the default NativePRNG, like UUID.randomUUID(),
+ * funnels every caller through one lock.
+ */
+@Component
+public class PnrGenerator {
+
+	public static final int LENGTH = 6;
+
+	private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+	private static final int BITS_PER_CHAR = 5;
+	private static final int MASK = (1 << BITS_PER_CHAR) - 1;
+
+	private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(PnrGenerator::newRandom);
+
+	public String next() {
+		int bits = RANDOM.get().nextInt(1 << (LENGTH * BITS_PER_CHAR));
+		char[] code = new char[LENGTH];
+		for (int i = LENGTH - 1; i >= 0; i--) {
+			code[i] = ALPHABET[bits & MASK];
+			bits >>>= BITS_PER_CHAR;
+		}
+		return new String(code);
+	}
+
+	private static SecureRandom newRandom() {
+		try {
+			return SecureRandom.getInstance("DRBG");
+		} catch (NoSuchAlgorithmException e) {
+			return new SecureRandom();
+		}
+	}
+}
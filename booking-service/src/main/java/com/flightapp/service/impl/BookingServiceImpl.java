@@ -1,100 +1,171 @@
 package com.flightapp.service.impl;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.flightapp.client.FlightClient;
+import com.flightapp.dto.CursorPage;
 import com.flightapp.dto.FlightDto;
+import com.flightapp.dto.PageCursor;
+import com.flightapp.dto.SeatHoldDto;
+import com.flightapp.dto.SeatLeg;
 import com.flightapp.exception.FlightBookingException;
-import com.flightapp.feign.FlightClient;
-import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.BookingEventOutbox;
 import com.flightapp.model.FLIGHTTYPE;
+import com.flightapp.model.OutboxEvent;
 import com.flightapp.model.Passenger;
 import com.flightapp.model.Ticket;
 import com.flightapp.repository.PassengerRepository;
 import com.flightapp.repository.TicketRepository;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.PnrGenerator;
 
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
 @Service
 @RequiredArgsConstructor
 @CircuitBreaker(name = "bookingServiceImplCircuitBreaker", fallbackMethod = "bookingFallback")
 public class BookingServiceImpl implements BookingService {
 
+	private static final Logger log = LoggerFactory.getLogger(BookingServiceImpl.class);
+
 	private final TicketRepository ticketRepository;
 	private final PassengerRepository passengerRepository;
 	private final FlightClient flightClient;
-	private final KafkaTemplate<String, BookingEvent> kafkaTemplate;
+	private final BookingEventOutbox bookingEventOutbox;
+	private final PnrGenerator pnrGenerator;
 
-	private static final String TOPIC = "booking-events";
+	private static final String BOOKING_CONFIRMED = "BOOKING_CONFIRMED";
+	private static final String BOOKING_CANCELLED = "BOOKING_CANCELLED";
+	private static final int MAX_PAGE_SIZE = 100;
+	private static final int MAX_PNR_ATTEMPTS = 5;
+	private static final Duration PENDING_GRACE = Duration.ofMinutes(1);
+	private static final int PARKED_SWEEP_BATCH = 100;
+	private static final int COMPLETE_CANCEL_RETRIES = 3;
+	private static final Duration COMPLETE_CANCEL_BACKOFF = Duration.ofMillis(100);
 
 	@Override
 	public Mono<String> bookTicket(String userEmail, String departureFlightId, String returnFlightId,
-			List<Passenger> passengers, FLIGHTTYPE tripType) {
+			List<Passenger> passengers, FLIGHTTYPE tripType, String locale) {
 
 		int seatCount = passengers.size();
+		String returnLegId = tripType == FLIGHTTYPE.ROUND_TRIP ? returnFlightId : null;
+
+		List<String> seats = passengers.stream().map(Passenger::getSeatNumber).toList();
+		List<String> departureSeats = seats.stream().allMatch(seat -> seat != null && !seat.isBlank()) ? seats : null;
 
-		return Mono.fromCallable(() -> {
-			FlightDto depFlight = getFlightOrThrow(departureFlightId, seatCount, "Departure");
-			FlightDto retFlight = getReturnFlightIfNeeded(returnFlightId, tripType, seatCount);
-			reserveFlights(retFlight, departureFlightId, returnFlightId, seatCount);
-			return new CheckedFlights(depFlight, retFlight);
-		}).subscribeOn(Schedulers.boundedElastic())
-				.flatMap(checked -> createTicket(userEmail, departureFlightId, returnFlightId, passengers, tripType,
-						checked.dep(), checked.ret()))
+		return holdFlights(seatLegs(departureFlightId, returnLegId, seatCount, departureSeats))
+				.flatMap(hold -> createTicket(userEmail, departureFlightId, returnLegId, passengers, tripType, locale, hold)
+						.flatMap(pending -> bookingEventOutbox.park(BOOKING_CONFIRMED, pending).thenReturn(pending))
+						.onErrorResume(e -> releaseHold(hold).then(Mono.<Ticket>error(e)))
+						.flatMap(pending -> confirmHold(hold, pending)))
+				.map(Ticket::getPnr)
 				.onErrorResume(e -> Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e)));
 	}
 
-	private FlightDto getFlightOrThrow(String flightId, int seatCount, String type) {
-		FlightDto flight = flightClient.getFlight(flightId);
-		if (flight == null)
-			throw new FlightBookingException(type + " flight not found");
-		if (flight.getAvailableSeats() < seatCount)
-			throw new FlightBookingException("Not enough seats in " + type.toLowerCase() + " flight");
-		return flight;
+	private Mono<SeatHoldDto> holdFlights(List<SeatLeg> legs) {
+		return flightClient.holdSeats(legs)
+				.onErrorMap(WebClientResponseException.NotFound.class,
+						e -> new FlightBookingException("Flight not found", e))
+				.onErrorMap(WebClientResponseException.Conflict.class,
+						e -> new FlightBookingException("Not enough seats", e))
+				.onErrorMap(WebClientResponseException.BadRequest.class,
+						e -> new FlightBookingException("Invalid seat selection", e))
+				.onErrorMap(e -> !(e instanceof FlightBookingException),
+						e -> new FlightBookingException("Failed to reserve seats", e));
 	}
 
-	private FlightDto getReturnFlightIfNeeded(String returnFlightId, FLIGHTTYPE tripType, int seatCount) {
-		if (tripType == FLIGHTTYPE.ROUND_TRIP && returnFlightId != null) {
-			return getFlightOrThrow(returnFlightId, seatCount, "Return");
-		}
-		return null;
+	/**
+	 * The ticket only becomes CONFIRMED once the hold is. When the confirm fails
+	 * the hold is released and the ticket expired; anything that cannot be
+	 * settled here is left PENDING for {@link #settleStalePendingBookings()}.
+	 * Nothing after a successful confirm fails the booking, since the seats are
+	 * committed by then.
+	 */
+	private Mono<Ticket> confirmHold(SeatHoldDto hold, Ticket ticket) {
+		return flightClient.confirmHold(hold.getId())
+				.then(Mono.defer(() -> markConfirmed(ticket)))
+				.onErrorResume(e -> {
+					FlightBookingException expired = new FlightBookingException("Seat hold expired, please retry", e);
+					return flightClient.releaseHold(hold.getId())
+							.then(Mono.defer(() -> expire(ticket)))
+							.onErrorResume(WebClientResponseException.NotFound.class, notFound -> expire(ticket))
+							.flatMap(expiredTicket -> Mono.<Ticket>error(expired))
+							// the hold is already confirmed, so the first confirm went through after all
+							.onErrorResume(WebClientResponseException.Conflict.class,
+									confirmed -> markConfirmed(ticket))
+							.onErrorMap(release -> release != expired, release -> expired);
+				});
 	}
 
-	private void reserveFlights(FlightDto retFlight, String departureFlightId, String returnFlightId, int seatCount) {
+	private Mono<Ticket> markConfirmed(Ticket ticket) {
+		return confirmTicket(ticket)
+				.thenReturn(ticket)
+				.onErrorResume(e -> {
+					// the sweep finishes the transition
+					log.warn("Ticket {} stays PENDING after its hold was confirmed", ticket.getPnr(), e);
+					return Mono.just(ticket);
+				});
+	}
 
-		flightClient.reserveSeats(departureFlightId, seatCount);
+	// the event is released before the ticket leaves PENDING, so a failure in between is retried by the sweep
+	private Mono<Ticket> confirmTicket(Ticket ticket) {
+		ticket.setStatus(Ticket.Status.CONFIRMED);
+		return bookingEventOutbox.release(BOOKING_CONFIRMED, ticket)
+				.then(Mono.defer(() -> ticketRepository.transitionStatus(ticket.getId(), Ticket.Status.PENDING,
+						Ticket.Status.CONFIRMED)));
+	}
 
-		if (retFlight != null) {
-			try {
-				flightClient.reserveSeats(returnFlightId, seatCount);
-			} catch (Exception e) {
-				flightClient.releaseSeats(departureFlightId, seatCount);
-				throw new FlightBookingException("Failed to reserve return flight, rolled back departure", e);
-			}
+	private Mono<Ticket> expire(Ticket ticket) {
+		ticket.setStatus(Ticket.Status.EXPIRED);
+		return ticketRepository.transitionStatus(ticket.getId(), Ticket.Status.PENDING, Ticket.Status.EXPIRED)
+				.then(Mono.defer(() -> bookingEventOutbox.discard(BOOKING_CONFIRMED, ticket)
+						.onErrorResume(e -> Mono.empty())))
+				.thenReturn(ticket);
+	}
+
+	private Mono<Void> releaseHold(SeatHoldDto hold) {
+		return flightClient.releaseHold(hold.getId()).then().onErrorResume(e -> Mono.empty());
+	}
+
+	// passenger seat numbers are specific to the departure flight; the return leg is only counted
+	private List<SeatLeg> seatLegs(String departureFlightId, String returnFlightId, int seatCount,
+			List<String> departureSeats) {
+		List<SeatLeg> legs = new ArrayList<>();
+		legs.add(new SeatLeg(departureFlightId, seatCount, departureSeats));
+		if (returnFlightId != null) {
+			legs.add(new SeatLeg(returnFlightId, seatCount));
 		}
+		return legs;
 	}
 
-	private Mono<String> createTicket(String userEmail, String departureFlightId, String returnFlightId,
-			List<Passenger> passengers, FLIGHTTYPE tripType, FlightDto depFlight, FlightDto retFlight) {
+	private Mono<Ticket> createTicket(String userEmail, String departureFlightId, String returnFlightId,
+			List<Passenger> passengers, FLIGHTTYPE tripType, String locale, SeatHoldDto hold) {
+		FlightDto depFlight = hold.getFlights().get(0);
+		FlightDto retFlight = hold.getFlights().size() > 1 ? hold.getFlights().get(1) : null;
 
 		Ticket ticket = new Ticket();
-		ticket.setPnr(UUID.randomUUID().toString().substring(0, 8));
 		ticket.setUserEmail(userEmail);
 		ticket.setDepartureFlightId(departureFlightId);
 		ticket.setReturnFlightId(returnFlightId);
 		ticket.setTripType(tripType);
+		ticket.setLocale(locale);
 		ticket.setBookingTime(LocalDateTime.now());
 		ticket.setSeatsBooked(passengers.stream().map(Passenger::getSeatNumber).collect(Collectors.joining(",")));
 
@@ -105,10 +176,47 @@ public class BookingServiceImpl implements BookingService {
 		}
 		ticket.setTotalPrice(total);
 		ticket.setCanceled(false);
-		return ticketRepository.save(ticket).flatMap(saved -> {
+		ticket.setStatus(Ticket.Status.PENDING);
+		ticket.setHoldId(hold.getId());
+		ticket.setHoldExpiresAt(hold.getExpiresAt());
+		return saveWithFreshPnr(ticket).flatMap(saved -> {
 			passengers.forEach(p -> p.setTicketId(saved.getId()));
 			return passengerRepository.saveAll(passengers).then(Mono.just(saved));
-		}).doOnSuccess(saved -> sendEvent("BOOKING_CONFIRMED", saved)).map(Ticket::getPnr);
+		});
+	}
+
+	private Mono<Ticket> saveWithFreshPnr(Ticket ticket) {
+		return Mono.defer(() -> {
+			ticket.setId(null);
+			ticket.setPnr(pnrGenerator.next());
+			return ticketRepository.save(ticket);
+		}).retryWhen(Retry.max(MAX_PNR_ATTEMPTS - 1).filter(DuplicateKeyException.class::isInstance)
+				.onRetryExhaustedThrow((spec, signal) -> new FlightBookingException("Could not allocate a PNR",
+						signal.failure())));
+	}
+
+	/**
+	 * Settles tickets left PENDING by a booking that died or lost track of its
+	 * confirm. Once the hold's expiry has passed it can no longer be confirmed
+	 * for the first time, so a successful confirm means it already was; a 404
+	 * means the seats went back to inventory and the ticket is expired.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${booking.pending.sweep-interval-ms:60000}")
+	public Mono<Long> settleStalePendingBookings() {
+		return ticketRepository
+				.findByStatusAndHoldExpiresAtBefore(Ticket.Status.PENDING, LocalDateTime.now().minus(PENDING_GRACE))
+				.concatMap(ticket -> flightClient.confirmHold(ticket.getHoldId())
+						.then(Mono.defer(() -> confirmTicket(ticket)))
+						.onErrorResume(WebClientResponseException.NotFound.class, e -> expire(ticket))
+						.doOnError(e -> log.warn("Failed to settle pending ticket {}", ticket.getPnr(), e))
+						.onErrorResume(e -> Mono.empty()))
+				.count()
+				.doOnNext(settled -> {
+					if (settled > 0) {
+						log.info("Settled {} pending tickets", settled);
+					}
+				});
 	}
 
 	@Override
@@ -121,46 +229,123 @@ public class BookingServiceImpl implements BookingService {
 		return ticketRepository.findByUserEmail(email);
 	}
 
+	@Override
+	public Mono<CursorPage<Ticket>> historyPageByEmail(String email, String cursor, int size) {
+		int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		return Mono.defer(() -> ticketRepository
+				.findPageByUserEmail(email, PageCursor.decode(cursor), pageSize + 1).collectList())
+				.map(tickets -> {
+					if (tickets.size() <= pageSize) {
+						return new CursorPage<>(tickets, null);
+					}
+					List<Ticket> page = tickets.subList(0, pageSize);
+					Ticket last = page.get(pageSize - 1);
+					return new CursorPage<>(page, new PageCursor(last.getBookingTime(), last.getId()).encode());
+				});
+	}
+
 	@Override
 	public Mono<String> cancelByPnr(String pnr) {
 		return ticketRepository.findByPnr(pnr)
 				.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "PNR not found")))
 				.flatMap(ticket -> {
 					if (ticket.isCanceled()) {
-						return Mono.just("Ticket already cancelled");
+						// a previous cancel may have stopped before handing its event over
+						return bookingEventOutbox.release(BOOKING_CANCELLED, ticket)
+								.doOnError(e -> log.warn("Failed to release cancellation event for {}", pnr, e))
+								.onErrorResume(e -> Mono.empty())
+								.thenReturn("Ticket already cancelled");
 					}
-
-					int seatCount = (ticket.getSeatsBooked() != null && !ticket.getSeatsBooked().isEmpty())
-							? ticket.getSeatsBooked().split(",").length
-							: 1;
-
-					return Mono.fromCallable(() -> {
-						flightClient.releaseSeats(ticket.getDepartureFlightId(), seatCount);
-						if (ticket.getReturnFlightId() != null) {
-							flightClient.releaseSeats(ticket.getReturnFlightId(), seatCount);
-						}
-						return true;
-					}).subscribeOn(Schedulers.boundedElastic()).then(updateCancellation(ticket));
+					if (ticket.getStatus() == Ticket.Status.PENDING || ticket.getStatus() == Ticket.Status.EXPIRED) {
+						return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "Booking is not confirmed"));
+					}
+					return ticketRepository.beginCancellation(ticket.getId())
+							.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+									"Cancellation already in progress")))
+							.flatMap(cancelling -> cancel(ticket));
 				});
 	}
 
-	private Mono<String> updateCancellation(Ticket ticket) {
-		ticket.setCanceled(true);
-		return ticketRepository.save(ticket).doOnSuccess(saved -> sendEvent("BOOKING_CANCELLED", saved))
+	/**
+	 * Runs once the ticket is CANCELLING, so no other cancel touches the seats.
+	 * If the seats cannot be returned the ticket goes back to CONFIRMED and the
+	 * event is dropped; once they are, failures only leave work for the sweeps.
+	 */
+	private Mono<String> cancel(Ticket ticket) {
+		List<String> seats = (ticket.getSeatsBooked() != null && !ticket.getSeatsBooked().isEmpty())
+				? List.of(ticket.getSeatsBooked().split(","))
+				: null;
+		int seatCount = seats != null ? seats.size() : 1;
+		// seatsBooked holds "null" entries for passengers booked without a seat number
+		List<String> departureSeats = seats != null
+				&& seats.stream().noneMatch(seat -> seat.isBlank() || seat.equals("null"))
+				? seats
+				: null;
+
+		return bookingEventOutbox.park(BOOKING_CANCELLED, ticket)
+				.then(Mono.defer(() -> flightClient.releaseSeats(seatLegs(ticket.getDepartureFlightId(),
+						ticket.getReturnFlightId(), seatCount, departureSeats))))
+				.onErrorResume(e -> abortCancellation(ticket).then(Mono.error(e)))
+				.then(Mono.defer(() -> ticketRepository.completeCancellation(ticket.getId())
+						.retryWhen(Retry.backoff(COMPLETE_CANCEL_RETRIES, COMPLETE_CANCEL_BACKOFF))
+						.doOnError(e -> log.error("Seats of {} were returned but the ticket is stuck CANCELLING",
+								ticket.getPnr(), e))))
+				.flatMap(cancelled -> bookingEventOutbox.release(BOOKING_CANCELLED, cancelled)
+						.doOnError(e -> log.warn("Failed to release cancellation event for {}", ticket.getPnr(), e))
+						.onErrorResume(e -> Mono.empty()))
 				.thenReturn("Cancelled Successfully");
 	}
 
-	private void sendEvent(String eventType, Ticket ticket) {
-		BookingEvent event = BookingEvent.builder().eventType(eventType).pnr(ticket.getPnr())
-				.userEmail(ticket.getUserEmail()).totalPrice(ticket.getTotalPrice()).build();
+	private Mono<Void> abortCancellation(Ticket ticket) {
+		return ticketRepository.transitionStatus(ticket.getId(), Ticket.Status.CANCELLING, Ticket.Status.CONFIRMED)
+				.then(Mono.defer(() -> bookingEventOutbox.discard(BOOKING_CANCELLED, ticket)))
+				.doOnError(e -> log.error("Failed to roll back the cancellation of {}", ticket.getPnr(), e))
+				.onErrorResume(e -> Mono.empty());
+	}
 
-		try {
-			kafkaTemplate.send(TOPIC, ticket.getPnr(), event);
-		} catch (Exception ex) {
-			// log
-		}
+	/**
+	 * Hands over parked events whose booking change has happened, for when the
+	 * request that made the change failed to release them, and drops those of
+	 * bookings that expired. Events of tickets still in flight are left alone.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${booking.outbox.parked-sweep-interval-ms:60000}")
+	public Mono<Long> releaseSettledBookingEvents() {
+		return bookingEventOutbox.parkedBefore(LocalDateTime.now().minus(PENDING_GRACE), PARKED_SWEEP_BATCH)
+				.concatMap(event -> ticketRepository.findByPnr(event.getPayload().getPnr())
+						.flatMap(ticket -> settleParked(event, ticket))
+						// the ticket is gone, so the change the event announces never will happen
+						.switchIfEmpty(Mono.defer(() -> bookingEventOutbox.discard(event).thenReturn(true)))
+						.doOnError(e -> log.warn("Failed to settle parked event {}", event.getId(), e))
+						.onErrorResume(e -> Mono.empty()))
+				.filter(Boolean::booleanValue)
+				.count()
+				.doOnNext(settled -> {
+					if (settled > 0) {
+						log.info("Settled {} parked booking events", settled);
+					}
+				});
 	}
 
-	private record CheckedFlights(FlightDto dep, FlightDto ret) {
+	private Mono<Boolean> settleParked(OutboxEvent event, Ticket ticket) {
+		Ticket.Status status = ticket.getStatus();
+		boolean cancelled = ticket.isCanceled() || status == Ticket.Status.CANCELLED;
+		if (BOOKING_CONFIRMED.equals(event.getPayload().getEventType())) {
+			if (status == Ticket.Status.EXPIRED) {
+				return bookingEventOutbox.discard(event).thenReturn(true);
+			}
+			if (status == Ticket.Status.CONFIRMED || status == Ticket.Status.CANCELLING || cancelled) {
+				return bookingEventOutbox.release(event).thenReturn(true);
+			}
+		} else if (BOOKING_CANCELLED.equals(event.getPayload().getEventType())) {
+			if (cancelled) {
+				return bookingEventOutbox.release(event).thenReturn(true);
+			}
+			// the event is parked after the ticket is CANCELLING, so CONFIRMED means the cancel rolled back
+			if (status == Ticket.Status.CONFIRMED || status == null) {
+				return bookingEventOutbox.discard(event).thenReturn(true);
+			}
+		}
+		return Mono.just(false);
 	}
-}
\ No newline at end of file
+}
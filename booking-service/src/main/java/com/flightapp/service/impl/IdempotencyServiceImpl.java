@@ -0,0 +1,180 @@
+package com.flightapp.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.flightapp.model.IdempotencyRecord;
+import com.flightapp.model.IdempotencyRecord.Status;
+import com.flightapp.repository.IdempotencyRecordRepository;
+import com.flightapp.service.IdempotencyService;
+
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Idempotency keys are claimed by inserting an IN_PROGRESS record into Mongo,
+ * which serialises duplicates across instances. Within an instance, duplicates
+ * of an in-flight key share the first request's Mono, and completed keys are
+ * answered from a bounded in-memory cache without a Mongo round trip.
+ *
+ * Only successful results are stored; when the action fails the key is
+ * released so the client can retry with it. Once the action has succeeded the
+ * key is never released: storing the result is retried, and if it still
+ * fails the result is returned anyway and the key stays IN_PROGRESS, so
+ * retries get a 409 until the lease runs out instead of a second booking.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+	private static final Logger log = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+	private static final Duration POLL_INTERVAL = Duration.ofMillis(250);
+	private static final int SAVE_RETRIES = 3;
+	private static final Duration SAVE_BACKOFF = Duration.ofMillis(100);
+
+	private final IdempotencyRecordRepository repository;
+	private final Duration ttl;
+	private final Duration lease;
+	private final int maxPolls;
+
+	private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+	private final Map<String, IdempotencyRecord> completed;
+
+	private record InFlight(String fingerprint, Mono<String> result) {
+	}
+
+	/** Signals that the key is held elsewhere (or just freed) and the claim should be retried. */
+	private static final class KeyBusyException extends RuntimeException {
+		private KeyBusyException() {
+			super(null, null, false, false);
+		}
+	}
+
+	public IdempotencyServiceImpl(IdempotencyRecordRepository repository,
+			@Value("${booking.idempotency.ttl:24h}") Duration ttl,
+			@Value("${booking.idempotency.lease:2m}") Duration lease,
+			@Value("${booking.idempotency.max-wait:10s}") Duration maxWait,
+			@Value("${booking.idempotency.cache-size:10000}") int cacheSize) {
+		this.repository = repository;
+		this.ttl = ttl;
+		this.lease = lease;
+		this.maxPolls = (int) Math.max(1, maxWait.toMillis() / POLL_INTERVAL.toMillis());
+		this.completed = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	@Override
+	public Mono<String> execute(String key, String fingerprint, Mono<String> action) {
+		IdempotencyRecord cached = cachedResult(key);
+		if (cached != null) {
+			return replay(cached, fingerprint);
+		}
+
+		InFlight[] created = new InFlight[1];
+		created[0] = new InFlight(fingerprint, claim(key, fingerprint, action)
+				.doFinally(signal -> inFlight.remove(key, created[0])).cache());
+		InFlight current = inFlight.putIfAbsent(key, created[0]);
+		if (current == null) {
+			return created[0].result();
+		}
+		if (!current.fingerprint().equals(fingerprint)) {
+			return Mono.error(keyReused());
+		}
+		return current.result();
+	}
+
+	private Mono<String> claim(String key, String fingerprint, Mono<String> action) {
+		return Mono.defer(() -> {
+			LocalDateTime now = LocalDateTime.now();
+			IdempotencyRecord claim = new IdempotencyRecord(key, fingerprint, Status.IN_PROGRESS, null, now,
+					now.plus(lease));
+			return repository.insert(claim).thenReturn(true)
+					.onErrorResume(DuplicateKeyException.class, e -> Mono.just(false))
+					.flatMap(claimed -> claimed ? run(claim, action) : existing(key, fingerprint, now));
+		}).retryWhen(Retry.fixedDelay(maxPolls, POLL_INTERVAL).filter(KeyBusyException.class::isInstance)
+				.onRetryExhaustedThrow((spec, signal) -> new ResponseStatusException(HttpStatus.CONFLICT,
+						"A request with this Idempotency-Key is still in progress")));
+	}
+
+	private Mono<String> run(IdempotencyRecord claim, Mono<String> action) {
+		return action.onErrorResume(e -> !(e instanceof KeyBusyException),
+				e -> repository.deleteById(claim.getKey()).then(Mono.<String>error(e)))
+				.flatMap(result -> complete(claim, result));
+	}
+
+	private Mono<String> complete(IdempotencyRecord claim, String result) {
+		claim.setStatus(Status.COMPLETED);
+		claim.setPnr(result);
+		claim.setExpiresAt(LocalDateTime.now().plus(ttl));
+		return Mono.defer(() -> repository.save(claim))
+				.retryWhen(Retry.backoff(SAVE_RETRIES, SAVE_BACKOFF))
+				.onErrorResume(e -> {
+					log.error("Failed to store the result of Idempotency-Key {}; leaving it in progress",
+							claim.getKey(), e);
+					return Mono.just(claim);
+				})
+				.doOnNext(this::cache)
+				.thenReturn(result);
+	}
+
+	private Mono<String> existing(String key, String fingerprint, LocalDateTime now) {
+		return repository.findById(key).flatMap(existing -> {
+			if (existing.getExpiresAt() != null && existing.getExpiresAt().isBefore(now)) {
+				// not yet removed by the TTL monitor; free it and claim again
+				return repository.deleteByKeyAndExpiresAtBefore(key, now).then(Mono.<String>error(new KeyBusyException()));
+			}
+			if (existing.getStatus() == Status.COMPLETED) {
+				cache(existing);
+				return replay(existing, fingerprint);
+			}
+			if (!existing.getFingerprint().equals(fingerprint)) {
+				return Mono.<String>error(keyReused());
+			}
+			return Mono.<String>error(new KeyBusyException());
+		}).switchIfEmpty(Mono.error(new KeyBusyException()));
+	}
+
+	private Mono<String> replay(IdempotencyRecord result, String fingerprint) {
+		if (!result.getFingerprint().equals(fingerprint)) {
+			return Mono.error(keyReused());
+		}
+		return Mono.just(result.getPnr());
+	}
+
+	private IdempotencyRecord cachedResult(String key) {
+		synchronized (completed) {
+			IdempotencyRecord cached = completed.get(key);
+			if (cached != null && cached.getExpiresAt().isBefore(LocalDateTime.now())) {
+				completed.remove(key);
+				return null;
+			}
+			return cached;
+		}
+	}
+
+	private void cache(IdempotencyRecord result) {
+		synchronized (completed) {
+			completed.put(result.getKey(), result);
+		}
+	}
+
+	private static ResponseStatusException keyReused() {
+		return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+				"Idempotency-Key was already used for a different request");
+	}
+}
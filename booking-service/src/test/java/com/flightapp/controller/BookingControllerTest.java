@@ -1,9 +1,12 @@
 package com.flightapp.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
@@ -12,11 +15,14 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.flightapp.model.FLIGHTTYPE;
 import com.flightapp.model.Passenger;
 import com.flightapp.model.Ticket;
 import com.flightapp.service.BookingService;
+import com.flightapp.service.IdempotencyService;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -25,12 +31,14 @@ import reactor.test.StepVerifier;
 class BookingControllerTest {
 
 	private BookingService bookingService;
+	private IdempotencyService idempotencyService;
 	private BookingController bookingController;
 
 	@BeforeEach
 	void setUp() {
 		bookingService = Mockito.mock(BookingService.class);
-		bookingController = new BookingController(bookingService);
+		idempotencyService = Mockito.mock(IdempotencyService.class);
+		bookingController = new BookingController(bookingService, idempotencyService);
 	}
 
 	@Test
@@ -47,13 +55,83 @@ class BookingControllerTest {
 		passenger.setSeatNumber("A1");
 		request.setPassengers(List.of(passenger));
 
-		when(bookingService.bookTicket(anyString(), anyString(), anyString(), anyList(), any(FLIGHTTYPE.class)))
+		when(bookingService.bookTicket(anyString(), anyString(), anyString(), anyList(), any(FLIGHTTYPE.class), any()))
 				.thenReturn(Mono.just("PNR123"));
 
-		StepVerifier.create(bookingController.bookTicket("DEP123", request)).expectNext("PNR123").verifyComplete();
+		StepVerifier.create(bookingController.bookTicket("DEP123", request, null, null)).expectNext("PNR123")
+				.verifyComplete();
 
 		verify(bookingService).bookTicket("pooja@gmail.com", "DEP123", "RET123", request.getPassengers(),
-				FLIGHTTYPE.ROUND_TRIP);
+				FLIGHTTYPE.ROUND_TRIP, null);
+	}
+
+	@Test
+	void testBookTicketPassesPreferredLanguage() {
+		BookingController.BookingRequest request = new BookingController.BookingRequest();
+		request.setUserEmail("pooja@gmail.com");
+		request.setTripType(FLIGHTTYPE.ONE_WAY);
+
+		when(bookingService.bookTicket(anyString(), anyString(), any(), any(), any(FLIGHTTYPE.class), any()))
+				.thenReturn(Mono.just("PNR123"));
+
+		StepVerifier.create(bookingController.bookTicket("DEP123", request, null, "en;q=0.5, fr-FR, fr;q=0.9"))
+				.expectNext("PNR123").verifyComplete();
+
+		verify(bookingService).bookTicket("pooja@gmail.com", "DEP123", null, null, FLIGHTTYPE.ONE_WAY, "fr-FR");
+	}
+
+	@Test
+	void testPreferredLanguageTag() {
+		assertThat(BookingController.preferredLanguageTag(null)).isNull();
+		assertThat(BookingController.preferredLanguageTag("*")).isNull();
+		assertThat(BookingController.preferredLanguageTag("not a language;q=x")).isNull();
+		assertThat(BookingController.preferredLanguageTag("fr-ca, en;q=0.8")).isEqualTo("fr-CA");
+	}
+
+	@Test
+	void testBookTicketWithIdempotencyKey() {
+		BookingController.BookingRequest request = new BookingController.BookingRequest();
+		request.setUserEmail("pooja@gmail.com");
+		request.setTripType(FLIGHTTYPE.ONE_WAY);
+
+		when(idempotencyService.execute(eq("pooja@gmail.com|key-1"), anyString(), any()))
+				.thenReturn(Mono.just("PNR123"));
+
+		StepVerifier.create(bookingController.bookTicket("DEP123", request, "key-1", null)).expectNext("PNR123")
+				.verifyComplete();
+
+		verify(idempotencyService).execute(eq("pooja@gmail.com|key-1"), anyString(), any());
+		verifyNoInteractions(bookingService);
+	}
+
+	@Test
+	void testFingerprintCoversPassengerDetails() {
+		Passenger passenger = new Passenger();
+		passenger.setName("Pooja");
+		passenger.setGender("F");
+		passenger.setAge(28);
+		passenger.setSeatNumber("1A");
+		BookingController.BookingRequest request = new BookingController.BookingRequest();
+		request.setUserEmail("pooja@gmail.com");
+		request.setTripType(FLIGHTTYPE.ONE_WAY);
+		request.setPassengers(List.of(passenger));
+		String original = BookingController.fingerprint("DEP123", request);
+
+		assertThat(BookingController.fingerprint("DEP123", request)).isEqualTo(original);
+		passenger.setSeatNumber("1B");
+		assertThat(BookingController.fingerprint("DEP123", request)).isNotEqualTo(original);
+		passenger.setSeatNumber("1A");
+		assertThat(BookingController.fingerprint("DEP124", request)).isNotEqualTo(original);
+	}
+
+	@Test
+	void testBookTicketRejectsBlankIdempotencyKey() {
+		BookingController.BookingRequest request = new BookingController.BookingRequest();
+
+		StepVerifier.create(bookingController.bookTicket("DEP123", request, " ", null))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.BAD_REQUEST)
+				.verify();
 	}
 
 	@Test
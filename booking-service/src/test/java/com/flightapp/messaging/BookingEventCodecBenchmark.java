@@ -0,0 +1,94 @@
+package com.flightapp.messaging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Encode and decode cost of the binary codec against the previous JSON
+ * serializers, and the record size of each. Not run by surefire; after
+ * {@code mvn test-compile} start main() from the IDE or with {@code mvn
+ * exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.flightapp.messaging.BookingEventCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingEventCodecBenchmark {
+
+	private static final String TOPIC = "booking-events";
+
+	private JsonSerializer<BookingEvent> jsonSerializer;
+	private JsonDeserializer<BookingEvent> jsonDeserializer;
+	private BookingEvent event;
+	private byte[] json;
+	private byte[] binary;
+
+	@Setup
+	public void setUp() {
+		jsonSerializer = new JsonSerializer<>();
+		jsonDeserializer = new JsonDeserializer<>(BookingEvent.class);
+		jsonDeserializer.addTrustedPackages("*");
+		event = sampleEvent();
+		json = jsonSerializer.serialize(TOPIC, event);
+		binary = BookingEventCodec.encode(event);
+	}
+
+	@TearDown
+	public void tearDown() {
+		jsonSerializer.close();
+		jsonDeserializer.close();
+	}
+
+	@Benchmark
+	public byte[] encodeJson() {
+		return jsonSerializer.serialize(TOPIC, event);
+	}
+
+	@Benchmark
+	public byte[] encodeBinary() {
+		return BookingEventCodec.encode(event);
+	}
+
+	@Benchmark
+	public BookingEvent decodeJson() {
+		return jsonDeserializer.deserialize(TOPIC, json);
+	}
+
+	@Benchmark
+	public BookingEvent decodeBinary() {
+		return BookingEventCodec.decode(binary);
+	}
+
+	private static BookingEvent sampleEvent() {
+		return BookingEvent.builder().eventType("BOOKING_CONFIRMED").pnr("7F3K9Q2M")
+				.userEmail("passenger@example.com").totalPrice(12499.0).departureFlightId("6731b0c2e4b0a1f2c3d4e5f6")
+				.returnFlightId("6731b0c2e4b0a1f2c3d4e5f7").passengerCount(2).locale("en-IN").build();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		try (JsonSerializer<BookingEvent> serializer = new JsonSerializer<>()) {
+			System.out.printf("bytes/event json=%d binary=%d%n", serializer.serialize(TOPIC, sampleEvent()).length,
+					BookingEventCodec.encode(sampleEvent()).length);
+		}
+		new Runner(new OptionsBuilder().include(BookingEventCodecBenchmark.class.getName()).build()).run();
+	}
+}
@@ -0,0 +1,79 @@
+package com.flightapp.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+
+import com.flightapp.model.OutboxEvent;
+import com.flightapp.model.Ticket;
+import com.flightapp.repository.OutboxEventRepository;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class BookingEventOutboxTest {
+
+	private OutboxEventRepository outboxEventRepository;
+	private BookingEventOutbox outbox;
+	private Ticket ticket;
+
+	@BeforeEach
+	void setUp() {
+		outboxEventRepository = mock(OutboxEventRepository.class);
+		outbox = new BookingEventOutbox(outboxEventRepository);
+
+		ticket = new Ticket();
+		ticket.setId("T1");
+		ticket.setPnr("PNR123");
+		ticket.setUserEmail("pooja@gmail.com");
+		ticket.setTotalPrice(1500.0);
+		ticket.setDepartureFlightId("FL1");
+		ticket.setSeatsBooked("A1,A2");
+		ticket.setLocale("fr-FR");
+	}
+
+	@Test
+	void parkWritesAnUnreleasedEventCarryingTheTicketLocale() {
+		when(outboxEventRepository.insert(any(OutboxEvent.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+
+		StepVerifier.create(outbox.park("BOOKING_CONFIRMED", ticket)).assertNext(event -> {
+			assertThat(event.getId()).isEqualTo("BOOKING_CONFIRMED:T1");
+			assertThat(event.getMessageKey()).isEqualTo("PNR123");
+			assertThat(event.getNextAttemptAt()).isNull();
+			assertThat(event.getPayload().getPassengerCount()).isEqualTo(2);
+			assertThat(BookingEventCodec.decode(BookingEventCodec.encode(event.getPayload())).getLocale())
+					.isEqualTo("fr-FR");
+		}).verifyComplete();
+	}
+
+	@Test
+	void parkReturnsTheExistingEventWhenParkedTwice() {
+		OutboxEvent existing = new OutboxEvent();
+		existing.setId("BOOKING_CONFIRMED:T1");
+		when(outboxEventRepository.insert(any(OutboxEvent.class)))
+				.thenReturn(Mono.error(new DuplicateKeyException("duplicate _id")));
+		when(outboxEventRepository.findById("BOOKING_CONFIRMED:T1")).thenReturn(Mono.just(existing));
+
+		StepVerifier.create(outbox.park("BOOKING_CONFIRMED", ticket)).expectNext(existing).verifyComplete();
+	}
+
+	@Test
+	void releaseTargetsTheTicketsEvent() {
+		when(outboxEventRepository.release(any(String.class), any(LocalDateTime.class))).thenReturn(Mono.empty());
+
+		StepVerifier.create(outbox.release("BOOKING_CANCELLED", ticket)).verifyComplete();
+
+		ArgumentCaptor<String> id = ArgumentCaptor.forClass(String.class);
+		verify(outboxEventRepository).release(id.capture(), any(LocalDateTime.class));
+		assertThat(id.getValue()).isEqualTo("BOOKING_CANCELLED:T1");
+	}
+}
@@ -0,0 +1,112 @@
+package com.flightapp.messaging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import com.flightapp.model.OutboxEvent;
+import com.flightapp.repository.OutboxEventRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class OutboxRelayTest {
+
+	private OutboxEventRepository outboxEventRepository;
+	private KafkaTemplate<String, BookingEvent> kafkaTemplate;
+	private OutboxRelay relay;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		outboxEventRepository = mock(OutboxEventRepository.class);
+		kafkaTemplate = mock(KafkaTemplate.class);
+		relay = new OutboxRelay(outboxEventRepository, kafkaTemplate, 100, Duration.ofSeconds(30),
+				Duration.ofSeconds(1), Duration.ofMinutes(5));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void relayPublishesClaimedEventsAndMarksThemPublished() {
+		OutboxEvent event = event("E1", 1);
+		when(outboxEventRepository.findReadyToPublish(any(LocalDateTime.class), eq(100))).thenReturn(Flux.just(event));
+		when(outboxEventRepository.claim(eq("E1"), any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(Mono.just(event));
+		when(kafkaTemplate.send(any(ProducerRecord.class)))
+				.thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+		when(outboxEventRepository.markPublished(eq("E1"), any(LocalDateTime.class))).thenReturn(Mono.empty());
+
+		StepVerifier.create(relay.relay()).expectNext(1L).verifyComplete();
+
+		ArgumentCaptor<ProducerRecord<String, BookingEvent>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+		verify(kafkaTemplate).send(captor.capture());
+		ProducerRecord<String, BookingEvent> sent = captor.getValue();
+		assertThat(sent.topic()).isEqualTo("booking-events");
+		assertThat(sent.key()).isEqualTo("PNR1");
+		assertThat(new String(sent.headers().lastHeader(OutboxRelay.EVENT_ID_HEADER).value(), StandardCharsets.UTF_8))
+				.isEqualTo("E1");
+		verify(outboxEventRepository, never()).markFailed(anyString(), anyString(), any(LocalDateTime.class));
+	}
+
+	@Test
+	void relaySkipsEventsClaimedByAnotherInstance() {
+		when(outboxEventRepository.findReadyToPublish(any(LocalDateTime.class), anyInt()))
+				.thenReturn(Flux.just(event("E1", 0)));
+		when(outboxEventRepository.claim(eq("E1"), any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(Mono.empty());
+
+		StepVerifier.create(relay.relay()).expectNext(0L).verifyComplete();
+
+		verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void relayBacksOffExponentiallyWhenSendFails() {
+		OutboxEvent event = event("E1", 3);
+		when(outboxEventRepository.findReadyToPublish(any(LocalDateTime.class), anyInt())).thenReturn(Flux.just(event));
+		when(outboxEventRepository.claim(eq("E1"), any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(Mono.just(event));
+		when(kafkaTemplate.send(any(ProducerRecord.class)))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+		when(outboxEventRepository.markFailed(anyString(), anyString(), any(LocalDateTime.class)))
+				.thenReturn(Mono.empty());
+
+		LocalDateTime before = LocalDateTime.now();
+		StepVerifier.create(relay.relay()).expectNext(0L).verifyComplete();
+
+		ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+		verify(outboxEventRepository).markFailed(eq("E1"), eq("broker down"), nextAttempt.capture());
+		assertThat(nextAttempt.getValue()).isAfterOrEqualTo(before.plusSeconds(4));
+		verify(outboxEventRepository, never()).markPublished(anyString(), any(LocalDateTime.class));
+	}
+
+	private static OutboxEvent event(String id, int attempts) {
+		OutboxEvent event = new OutboxEvent();
+		event.setId(id);
+		event.setTopic(BookingEventOutbox.TOPIC);
+		event.setMessageKey("PNR1");
+		event.setPayload(BookingEvent.builder().eventType("BOOKING_CONFIRMED").pnr("PNR1").build());
+		event.setAttempts(attempts);
+		return event;
+	}
+}
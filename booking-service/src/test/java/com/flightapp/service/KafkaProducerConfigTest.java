@@ -0,0 +1,88 @@
+package com.flightapp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.BookingEventPublishMetrics;
+import com.flightapp.messaging.BookingEventSerializer;
+import com.flightapp.service.KafkaProducerConfig.ProducerMode;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KafkaProducerConfigTest {
+
+	@SuppressWarnings("unchecked")
+	private final ObjectProvider<SslBundles> sslBundles = mock(ObjectProvider.class);
+
+	@Test
+	void throughputModeBatchesAndCompresses() {
+		Map<String, Object> configs = producerConfigs(new KafkaProperties(), ProducerMode.THROUGHPUT);
+
+		assertEquals(StringSerializer.class, configs.get(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG));
+		assertEquals(BookingEventSerializer.class, configs.get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG));
+		assertEquals(true, configs.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+		assertEquals("all", configs.get(ProducerConfig.ACKS_CONFIG));
+		assertEquals(20, configs.get(ProducerConfig.LINGER_MS_CONFIG));
+		assertEquals(128 * 1024, configs.get(ProducerConfig.BATCH_SIZE_CONFIG));
+		assertEquals("lz4", configs.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+	}
+
+	@Test
+	void latencyModeSendsImmediately() {
+		Map<String, Object> configs = producerConfigs(new KafkaProperties(), ProducerMode.LATENCY);
+
+		assertEquals(true, configs.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+		assertEquals(0, configs.get(ProducerConfig.LINGER_MS_CONFIG));
+		assertEquals("none", configs.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+	}
+
+	@Test
+	void springKafkaPropertiesOverrideModeDefaults() {
+		KafkaProperties properties = new KafkaProperties();
+		properties.setBootstrapServers(List.of("kafka-1:9092"));
+		properties.getProducer().setCompressionType("zstd");
+		properties.getProducer().getProperties().put(ProducerConfig.LINGER_MS_CONFIG, "5");
+
+		Map<String, Object> configs = producerConfigs(properties, ProducerMode.THROUGHPUT);
+
+		assertEquals(List.of("kafka-1:9092"), configs.get(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG));
+		assertEquals("zstd", configs.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+		assertEquals("5", configs.get(ProducerConfig.LINGER_MS_CONFIG));
+	}
+
+	@Test
+	void publishMetricsCountPerEventTypeAndResult() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		BookingEventPublishMetrics metrics = new BookingEventPublishMetrics(registry);
+		ProducerRecord<String, BookingEvent> producerRecord = new ProducerRecord<>("booking-events", "PNR1",
+				BookingEvent.builder().eventType("BOOKING_CONFIRMED").pnr("PNR1").build());
+
+		metrics.onSuccess(producerRecord, null);
+		metrics.onSuccess(producerRecord, null);
+		metrics.onError(producerRecord, null, new IllegalStateException("boom"));
+
+		assertEquals(2.0, registry.get("booking.events.published").tag("eventType", "BOOKING_CONFIRMED")
+				.tag("result", "success").counter().count());
+		assertEquals(1.0, registry.get("booking.events.published").tag("eventType", "BOOKING_CONFIRMED")
+				.tag("result", "failure").counter().count());
+	}
+
+	private Map<String, Object> producerConfigs(KafkaProperties properties, ProducerMode mode) {
+		DefaultKafkaProducerFactory<String, BookingEvent> factory = (DefaultKafkaProducerFactory<String, BookingEvent>) new KafkaProducerConfig(
+				properties, mode).bookingEventProducerFactory(sslBundles);
+		return factory.getConfigurationProperties();
+	}
+}
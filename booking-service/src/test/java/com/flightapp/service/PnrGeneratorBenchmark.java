@@ -0,0 +1,55 @@
+package com.flightapp.service;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of PnrGenerator against the previous UUID-based PNRs as the
+ * number of threads grows. Not run by surefire; after {@code mvn
+ * test-compile} start main() from the IDE or with {@code mvn exec:java
+ * -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.flightapp.service.PnrGeneratorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PnrGeneratorBenchmark {
+
+	private final PnrGenerator generator = new PnrGenerator();
+
+	@Benchmark
+	public String pnr() {
+		return generator.next();
+	}
+
+	@Benchmark
+	public String uuid() {
+		return UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			new Runner(new OptionsBuilder()
+					.include(PnrGeneratorBenchmark.class.getName())
+					.threads(threads)
+					.build()).run();
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.flightapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class PnrGeneratorTest {
+
+	private final PnrGenerator generator = new PnrGenerator();
+
+	@Test
+	void generatesSixCharactersFromTheUnambiguousAlphabet() {
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(generator.next()).matches("[0-9A-HJKMNP-TV-Z]{6}");
+		}
+	}
+
+	@Test
+	void collisionsAreRareAtBookingVolumes() {
+		Set<String> seen = new HashSet<>();
+		int duplicates = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (!seen.add(generator.next())) {
+				duplicates++;
+			}
+		}
+		// expected ~4.7 for 1e5 draws from 2^30; the unique index catches the rest
+		assertThat(duplicates).isLessThan(30);
+	}
+}
@@ -1,33 +1,48 @@
 package com.flightapp.service.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.flightapp.client.FlightClient;
 import com.flightapp.dto.FlightDto;
-import com.flightapp.feign.FlightClient;
+import com.flightapp.dto.PageCursor;
+import com.flightapp.dto.SeatHoldDto;
+import com.flightapp.dto.SeatLeg;
 import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.BookingEventOutbox;
 import com.flightapp.model.FLIGHTTYPE;
+import com.flightapp.model.OutboxEvent;
 import com.flightapp.model.Passenger;
 import com.flightapp.model.Ticket;
 import com.flightapp.repository.PassengerRepository;
 import com.flightapp.repository.TicketRepository;
+import com.flightapp.service.PnrGenerator;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -45,7 +60,10 @@ class BookingServiceImplTest {
 	private FlightClient flightClient;
 
 	@Mock
-	private KafkaTemplate<String, BookingEvent> kafkaTemplate;
+	private BookingEventOutbox bookingEventOutbox;
+
+	@Spy
+	private PnrGenerator pnrGenerator;
 
 	@InjectMocks
 	private BookingServiceImpl bookingService;
@@ -67,34 +85,267 @@ class BookingServiceImplTest {
 		depFlight.setId("FL1");
 		depFlight.setAvailableSeats(5);
 		depFlight.setPrice(100.0);
+
+		when(bookingEventOutbox.park(anyString(), any(Ticket.class))).thenReturn(Mono.just(new OutboxEvent()));
+		when(bookingEventOutbox.release(anyString(), any(Ticket.class))).thenReturn(Mono.empty());
+		when(bookingEventOutbox.discard(anyString(), any(Ticket.class))).thenReturn(Mono.empty());
+		when(ticketRepository.transitionStatus(any(), any(), any())).thenReturn(Mono.empty());
+		when(ticketRepository.beginCancellation(any())).thenAnswer(i -> Mono.just(new Ticket()));
 	}
 
 	@Test
 	void testBookTicketSuccess() {
-		when(flightClient.getFlight("FL1")).thenReturn(depFlight);
-		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+		List<Ticket.Status> savedStatuses = new ArrayList<>();
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.just(seatHold(depFlight)));
+		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> {
+			Ticket ticket = i.getArgument(0);
+			savedStatuses.add(ticket.getStatus());
+			ticket.setId("T1");
+			return Mono.just(ticket);
+		});
 		when(passengerRepository.saveAll(anyList())).thenReturn(Flux.fromIterable(List.of(passenger)));
 
 		StepVerifier.create(
-				bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger), FLIGHTTYPE.ONE_WAY))
-				.expectNextMatches(pnr -> pnr != null && !pnr.isEmpty()).verifyComplete();
+				bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger), FLIGHTTYPE.ONE_WAY,
+						"fr-FR"))
+				.expectNextMatches(pnr -> pnr.length() == PnrGenerator.LENGTH).verifyComplete();
 
-		verify(flightClient).reserveSeats("FL1", 1);
-		verify(ticketRepository).save(any(Ticket.class));
+		assertThat(savedStatuses).containsExactly(Ticket.Status.PENDING);
+		verify(flightClient).holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))));
+		verify(ticketRepository)
+				.save(argThat(ticket -> "H1".equals(ticket.getHoldId()) && "fr-FR".equals(ticket.getLocale())));
 		verify(passengerRepository).saveAll(anyList());
+		InOrder inOrder = inOrder(bookingEventOutbox, flightClient, ticketRepository);
+		inOrder.verify(bookingEventOutbox).park(eq("BOOKING_CONFIRMED"), any(Ticket.class));
+		inOrder.verify(flightClient).confirmHold("H1");
+		inOrder.verify(bookingEventOutbox).release(eq("BOOKING_CONFIRMED"), any(Ticket.class));
+		inOrder.verify(ticketRepository).transitionStatus("T1", Ticket.Status.PENDING, Ticket.Status.CONFIRMED);
+	}
+
+	@Test
+	void testBookTicketRetriesOnPnrCollision() {
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.just(seatHold(depFlight)));
+		when(pnrGenerator.next()).thenReturn("AAAAAA", "BBBBBB");
+		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> {
+			Ticket ticket = i.getArgument(0);
+			return "AAAAAA".equals(ticket.getPnr()) ? Mono.error(new DuplicateKeyException("pnr_unique_idx"))
+					: Mono.just(ticket);
+		});
+		when(passengerRepository.saveAll(anyList())).thenReturn(Flux.fromIterable(List.of(passenger)));
+
+		StepVerifier.create(
+				bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger), FLIGHTTYPE.ONE_WAY, null))
+				.expectNext("BBBBBB").verifyComplete();
 	}
 
 	@Test
 	void testBookTicketNotEnoughSeats() {
-		depFlight.setAvailableSeats(0);
-		when(flightClient.getFlight("FL1")).thenReturn(depFlight);
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1")))))
+				.thenReturn(Mono.error(flightServiceError(HttpStatus.CONFLICT)));
+
+		StepVerifier
+				.create(bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger),
+						FLIGHTTYPE.ONE_WAY, null))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.BAD_REQUEST
+						&& ((ResponseStatusException) e).getReason().equals("Not enough seats"))
+				.verify();
+
+		verify(ticketRepository, never()).save(any(Ticket.class));
+	}
+
+	@Test
+	void testBookTicketInvalidSeatNumber() {
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1")))))
+				.thenReturn(Mono.error(flightServiceError(HttpStatus.BAD_REQUEST)));
+
+		StepVerifier
+				.create(bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger),
+						FLIGHTTYPE.ONE_WAY, null))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getReason().equals("Invalid seat selection"))
+				.verify();
+	}
+
+	@Test
+	void testBookTicketWithoutSeatNumbersHoldsSeatCountOnly() {
+		passenger.setSeatNumber(null);
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1)))).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.just(seatHold(depFlight)));
+		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+		when(passengerRepository.saveAll(anyList())).thenReturn(Flux.fromIterable(List.of(passenger)));
+
+		StepVerifier.create(
+				bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger), FLIGHTTYPE.ONE_WAY, null))
+				.expectNextCount(1).verifyComplete();
+
+		verify(flightClient).holdSeats(List.of(new SeatLeg("FL1", 1)));
+	}
+
+	@Test
+	void testBookTicketReservationFails() {
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1")), new SeatLeg("FL2", 1))))
+				.thenReturn(Mono.error(flightServiceError(HttpStatus.INTERNAL_SERVER_ERROR)));
+
+		StepVerifier
+				.create(bookingService.bookTicket("pooja@gmail.com", "FL1", "FL2", List.of(passenger),
+						FLIGHTTYPE.ROUND_TRIP, null))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getReason().equals("Failed to reserve seats"))
+				.verify();
+
+		verify(ticketRepository, never()).save(any(Ticket.class));
+	}
+
+	@Test
+	void testBookTicketHoldExpiredBeforeConfirm() {
+		List<Passenger> passengers = List.of(passenger);
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.error(flightServiceError(HttpStatus.NOT_FOUND)));
+		when(flightClient.releaseHold("H1")).thenReturn(Mono.error(flightServiceError(HttpStatus.NOT_FOUND)));
+		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+		when(passengerRepository.saveAll(anyList())).thenReturn(Flux.fromIterable(passengers));
+
+		StepVerifier
+				.create(bookingService.bookTicket("pooja@gmail.com", "FL1", null, passengers, FLIGHTTYPE.ONE_WAY, null))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getReason().equals("Seat hold expired, please retry"))
+				.verify();
+
+		verify(ticketRepository).transitionStatus(any(), eq(Ticket.Status.PENDING), eq(Ticket.Status.EXPIRED));
+		verify(ticketRepository, never()).transitionStatus(any(), any(), eq(Ticket.Status.CONFIRMED));
+		verify(bookingEventOutbox, never()).release(anyString(), any(Ticket.class));
+		verify(bookingEventOutbox).discard(eq("BOOKING_CONFIRMED"), any(Ticket.class));
+	}
+
+	@Test
+	void testBookTicketEventReleaseFailsAfterConfirmStillSucceeds() {
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.just(seatHold(depFlight)));
+		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+		when(passengerRepository.saveAll(anyList())).thenReturn(Flux.fromIterable(List.of(passenger)));
+		when(bookingEventOutbox.release(anyString(), any(Ticket.class)))
+				.thenReturn(Mono.error(new RuntimeException("db down")));
+
+		StepVerifier.create(
+				bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger), FLIGHTTYPE.ONE_WAY, null))
+				.expectNextCount(1).verifyComplete();
+
+		// left PENDING so the sweep releases the event and confirms the ticket
+		verify(ticketRepository, never()).transitionStatus(any(), any(), any());
+		verify(flightClient, never()).releaseHold(anyString());
+	}
+
+	@Test
+	void testBookTicketEventParkFailsReleasesHold() {
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.releaseHold("H1")).thenReturn(Mono.just(seatHold(depFlight)));
+		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+		when(passengerRepository.saveAll(anyList())).thenReturn(Flux.fromIterable(List.of(passenger)));
+		when(bookingEventOutbox.park(anyString(), any(Ticket.class)))
+				.thenReturn(Mono.error(new RuntimeException("db down")));
+
+		StepVerifier
+				.create(bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger),
+						FLIGHTTYPE.ONE_WAY, null))
+				.expectError(ResponseStatusException.class)
+				.verify();
+
+		verify(flightClient).releaseHold("H1");
+		verify(flightClient, never()).confirmHold(anyString());
+	}
+
+	@Test
+	void testBookTicketConfirmResponseLostButHoldConfirmed() {
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.error(new RuntimeException("read timeout")));
+		when(flightClient.releaseHold("H1")).thenReturn(Mono.error(flightServiceError(HttpStatus.CONFLICT)));
+		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+		when(passengerRepository.saveAll(anyList())).thenReturn(Flux.fromIterable(List.of(passenger)));
+
+		StepVerifier.create(
+				bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger), FLIGHTTYPE.ONE_WAY, null))
+				.expectNextCount(1).verifyComplete();
+
+		verify(ticketRepository).transitionStatus(any(), eq(Ticket.Status.PENDING), eq(Ticket.Status.CONFIRMED));
+		verify(ticketRepository, never()).transitionStatus(any(), any(), eq(Ticket.Status.EXPIRED));
+	}
+
+	@Test
+	void testBookTicketConfirmAndReleaseBothFailLeavesTicketPending() {
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.error(new RuntimeException("read timeout")));
+		when(flightClient.releaseHold("H1")).thenReturn(Mono.error(new RuntimeException("connection refused")));
+		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+		when(passengerRepository.saveAll(anyList())).thenReturn(Flux.fromIterable(List.of(passenger)));
+
+		StepVerifier.create(
+				bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger), FLIGHTTYPE.ONE_WAY, null))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getReason().equals("Seat hold expired, please retry"))
+				.verify();
+
+		verify(ticketRepository, never()).transitionStatus(any(), any(), any());
+	}
+
+	@Test
+	void testSettleStalePendingBookings() {
+		Ticket confirmed = pendingTicket("T1", "H1");
+		Ticket lapsed = pendingTicket("T2", "H2");
+		when(ticketRepository.findByStatusAndHoldExpiresAtBefore(eq(Ticket.Status.PENDING), any(LocalDateTime.class)))
+				.thenReturn(Flux.just(confirmed, lapsed));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.confirmHold("H2")).thenReturn(Mono.error(flightServiceError(HttpStatus.NOT_FOUND)));
+		when(ticketRepository.transitionStatus(any(), any(), any())).thenAnswer(i -> Mono.just(new Ticket()));
+
+		StepVerifier.create(bookingService.settleStalePendingBookings()).expectNext(2L).verifyComplete();
+
+		verify(ticketRepository).transitionStatus("T1", Ticket.Status.PENDING, Ticket.Status.CONFIRMED);
+		verify(ticketRepository).transitionStatus("T2", Ticket.Status.PENDING, Ticket.Status.EXPIRED);
+	}
+
+	@Test
+	void testSettleStalePendingBookingsLeavesTicketOnFlightServiceError() {
+		Ticket pending = pendingTicket("T1", "H1");
+		when(ticketRepository.findByStatusAndHoldExpiresAtBefore(eq(Ticket.Status.PENDING), any(LocalDateTime.class)))
+				.thenReturn(Flux.just(pending));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.error(flightServiceError(HttpStatus.SERVICE_UNAVAILABLE)));
+
+		StepVerifier.create(bookingService.settleStalePendingBookings()).expectNext(0L).verifyComplete();
+
+		verify(ticketRepository, never()).transitionStatus(any(), any(), any());
+	}
+
+	@Test
+	void testCancelByPnrPendingTicketIsRejected() {
+		Ticket ticket = pendingTicket("T1", "H1");
+		when(ticketRepository.findByPnr("PNR123")).thenReturn(Mono.just(ticket));
+
+		StepVerifier.create(bookingService.cancelByPnr("PNR123"))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.CONFLICT)
+				.verify();
+
+		verify(flightClient, never()).releaseSeats(anyList());
+	}
+
+	@Test
+	void testBookTicketTicketSaveFailsReleasesHold() {
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.releaseHold("H1")).thenReturn(Mono.just(seatHold(depFlight)));
+		when(ticketRepository.save(any(Ticket.class))).thenReturn(Mono.error(new RuntimeException("db down")));
 
 		StepVerifier
 				.create(bookingService.bookTicket("pooja@gmail.com", "FL1", null, List.of(passenger),
-						FLIGHTTYPE.ONE_WAY))
+						FLIGHTTYPE.ONE_WAY, null))
 				.expectErrorMatches(e -> e instanceof ResponseStatusException
-						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.BAD_REQUEST)
+						&& ((ResponseStatusException) e).getReason().equals("db down"))
 				.verify();
+
+		verify(flightClient).releaseHold("H1");
+		verify(flightClient, never()).confirmHold(anyString());
 	}
 
 	@Test
@@ -115,6 +366,31 @@ class BookingServiceImplTest {
 		StepVerifier.create(bookingService.historyByEmail("pooja@gmail.com")).expectNext(ticket).verifyComplete();
 	}
 
+	@Test
+	void testHistoryPageByEmail() {
+		Ticket newest = new Ticket();
+		newest.setId("T2");
+		newest.setBookingTime(LocalDateTime.of(2025, 12, 2, 10, 0));
+		Ticket older = new Ticket();
+		older.setId("T1");
+		older.setBookingTime(LocalDateTime.of(2025, 12, 1, 10, 0));
+		when(ticketRepository.findPageByUserEmail("pooja@gmail.com", null, 2)).thenReturn(Flux.just(newest, older));
+
+		StepVerifier.create(bookingService.historyPageByEmail("pooja@gmail.com", null, 1)).assertNext(page -> {
+			assertThat(page.getItems()).containsExactly(newest);
+			assertThat(PageCursor.decode(page.getNextCursor()))
+					.isEqualTo(new PageCursor(newest.getBookingTime(), "T2"));
+		}).verifyComplete();
+	}
+
+	@Test
+	void testHistoryPageByEmailCapsPageSize() {
+		when(ticketRepository.findPageByUserEmail("pooja@gmail.com", null, 101)).thenReturn(Flux.empty());
+
+		StepVerifier.create(bookingService.historyPageByEmail("pooja@gmail.com", null, 10_000))
+				.assertNext(page -> assertThat(page.getNextCursor()).isNull()).verifyComplete();
+	}
+
 	@Test
 	void testCancelByPnrSuccess() {
 		Ticket ticket = new Ticket();
@@ -124,12 +400,15 @@ class BookingServiceImplTest {
 		ticket.setCanceled(false);
 
 		when(ticketRepository.findByPnr("PNR123")).thenReturn(Mono.just(ticket));
-		when(ticketRepository.save(any(Ticket.class))).thenReturn(Mono.just(ticket));
+		when(flightClient.releaseSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(List.of(depFlight)));
+		when(ticketRepository.completeCancellation(any())).thenReturn(Mono.just(ticket));
 
 		StepVerifier.create(bookingService.cancelByPnr("PNR123")).expectNext("Cancelled Successfully").verifyComplete();
 
-		verify(flightClient).releaseSeats("FL1", 1);
-		verify(ticketRepository).save(any(Ticket.class));
+		verify(flightClient).releaseSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))));
+		verify(ticketRepository).completeCancellation(any());
+		verify(bookingEventOutbox).park("BOOKING_CANCELLED", ticket);
+		verify(bookingEventOutbox).release("BOOKING_CANCELLED", ticket);
 	}
 
 	@Test
@@ -142,6 +421,104 @@ class BookingServiceImplTest {
 
 		StepVerifier.create(bookingService.cancelByPnr("PNR123")).expectNext("Ticket already cancelled")
 				.verifyComplete();
+
+		verify(bookingEventOutbox).release("BOOKING_CANCELLED", ticket);
+		verify(flightClient, never()).releaseSeats(anyList());
+	}
+
+	@Test
+	void testCancelByPnrEventReleaseFailsStillCancels() {
+		Ticket ticket = new Ticket();
+		ticket.setPnr("PNR123");
+		ticket.setDepartureFlightId("FL1");
+		ticket.setSeatsBooked("A1");
+
+		when(ticketRepository.findByPnr("PNR123")).thenReturn(Mono.just(ticket));
+		when(flightClient.releaseSeats(anyList())).thenReturn(Mono.just(List.of(depFlight)));
+		when(ticketRepository.completeCancellation(any())).thenReturn(Mono.just(ticket));
+		when(bookingEventOutbox.release("BOOKING_CANCELLED", ticket))
+				.thenReturn(Mono.error(new RuntimeException("db down")));
+
+		StepVerifier.create(bookingService.cancelByPnr("PNR123")).expectNext("Cancelled Successfully").verifyComplete();
+	}
+
+	@Test
+	void testCancelByPnrEventParkFailsKeepsSeats() {
+		Ticket ticket = new Ticket();
+		ticket.setPnr("PNR123");
+		ticket.setDepartureFlightId("FL1");
+		ticket.setSeatsBooked("A1");
+
+		when(ticketRepository.findByPnr("PNR123")).thenReturn(Mono.just(ticket));
+		when(bookingEventOutbox.park("BOOKING_CANCELLED", ticket))
+				.thenReturn(Mono.error(new RuntimeException("db down")));
+
+		StepVerifier.create(bookingService.cancelByPnr("PNR123")).expectErrorMessage("db down").verify();
+
+		verify(flightClient, never()).releaseSeats(anyList());
+		verify(ticketRepository, never()).completeCancellation(any());
+		verify(ticketRepository).transitionStatus(any(), eq(Ticket.Status.CANCELLING), eq(Ticket.Status.CONFIRMED));
+	}
+
+	@Test
+	void testCancelByPnrAlreadyInProgressDoesNotReleaseSeatsAgain() {
+		Ticket ticket = new Ticket();
+		ticket.setId("T1");
+		ticket.setPnr("PNR123");
+		ticket.setDepartureFlightId("FL1");
+		ticket.setSeatsBooked("A1");
+
+		when(ticketRepository.findByPnr("PNR123")).thenReturn(Mono.just(ticket));
+		when(ticketRepository.beginCancellation("T1")).thenReturn(Mono.empty());
+
+		StepVerifier.create(bookingService.cancelByPnr("PNR123"))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.CONFLICT)
+				.verify();
+
+		verify(flightClient, never()).releaseSeats(anyList());
+		verify(bookingEventOutbox, never()).park(anyString(), any(Ticket.class));
+	}
+
+	@Test
+	void testCancelByPnrSeatReleaseFailsRollsBack() {
+		Ticket ticket = new Ticket();
+		ticket.setId("T1");
+		ticket.setPnr("PNR123");
+		ticket.setDepartureFlightId("FL1");
+		ticket.setSeatsBooked("A1");
+
+		when(ticketRepository.findByPnr("PNR123")).thenReturn(Mono.just(ticket));
+		when(flightClient.releaseSeats(anyList()))
+				.thenReturn(Mono.error(flightServiceError(HttpStatus.SERVICE_UNAVAILABLE)));
+
+		StepVerifier.create(bookingService.cancelByPnr("PNR123")).expectError(WebClientResponseException.class)
+				.verify();
+
+		verify(ticketRepository).transitionStatus("T1", Ticket.Status.CANCELLING, Ticket.Status.CONFIRMED);
+		verify(bookingEventOutbox).discard("BOOKING_CANCELLED", ticket);
+		verify(ticketRepository, never()).completeCancellation(any());
+	}
+
+	@Test
+	void testReleaseSettledBookingEventsHandsOverFinishedChangesOnly() {
+		OutboxEvent cancelled = parkedEvent("BOOKING_CANCELLED:T1", "BOOKING_CANCELLED", "PNR1");
+		OutboxEvent expired = parkedEvent("BOOKING_CONFIRMED:T2", "BOOKING_CONFIRMED", "PNR2");
+		OutboxEvent inFlight = parkedEvent("BOOKING_CANCELLED:T3", "BOOKING_CANCELLED", "PNR3");
+		when(bookingEventOutbox.parkedBefore(any(LocalDateTime.class), anyInt()))
+				.thenReturn(Flux.just(cancelled, expired, inFlight));
+		when(bookingEventOutbox.release(any(OutboxEvent.class))).thenReturn(Mono.empty());
+		when(bookingEventOutbox.discard(any(OutboxEvent.class))).thenReturn(Mono.empty());
+		when(ticketRepository.findByPnr("PNR1")).thenReturn(Mono.just(ticketWithStatus(Ticket.Status.CANCELLED)));
+		when(ticketRepository.findByPnr("PNR2")).thenReturn(Mono.just(ticketWithStatus(Ticket.Status.EXPIRED)));
+		when(ticketRepository.findByPnr("PNR3")).thenReturn(Mono.just(ticketWithStatus(Ticket.Status.CANCELLING)));
+
+		StepVerifier.create(bookingService.releaseSettledBookingEvents()).expectNext(2L).verifyComplete();
+
+		verify(bookingEventOutbox).release(cancelled);
+		verify(bookingEventOutbox).discard(expired);
+		verify(bookingEventOutbox, never()).release(inFlight);
+		verify(bookingEventOutbox, never()).discard(inFlight);
 	}
 
 	@Test
@@ -156,59 +533,57 @@ class BookingServiceImplTest {
 
 	@Test
 	void testBookTicketReturnFlightNotFound() {
-		when(flightClient.getFlight("FL1")).thenReturn(depFlight);
-		when(flightClient.getFlight("FL2")).thenReturn(null);
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1")), new SeatLeg("FL2", 1))))
+				.thenReturn(Mono.error(flightServiceError(HttpStatus.NOT_FOUND)));
 
 		StepVerifier
 				.create(bookingService.bookTicket("pooja@gmail.com", "FL1", "FL2", List.of(passenger),
-						FLIGHTTYPE.ROUND_TRIP))
+						FLIGHTTYPE.ROUND_TRIP, null))
 				.expectErrorMatches(e -> e instanceof ResponseStatusException
-						&& ((ResponseStatusException) e).getReason().equals("Return flight not found"))
+						&& ((ResponseStatusException) e).getReason().equals("Flight not found"))
 				.verify();
 	}
 
 	@Test
 	void testBookTicketReturnFlightNotEnoughSeats() {
-		when(flightClient.getFlight("FL1")).thenReturn(depFlight);
-		FlightDto retFlight = new FlightDto();
-		retFlight.setId("FL2");
-		retFlight.setAvailableSeats(0);
-		retFlight.setPrice(100.0);
-		when(flightClient.getFlight("FL2")).thenReturn(retFlight);
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1")), new SeatLeg("FL2", 1))))
+				.thenReturn(Mono.error(flightServiceError(HttpStatus.CONFLICT)));
 
 		StepVerifier
 				.create(bookingService.bookTicket("pooja@gmail.com", "FL1", "FL2", List.of(passenger),
-						FLIGHTTYPE.ROUND_TRIP))
+						FLIGHTTYPE.ROUND_TRIP, null))
 				.expectErrorMatches(e -> e instanceof ResponseStatusException
-						&& ((ResponseStatusException) e).getReason().equals("Not enough seats in return flight"))
+						&& ((ResponseStatusException) e).getReason().equals("Not enough seats"))
 				.verify();
 	}
 
 	@Test
 	void testBookTicketDepartureFlightNotFound() {
-		when(flightClient.getFlight("FL_UNKNOWN")).thenReturn(null);
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL_UNKNOWN", 1, List.of("A1")))))
+				.thenReturn(Mono.error(flightServiceError(HttpStatus.NOT_FOUND)));
 
 		StepVerifier
 				.create(bookingService.bookTicket("pooja@gmail.com", "FL_UNKNOWN", null, List.of(passenger),
-						FLIGHTTYPE.ONE_WAY))
+						FLIGHTTYPE.ONE_WAY, null))
 				.expectErrorMatches(e -> e instanceof ResponseStatusException
 						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.BAD_REQUEST
-						&& e.getMessage().contains("Departure flight not found"))
+						&& e.getMessage().contains("Flight not found"))
 				.verify();
 	}
 
 	@Test
-	void testBookTicketRoundTripReturnFlightIdNotNull() {
-		when(flightClient.getFlight("FL1")).thenReturn(depFlight);
-		when(flightClient.getFlight("FL2")).thenReturn(null);
+	void testBookTicketOneWayIgnoresReturnFlightId() {
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(seatHold(depFlight)));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.just(seatHold(depFlight)));
+		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
+		when(passengerRepository.saveAll(anyList())).thenReturn(Flux.fromIterable(List.of(passenger)));
 
-		StepVerifier
-				.create(bookingService.bookTicket("pooja@gmail.com", "FL1", "FL2", List.of(passenger),
-						FLIGHTTYPE.ROUND_TRIP))
-				.expectErrorMatches(e -> e instanceof ResponseStatusException
-						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.BAD_REQUEST
-						&& e.getMessage().contains("Return flight not found"))
-				.verify();
+		StepVerifier.create(
+				bookingService.bookTicket("pooja@gmail.com", "FL1", "FL2", List.of(passenger), FLIGHTTYPE.ONE_WAY, null))
+				.expectNextMatches(pnr -> pnr.length() == PnrGenerator.LENGTH).verifyComplete();
+
+		verify(flightClient).holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))));
+		verify(ticketRepository).save(argThat(ticket -> ticket.getTotalPrice() == depFlight.getPrice()));
 	}
 
 	@Test
@@ -218,13 +593,14 @@ class BookingServiceImplTest {
 		retFlight.setPrice(150.0);
 		retFlight.setAvailableSeats(5);
 
-		when(flightClient.getFlight("FL1")).thenReturn(depFlight);
-		when(flightClient.getFlight("FL2")).thenReturn(retFlight);
+		when(flightClient.holdSeats(List.of(new SeatLeg("FL1", 1, List.of("A1")), new SeatLeg("FL2", 1))))
+				.thenReturn(Mono.just(seatHold(depFlight, retFlight)));
+		when(flightClient.confirmHold("H1")).thenReturn(Mono.just(seatHold(depFlight, retFlight)));
 		when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> Mono.just(i.getArgument(0)));
 		when(passengerRepository.saveAll(anyList())).thenReturn(Flux.fromIterable(List.of(passenger)));
 
 		StepVerifier.create(
-				bookingService.bookTicket("pooja@gmail.com", "FL1", "FL2", List.of(passenger), FLIGHTTYPE.ROUND_TRIP))
+				bookingService.bookTicket("pooja@gmail.com", "FL1", "FL2", List.of(passenger), FLIGHTTYPE.ROUND_TRIP, null))
 				.expectNextMatches(pnr -> {
 					return pnr != null && !pnr.isEmpty();
 				}).verifyComplete();
@@ -244,13 +620,14 @@ class BookingServiceImplTest {
 		ticket.setCanceled(false);
 
 		when(ticketRepository.findByPnr("PNR123")).thenReturn(Mono.just(ticket));
-		when(ticketRepository.save(any(Ticket.class))).thenReturn(Mono.just(ticket));
+		when(flightClient.releaseSeats(List.of(new SeatLeg("FL1", 2, List.of("A1", "A2")), new SeatLeg("FL2", 2))))
+				.thenReturn(Mono.just(List.of(depFlight)));
+		when(ticketRepository.completeCancellation(any())).thenReturn(Mono.just(ticket));
 
 		StepVerifier.create(bookingService.cancelByPnr("PNR123")).expectNext("Cancelled Successfully").verifyComplete();
 
-		verify(flightClient).releaseSeats("FL1", 2);
-		verify(flightClient).releaseSeats("FL2", 2);
-		verify(ticketRepository).save(any(Ticket.class));
+		verify(flightClient).releaseSeats(List.of(new SeatLeg("FL1", 2, List.of("A1", "A2")), new SeatLeg("FL2", 2)));
+		verify(ticketRepository).completeCancellation(any());
 	}
 
 	@Test
@@ -263,12 +640,50 @@ class BookingServiceImplTest {
 		ticket.setCanceled(false);
 
 		when(ticketRepository.findByPnr("PNR123")).thenReturn(Mono.just(ticket));
-		when(ticketRepository.save(any(Ticket.class))).thenReturn(Mono.just(ticket));
+		when(flightClient.releaseSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))))).thenReturn(Mono.just(List.of(depFlight)));
+		when(ticketRepository.completeCancellation(any())).thenReturn(Mono.just(ticket));
 
 		StepVerifier.create(bookingService.cancelByPnr("PNR123")).expectNext("Cancelled Successfully").verifyComplete();
 
-		verify(flightClient).releaseSeats("FL1", 1);
-		verify(flightClient, never()).releaseSeats(eq("FL2"), anyInt());
-		verify(ticketRepository).save(any(Ticket.class));
+		verify(flightClient).releaseSeats(List.of(new SeatLeg("FL1", 1, List.of("A1"))));
+		verify(ticketRepository).completeCancellation(any());
+	}
+
+	private static WebClientResponseException flightServiceError(HttpStatus status) {
+		return WebClientResponseException.create(status, status.getReasonPhrase(), HttpHeaders.EMPTY, new byte[0],
+				null);
+	}
+
+	private static SeatHoldDto seatHold(FlightDto... flights) {
+		SeatHoldDto hold = new SeatHoldDto();
+		hold.setId("H1");
+		hold.setFlights(List.of(flights));
+		hold.setExpiresAt(LocalDateTime.now().plusMinutes(10));
+		return hold;
+	}
+
+	private static OutboxEvent parkedEvent(String id, String eventType, String pnr) {
+		OutboxEvent event = new OutboxEvent();
+		event.setId(id);
+		event.setPayload(BookingEvent.builder().eventType(eventType).pnr(pnr).build());
+		return event;
+	}
+
+	private static Ticket ticketWithStatus(Ticket.Status status) {
+		Ticket ticket = new Ticket();
+		ticket.setStatus(status);
+		ticket.setCanceled(status == Ticket.Status.CANCELLED);
+		return ticket;
+	}
+
+	private static Ticket pendingTicket(String id, String holdId) {
+		Ticket ticket = new Ticket();
+		ticket.setId(id);
+		ticket.setPnr("PNR123");
+		ticket.setDepartureFlightId("FL1");
+		ticket.setStatus(Ticket.Status.PENDING);
+		ticket.setHoldId(holdId);
+		ticket.setHoldExpiresAt(LocalDateTime.now().minusMinutes(5));
+		return ticket;
 	}
 }
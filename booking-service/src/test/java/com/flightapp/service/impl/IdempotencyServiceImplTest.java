@@ -0,0 +1,156 @@
+package com.flightapp.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.flightapp.model.IdempotencyRecord;
+import com.flightapp.model.IdempotencyRecord.Status;
+import com.flightapp.repository.IdempotencyRecordRepository;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class IdempotencyServiceImplTest {
+
+	private IdempotencyRecordRepository repository;
+	private IdempotencyServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(IdempotencyRecordRepository.class);
+		service = new IdempotencyServiceImpl(repository, Duration.ofHours(24), Duration.ofMinutes(2),
+				Duration.ofMillis(500), 100);
+		when(repository.insert(any(IdempotencyRecord.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+		when(repository.save(any(IdempotencyRecord.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+		when(repository.deleteById(any(String.class))).thenReturn(Mono.empty());
+	}
+
+	@Test
+	void firstRequestRunsActionAndStoresResult() {
+		StepVerifier.create(service.execute("key-1", "fp", Mono.just("PNR1"))).expectNext("PNR1").verifyComplete();
+
+		verify(repository).save(argThat(r -> r.getStatus() == Status.COMPLETED && "PNR1".equals(r.getPnr())
+				&& r.getExpiresAt().isAfter(LocalDateTime.now().plusHours(23))));
+	}
+
+	@Test
+	void repeatedRequestIsServedFromCache() {
+		AtomicInteger runs = new AtomicInteger();
+		Mono<String> action = Mono.fromSupplier(() -> "PNR" + runs.incrementAndGet());
+
+		StepVerifier.create(service.execute("key-1", "fp", action)).expectNext("PNR1").verifyComplete();
+		StepVerifier.create(service.execute("key-1", "fp", action)).expectNext("PNR1").verifyComplete();
+
+		assertThat(runs).hasValue(1);
+		verify(repository, times(1)).insert(any(IdempotencyRecord.class));
+	}
+
+	@Test
+	void concurrentDuplicatesShareTheInFlightRequest() {
+		Sinks.One<String> result = Sinks.one();
+		AtomicInteger runs = new AtomicInteger();
+		Mono<String> action = Mono.defer(() -> {
+			runs.incrementAndGet();
+			return result.asMono();
+		});
+
+		Mono<String> first = service.execute("key-1", "fp", action);
+		Mono<String> second = service.execute("key-1", "fp", action);
+
+		StepVerifier.create(Mono.zip(first, second))
+				.then(() -> result.tryEmitValue("PNR1"))
+				.assertNext(t -> {
+					assertThat(t.getT1()).isEqualTo("PNR1");
+					assertThat(t.getT2()).isEqualTo("PNR1");
+				})
+				.verifyComplete();
+
+		assertThat(runs).hasValue(1);
+	}
+
+	@Test
+	void completedRecordFromAnotherInstanceIsReplayed() {
+		when(repository.insert(any(IdempotencyRecord.class))).thenReturn(Mono.error(new DuplicateKeyException("dup")));
+		when(repository.findById("key-1")).thenReturn(Mono.just(new IdempotencyRecord("key-1", "fp",
+				Status.COMPLETED, "PNR9", LocalDateTime.now(), LocalDateTime.now().plusHours(1))));
+
+		StepVerifier.create(service.execute("key-1", "fp", Mono.error(new IllegalStateException("must not run"))))
+				.expectNext("PNR9").verifyComplete();
+	}
+
+	@Test
+	void reusedKeyWithDifferentRequestIsRejected() {
+		StepVerifier.create(service.execute("key-1", "fp", Mono.just("PNR1"))).expectNext("PNR1").verifyComplete();
+
+		StepVerifier.create(service.execute("key-1", "other", Mono.just("PNR2")))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.UNPROCESSABLE_ENTITY)
+				.verify();
+	}
+
+	@Test
+	void keyStillInProgressElsewhereTimesOutWithConflict() {
+		when(repository.insert(any(IdempotencyRecord.class))).thenReturn(Mono.error(new DuplicateKeyException("dup")));
+		when(repository.findById("key-1")).thenReturn(Mono.just(new IdempotencyRecord("key-1", "fp",
+				Status.IN_PROGRESS, null, LocalDateTime.now(), LocalDateTime.now().plusMinutes(2))));
+
+		StepVerifier.create(service.execute("key-1", "fp", Mono.just("PNR1")))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.CONFLICT)
+				.verify(Duration.ofSeconds(5));
+	}
+
+	@Test
+	void failedActionReleasesTheKey() {
+		StepVerifier.create(service.execute("key-1", "fp", Mono.error(new IllegalStateException("no seats"))))
+				.expectError(IllegalStateException.class).verify();
+
+		verify(repository).deleteById("key-1");
+		verify(repository, never()).save(any(IdempotencyRecord.class));
+	}
+
+	@Test
+	void failedResultSaveIsRetriedAndNeverReleasesTheKey() {
+		AtomicInteger saves = new AtomicInteger();
+		when(repository.save(any(IdempotencyRecord.class))).thenAnswer(inv -> saves.incrementAndGet() < 3
+				? Mono.error(new IllegalStateException("db down"))
+				: Mono.just(inv.getArgument(0)));
+
+		StepVerifier.create(service.execute("key-1", "fp", Mono.just("PNR1"))).expectNext("PNR1")
+				.verifyComplete();
+
+		assertThat(saves).hasValue(3);
+		verify(repository, never()).deleteById(any(String.class));
+	}
+
+	@Test
+	void resultThatCannotBeStoredIsStillReturnedAndReplayed() {
+		AtomicInteger runs = new AtomicInteger();
+		Mono<String> action = Mono.fromSupplier(() -> "PNR" + runs.incrementAndGet());
+		when(repository.save(any(IdempotencyRecord.class)))
+				.thenReturn(Mono.error(new IllegalStateException("db down")));
+
+		StepVerifier.create(service.execute("key-1", "fp", action)).expectNext("PNR1").verifyComplete();
+		StepVerifier.create(service.execute("key-1", "fp", action)).expectNext("PNR1").verifyComplete();
+
+		assertThat(runs).hasValue(1);
+		verify(repository, never()).deleteById(any(String.class));
+	}
+}
@@ -0,0 +1,198 @@
+package com.flightapp.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.flightapp.model.Flight;
+import com.flightapp.repository.FlightRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-process cache of flights per route. Each route keeps its flights ordered
+ * by departure time so a search window is a range scan over the cached route.
+ * Routes are evicted least-recently-used once maxRoutes is exceeded, and a
+ * route is reloaded from Mongo once it is older than the configured staleness.
+ *
+ * Only departures from the start of the current day through the horizon are
+ * cached; searches reaching outside that window go to Mongo directly.
+ * Concurrent searches on an uncached route share a single load.
+ */
+@Component
+public class FlightSearchCache {
+
+	private static final String LOWEST_ID = "";
+	private static final String HIGHEST_ID = "\uffff";
+
+	private final FlightRepository flightRepository;
+	private final Duration staleness;
+	private final Duration horizon;
+	private final Clock clock;
+	private final Map<String, RouteEntry> routes;
+	private final Counter hits;
+	private final Counter misses;
+
+	@Autowired
+	public FlightSearchCache(FlightRepository flightRepository, MeterRegistry meterRegistry,
+			@Value("${flight.search-cache.max-routes:1000}") int maxRoutes,
+			@Value("${flight.search-cache.staleness:30s}") Duration staleness,
+			@Value("${flight.search-cache.horizon:30d}") Duration horizon) {
+		this(flightRepository, meterRegistry, maxRoutes, staleness, horizon, Clock.systemUTC());
+	}
+
+	public FlightSearchCache(FlightRepository flightRepository, MeterRegistry meterRegistry, int maxRoutes,
+			Duration staleness, Duration horizon, Clock clock) {
+		this.flightRepository = flightRepository;
+		this.staleness = staleness;
+		this.horizon = horizon;
+		this.clock = clock;
+		this.routes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, RouteEntry> eldest) {
+				return size() > maxRoutes;
+			}
+		});
+		this.hits = Counter.builder("flight.search.cache").tag("result", "hit").register(meterRegistry);
+		this.misses = Counter.builder("flight.search.cache").tag("result", "miss").register(meterRegistry);
+		Gauge.builder("flight.search.cache.routes", routes, Map::size).register(meterRegistry);
+	}
+
+	public Flux<Flight> search(String fromPlace, String toPlace, LocalDateTime start, LocalDateTime end) {
+		if (start == null || end == null || !start.isBefore(end)) {
+			return Flux.empty();
+		}
+		Instant now = clock.instant();
+		String key = routeKey(fromPlace, toPlace);
+		RouteEntry entry = routes.get(key);
+		boolean fresh = entry != null && !entry.isStale(now, staleness);
+		if (!fresh) {
+			LocalDateTime windowStart = LocalDateTime.ofInstant(now, ZoneId.systemDefault()).toLocalDate()
+					.atStartOfDay();
+			if (start.isBefore(windowStart) || end.isAfter(windowStart.plus(horizon))) {
+				misses.increment();
+				return flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(
+						fromPlace, toPlace, start, end);
+			}
+			entry = load(key, fromPlace, toPlace, now, windowStart);
+		}
+		// a cached route outside the searched window is no hit: the search still goes to Mongo
+		if (!entry.covers(start, end)) {
+			misses.increment();
+			return flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(fromPlace,
+					toPlace, start, end);
+		}
+		(fresh ? hits : misses).increment();
+		RouteEntry cached = entry;
+		return cached.loaded
+				.doOnError(e -> routes.remove(key, cached))
+				.flatMapMany(loaded -> Flux.fromIterable(loaded.range(start, end)));
+	}
+
+	/** Returns the route's fresh entry, starting a load unless another search already has. */
+	private RouteEntry load(String key, String fromPlace, String toPlace, Instant now, LocalDateTime windowStart) {
+		return routes.compute(key, (k, current) -> {
+			if (current != null && !current.isStale(now, staleness)) {
+				return current;
+			}
+			LocalDateTime windowEnd = windowStart.plus(horizon);
+			return new RouteEntry(now, windowStart, windowEnd, flightRepository
+					.findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(fromPlace, toPlace,
+							windowStart, windowEnd));
+		});
+	}
+
+	/**
+	 * Applies a new or updated flight to its route if that route is cached.
+	 * Uncached routes are left alone and loaded on the next search.
+	 */
+	public void put(Flight flight) {
+		RouteEntry entry = routes.get(routeKey(flight.getFromPlace(), flight.getToPlace()));
+		if (entry != null) {
+			entry.put(flight);
+		}
+	}
+
+	public void clear() {
+		routes.clear();
+	}
+
+	private static String routeKey(String fromPlace, String toPlace) {
+		return fromPlace + "|" + toPlace;
+	}
+
+	private record SlotKey(LocalDateTime departureTime, String flightId) implements Comparable<SlotKey> {
+
+		private static final Comparator<SlotKey> ORDER = Comparator.comparing(SlotKey::departureTime)
+				.thenComparing(SlotKey::flightId);
+
+		@Override
+		public int compareTo(SlotKey other) {
+			return ORDER.compare(this, other);
+		}
+	}
+
+	private static final class RouteEntry {
+
+		private final Instant loadedAt;
+		private final LocalDateTime windowStart;
+		private final LocalDateTime windowEnd;
+		private final ConcurrentSkipListMap<SlotKey, Flight> flights = new ConcurrentSkipListMap<>();
+		private final Map<String, SlotKey> slots = new ConcurrentHashMap<>();
+		private final Mono<RouteEntry> loaded;
+
+		RouteEntry(Instant loadedAt, LocalDateTime windowStart, LocalDateTime windowEnd, Flux<Flight> source) {
+			this.loadedAt = loadedAt;
+			this.windowStart = windowStart;
+			this.windowEnd = windowEnd;
+			this.loaded = source.doOnNext(this::put).then(Mono.just(this)).cache();
+		}
+
+		boolean isStale(Instant now, Duration staleness) {
+			return loadedAt.plus(staleness).isBefore(now);
+		}
+
+		boolean covers(LocalDateTime start, LocalDateTime end) {
+			return !start.isBefore(windowStart) && !end.isAfter(windowEnd);
+		}
+
+		void put(Flight flight) {
+			if (flight.getId() == null || flight.getDepartureTime() == null) {
+				return;
+			}
+			SlotKey slot = new SlotKey(flight.getDepartureTime(), flight.getId());
+			SlotKey previous = slots.put(flight.getId(), slot);
+			if (previous != null && !previous.equals(slot)) {
+				flights.remove(previous);
+			}
+			flights.put(slot, flight);
+		}
+
+		// Bounds are exclusive to match the repository's "Between" query.
+		List<Flight> range(LocalDateTime start, LocalDateTime end) {
+			if (start == null || end == null || !start.isBefore(end)) {
+				return List.of();
+			}
+			return new ArrayList<>(flights
+					.subMap(new SlotKey(start, HIGHEST_ID), false, new SlotKey(end, LOWEST_ID), false).values());
+		}
+	}
+}
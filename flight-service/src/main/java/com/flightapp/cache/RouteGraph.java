@@ -0,0 +1,311 @@
+package com.flightapp.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.flightapp.dto.Itinerary;
+import com.flightapp.dto.ItinerarySearchRequest;
+import com.flightapp.model.Flight;
+import com.flightapp.repository.FlightRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Time-expanded route graph over all upcoming flights. Each airport keeps its
+ * departures ordered by time, so the connections from an arriving flight are
+ * the range of departures between arrival + minLayover and arrival +
+ * maxLayover. Itinerary search walks those ranges in memory instead of
+ * querying Mongo per hop.
+ *
+ * The graph is rebuilt from Mongo on a fixed interval, which also picks up
+ * changes made by other instances, and flights saved through this instance
+ * are applied incrementally via {@link #put(Flight)}. Puts made while a
+ * rebuild is reading Mongo are recorded and replayed onto the new graph, as
+ * the read may have seen those flights before they changed.
+ */
+@Component
+public class RouteGraph {
+
+	private static final Logger log = LoggerFactory.getLogger(RouteGraph.class);
+
+	public static final int MAX_STOPS = 2;
+	private static final int MAX_RESULTS = 100;
+
+	private static final Comparator<Itinerary> RANKING = Comparator.comparingLong(Itinerary::getDurationMinutes)
+			.thenComparingInt(Itinerary::getTotalPrice);
+
+	private final FlightRepository flightRepository;
+	private final Duration defaultMinLayover;
+	private final Duration defaultMaxLayover;
+	private final Clock clock;
+
+	private volatile Graph graph;
+	private final AtomicReference<Mono<Integer>> rebuilding = new AtomicReference<>();
+	private final Queue<Flight> putsDuringRebuild = new ConcurrentLinkedQueue<>();
+
+	@Autowired
+	public RouteGraph(FlightRepository flightRepository,
+			@Value("${flight.itinerary.min-layover:45m}") Duration defaultMinLayover,
+			@Value("${flight.itinerary.max-layover:6h}") Duration defaultMaxLayover) {
+		this(flightRepository, defaultMinLayover, defaultMaxLayover, Clock.systemDefaultZone());
+	}
+
+	public RouteGraph(FlightRepository flightRepository, Duration defaultMinLayover, Duration defaultMaxLayover,
+			Clock clock) {
+		this.flightRepository = flightRepository;
+		this.defaultMinLayover = defaultMinLayover;
+		this.defaultMaxLayover = defaultMaxLayover;
+		this.clock = clock;
+	}
+
+	public Flux<Itinerary> search(ItinerarySearchRequest request) {
+		int maxStops = request.getMaxStops() != null ? request.getMaxStops() : MAX_STOPS;
+		Duration minLayover = request.getMinLayoverMinutes() != null
+				? Duration.ofMinutes(request.getMinLayoverMinutes())
+				: defaultMinLayover;
+		Duration maxLayover = request.getMaxLayoverMinutes() != null
+				? Duration.ofMinutes(request.getMaxLayoverMinutes())
+				: defaultMaxLayover;
+		int seats = request.getSeats() != null ? Math.max(1, request.getSeats()) : 1;
+		int limit = request.getLimit() != null ? Math.max(1, Math.min(request.getLimit(), MAX_RESULTS)) : 20;
+		return search(request.getFromPlace(), request.getToPlace(), request.getStartTime(), request.getEndTime(),
+				maxStops, minLayover, maxLayover, seats, limit);
+	}
+
+	/**
+	 * Streams itineraries of up to maxStops connections whose first leg departs
+	 * strictly within (start, end), best first by total duration and then price.
+	 * Only the best {@code limit} are kept during the walk, and a path that
+	 * already ranks behind all of them is not extended.
+	 */
+	public Flux<Itinerary> search(String fromPlace, String toPlace, LocalDateTime start, LocalDateTime end,
+			int maxStops, Duration minLayover, Duration maxLayover, int seats, int limit) {
+		if (start == null || end == null || !start.isBefore(end) || fromPlace == null || toPlace == null
+				|| fromPlace.equals(toPlace) || maxStops < 0 || minLayover.compareTo(maxLayover) > 0 || limit < 1) {
+			return Flux.empty();
+		}
+		Mono<Graph> loaded = graph != null ? Mono.just(graph) : refresh().then(Mono.fromSupplier(() -> graph));
+		return loaded.flatMapMany(g -> {
+			Search search = new Search(g, toPlace, Math.min(maxStops, MAX_STOPS), minLayover, maxLayover, seats,
+					limit);
+			for (Flight first : g.departures(fromPlace, start, false, end, false)) {
+				search.extend(new ArrayList<>(List.of(first)), new HashSet<>(Set.of(fromPlace)));
+			}
+			return Flux.fromIterable(search.ranked());
+		});
+	}
+
+	/** Applies a new or updated flight to the graph. */
+	public void put(Flight flight) {
+		// recorded before touching the graph, so a put racing the swap is replayed after it
+		if (rebuilding.get() != null) {
+			putsDuringRebuild.add(flight);
+		}
+		Graph current = graph;
+		if (current != null) {
+			current.put(flight);
+		}
+	}
+
+	/**
+	 * Rebuilds the graph from Mongo. Callers arriving while a rebuild is in
+	 * flight, such as searches on a cold graph, share it instead of each
+	 * starting their own.
+	 */
+	@Scheduled(fixedDelayString = "${flight.itinerary.refresh-interval-ms:600000}")
+	public Mono<Integer> refresh() {
+		return Mono.defer(() -> {
+			while (true) {
+				Mono<Integer> current = rebuilding.get();
+				if (current != null) {
+					return current;
+				}
+				AtomicReference<Mono<Integer>> self = new AtomicReference<>();
+				Mono<Integer> rebuild = rebuild().doFinally(signal -> rebuilding.compareAndSet(self.get(), null))
+						.cache();
+				self.set(rebuild);
+				if (rebuilding.compareAndSet(null, rebuild)) {
+					return rebuild;
+				}
+			}
+		});
+	}
+
+	private Mono<Integer> rebuild() {
+		return Mono.defer(() -> {
+			// earlier puts were saved before the read starts, so it sees them
+			putsDuringRebuild.clear();
+			Graph rebuilt = new Graph();
+			return flightRepository.findByDepartureTimeAfter(LocalDateTime.now(clock))
+					.doOnNext(rebuilt::put)
+					.count()
+					.map(Long::intValue)
+					.doOnNext(count -> {
+						replayPuts(rebuilt);
+						graph = rebuilt;
+						// puts between the replay and the swap only reached the old graph
+						replayPuts(rebuilt);
+						log.debug("Route graph rebuilt with {} flights", count);
+					})
+					.doOnError(e -> log.error("Failed to rebuild route graph", e));
+		});
+	}
+
+	private void replayPuts(Graph target) {
+		Flight flight;
+		while ((flight = putsDuringRebuild.poll()) != null) {
+			target.put(flight);
+		}
+	}
+
+	private static final class Search {
+
+		private final Graph graph;
+		private final String destination;
+		private final int maxStops;
+		private final Duration minLayover;
+		private final Duration maxLayover;
+		private final int seats;
+		private final int limit;
+		// worst kept itinerary on top
+		private final PriorityQueue<Itinerary> best;
+
+		Search(Graph graph, String destination, int maxStops, Duration minLayover, Duration maxLayover, int seats,
+				int limit) {
+			this.graph = graph;
+			this.destination = destination;
+			this.maxStops = maxStops;
+			this.minLayover = minLayover;
+			this.maxLayover = maxLayover;
+			this.seats = seats;
+			this.limit = limit;
+			this.best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+		}
+
+		List<Itinerary> ranked() {
+			List<Itinerary> ranked = new ArrayList<>(best);
+			ranked.sort(RANKING);
+			return ranked;
+		}
+
+		void extend(List<Flight> path, Set<String> visited) {
+			Flight last = path.get(path.size() - 1);
+			if (last.getAvailableSeats() < seats || ranksBehindKept(path)) {
+				return;
+			}
+			if (destination.equals(last.getToPlace())) {
+				best.add(itinerary(path));
+				if (best.size() > limit) {
+					best.poll();
+				}
+				return;
+			}
+			if (path.size() > maxStops || !visited.add(last.getToPlace())) {
+				return;
+			}
+			LocalDateTime arrival = last.getArrivalTime();
+			for (Flight next : graph.departures(last.getToPlace(), arrival.plus(minLayover), true,
+					arrival.plus(maxLayover), true)) {
+				if (!visited.contains(next.getToPlace())) {
+					path.add(next);
+					extend(path, visited);
+					path.remove(path.size() - 1);
+				}
+			}
+			visited.remove(last.getToPlace());
+		}
+
+		/**
+		 * Every leg added to a path makes it longer and dearer, so once a prefix
+		 * ranks no better than the worst kept itinerary nothing built on it can
+		 * make the list.
+		 */
+		private boolean ranksBehindKept(List<Flight> path) {
+			if (best.size() < limit) {
+				return false;
+			}
+			Itinerary worst = best.peek();
+			long minutes = Duration.between(path.get(0).getDepartureTime(), path.get(path.size() - 1).getArrivalTime())
+					.toMinutes();
+			if (minutes != worst.getDurationMinutes()) {
+				return minutes > worst.getDurationMinutes();
+			}
+			return path.stream().mapToInt(Flight::getPrice).sum() >= worst.getTotalPrice();
+		}
+
+		private static Itinerary itinerary(List<Flight> path) {
+			Flight first = path.get(0);
+			Flight last = path.get(path.size() - 1);
+			int price = path.stream().mapToInt(Flight::getPrice).sum();
+			long minutes = Duration.between(first.getDepartureTime(), last.getArrivalTime()).toMinutes();
+			return new Itinerary(List.copyOf(path), first.getDepartureTime(), last.getArrivalTime(), minutes, price);
+		}
+	}
+
+	private record SlotKey(LocalDateTime departureTime, String flightId) implements Comparable<SlotKey> {
+
+		private static final Comparator<SlotKey> ORDER = Comparator.comparing(SlotKey::departureTime)
+				.thenComparing(SlotKey::flightId);
+
+		@Override
+		public int compareTo(SlotKey other) {
+			return ORDER.compare(this, other);
+		}
+	}
+
+	private record Node(String airport, SlotKey slot) {
+	}
+
+	private static final class Graph {
+
+		private static final String LOWEST_ID = "";
+		private static final String HIGHEST_ID = "\uffff";
+
+		private final Map<String, ConcurrentSkipListMap<SlotKey, Flight>> departures = new ConcurrentHashMap<>();
+		private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+
+		void put(Flight flight) {
+			if (flight.getId() == null || flight.getFromPlace() == null || flight.getToPlace() == null
+					|| flight.getDepartureTime() == null || flight.getArrivalTime() == null) {
+				return;
+			}
+			Node node = new Node(flight.getFromPlace(), new SlotKey(flight.getDepartureTime(), flight.getId()));
+			Node previous = nodes.put(flight.getId(), node);
+			if (previous != null && !previous.equals(node)) {
+				departures.get(previous.airport()).remove(previous.slot());
+			}
+			departures.computeIfAbsent(node.airport(), a -> new ConcurrentSkipListMap<>()).put(node.slot(), flight);
+		}
+
+		Iterable<Flight> departures(String airport, LocalDateTime from, boolean fromInclusive, LocalDateTime to,
+				boolean toInclusive) {
+			ConcurrentSkipListMap<SlotKey, Flight> airportDepartures = departures.get(airport);
+			if (airportDepartures == null || from.isAfter(to)) {
+				return List.of();
+			}
+			return airportDepartures.subMap(new SlotKey(from, fromInclusive ? LOWEST_ID : HIGHEST_ID), fromInclusive,
+					new SlotKey(to, toInclusive ? HIGHEST_ID : LOWEST_ID), toInclusive).values();
+		}
+	}
+}
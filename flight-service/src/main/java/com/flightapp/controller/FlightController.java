@@ -1,18 +1,29 @@
 package com.flightapp.controller;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.flightapp.dto.CursorPage;
+import com.flightapp.dto.FareCalendarDay;
 import com.flightapp.dto.FlightSearchRequest;
+import com.flightapp.dto.Itinerary;
+import com.flightapp.dto.ItinerarySearchRequest;
+import com.flightapp.dto.SeatLeg;
+import com.flightapp.dto.SeatMap;
 import com.flightapp.model.Flight;
 import com.flightapp.service.FlightService;
 
@@ -35,12 +46,39 @@ public class FlightController {
 				.map(savedFlight -> Map.of("message", "Flight added successfully", "flightId", savedFlight.getId()));
 	}
 
-	@PostMapping("/search")
+	@GetMapping(value = "/all", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+			MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<Flight> getAllFlights() {
+		return flightService.getAllFlights();
+	}
+
+	@GetMapping("/all/page")
+	public Mono<CursorPage<Flight>> getFlightsPage(@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "20") int size) {
+		return flightService.getFlightsPage(cursor, size);
+	}
+
+	@PostMapping(value = "/search", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+			MediaType.TEXT_EVENT_STREAM_VALUE })
 	public Flux<Flight> searchFlights(@RequestBody FlightSearchRequest request) {
 		return flightService.searchFlights(request.getFromPlace(), request.getToPlace(), request.getStartTime(),
 				request.getEndTime());
 	}
 
+	@PostMapping(value = "/search/itineraries", produces = { MediaType.APPLICATION_JSON_VALUE,
+			MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+	public Flux<Itinerary> searchItineraries(@RequestBody ItinerarySearchRequest request) {
+		return flightService.searchItineraries(request);
+	}
+
+	@GetMapping("/fares/calendar")
+	public Flux<FareCalendarDay> getFareCalendar(@RequestParam String fromPlace, @RequestParam String toPlace,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+			@RequestParam(defaultValue = "1") int seats) {
+		return flightService.getFareCalendar(fromPlace, toPlace, startDate, endDate, seats);
+	}
+
 	@PostMapping("/search/airline")
 	public Flux<Flight> searchByAirline(@RequestBody Map<String, String> body) {
 		return flightService.searchFlightsByAirline(body.get("fromPlace"), body.get("toPlace"), body.get("airline"));
@@ -51,6 +89,11 @@ public class FlightController {
 		return flightService.searchFlightById(id);
 	}
 
+	@GetMapping("/{id}/seatmap")
+	public Mono<SeatMap> getSeatMap(@PathVariable String id) {
+		return flightService.getSeatMap(id);
+	}
+
 	@PutMapping("/internal/{id}/reserve/{seatCount}")
 	public Mono<Flight> reserveSeats(@PathVariable String id, @PathVariable int seatCount) {
 		return flightService.reserveSeats(id, seatCount);
@@ -60,4 +103,14 @@ public class FlightController {
 	public Mono<Flight> releaseSeats(@PathVariable String id, @PathVariable int seatCount) {
 		return flightService.releaseSeats(id, seatCount);
 	}
+
+	@PutMapping("/internal/reserve")
+	public Mono<List<Flight>> reserveSeats(@RequestBody List<SeatLeg> legs) {
+		return flightService.reserveSeats(legs);
+	}
+
+	@PutMapping("/internal/release")
+	public Mono<List<Flight>> releaseSeats(@RequestBody List<SeatLeg> legs) {
+		return flightService.releaseSeats(legs);
+	}
 }
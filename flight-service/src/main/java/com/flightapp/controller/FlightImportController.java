@@ -0,0 +1,43 @@
+package com.flightapp.controller;
+
+import java.util.Map;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.flightapp.dto.ImportReport;
+import com.flightapp.service.FlightImportService;
+import com.flightapp.service.FlightImportService.Format;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/flight/airline/inventory")
+public class FlightImportController {
+
+	private static final String TEXT_CSV_VALUE = "text/csv";
+	private static final StringDecoder LINE_DECODER = StringDecoder.allMimeTypes();
+	private static final ResolvableType STRING = ResolvableType.forClass(String.class);
+
+	private final FlightImportService flightImportService;
+
+	@PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE })
+	public Mono<ImportReport> importInventory(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+			@RequestBody Flux<DataBuffer> body) {
+		Flux<String> lines = LINE_DECODER.decode(body, STRING, contentType, Map.of());
+		Format format = contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE)) ? Format.CSV
+				: Format.NDJSON;
+		return flightImportService.importFlights(lines, format);
+	}
+}
@@ -0,0 +1,36 @@
+package com.flightapp.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.flightapp.model.ScheduleRule;
+import com.flightapp.service.ScheduleService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/flight/airline/schedules")
+public class ScheduleController {
+
+	private final ScheduleService scheduleService;
+
+	@PostMapping
+	@ResponseStatus(HttpStatus.CREATED)
+	public Mono<ScheduleRule> addRule(@Valid @RequestBody ScheduleRule rule) {
+		return scheduleService.addRule(rule);
+	}
+
+	@GetMapping
+	public Flux<ScheduleRule> getRules() {
+		return scheduleService.getRules();
+	}
+}
@@ -0,0 +1,44 @@
+package com.flightapp.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.flightapp.dto.SeatLeg;
+import com.flightapp.model.SeatHold;
+import com.flightapp.service.SeatHoldService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/flight/internal/holds")
+public class SeatHoldController {
+
+	private final SeatHoldService seatHoldService;
+
+	@PostMapping
+	@ResponseStatus(HttpStatus.CREATED)
+	public Mono<SeatHold> holdSeats(@RequestBody List<SeatLeg> legs) {
+		return seatHoldService.holdSeats(legs);
+	}
+
+	@PutMapping("/{holdId}/confirm")
+	public Mono<SeatHold> confirmHold(@PathVariable String holdId) {
+		return seatHoldService.confirmHold(holdId);
+	}
+
+	@DeleteMapping("/{holdId}")
+	public Mono<SeatHold> releaseHold(@PathVariable String holdId) {
+		return seatHoldService.releaseHold(holdId);
+	}
+}
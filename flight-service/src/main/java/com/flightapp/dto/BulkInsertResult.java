@@ -0,0 +1,13 @@
+package com.flightapp.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of an unordered bulk insert. Failures carry the index of the
+ * document within the batch; duplicate marks unique-key violations.
+ */
+public record BulkInsertResult(int inserted, List<Failure> failures) {
+
+	public record Failure(int index, boolean duplicate, String message) {
+	}
+}
@@ -0,0 +1,18 @@
+package com.flightapp.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Cheapest bookable fare on a route for one day; lowestPrice is null when nothing is bookable. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FareCalendarDay {
+	private LocalDate date;
+	private Integer lowestPrice;
+	private int availableSeats;
+	private int flights;
+}
@@ -0,0 +1,27 @@
+package com.flightapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+
+	private long received;
+	private long inserted;
+	private long duplicates;
+	private long invalid;
+	private long failed;
+	// capped; errorsTruncated is set once more records failed than are listed
+	private List<RecordError> errors;
+	private boolean errorsTruncated;
+	private long elapsedMillis;
+	private long recordsPerSecond;
+
+	public record RecordError(long line, String message) {
+	}
+}
@@ -0,0 +1,33 @@
+package com.flightapp.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.flightapp.model.Flight;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Itinerary {
+
+	private List<Flight> legs;
+
+	@JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "Asia/Kolkata")
+	private LocalDateTime departureTime;
+
+	@JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "Asia/Kolkata")
+	private LocalDateTime arrivalTime;
+
+	private long durationMinutes;
+
+	private int totalPrice;
+
+	public int getStops() {
+		return legs.size() - 1;
+	}
+}
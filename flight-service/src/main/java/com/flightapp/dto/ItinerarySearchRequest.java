@@ -0,0 +1,19 @@
+package com.flightapp.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ItinerarySearchRequest {
+    private String fromPlace;
+    private String toPlace;
+    // window for the first leg's departure
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Integer maxStops;
+    private Integer minLayoverMinutes;
+    private Integer maxLayoverMinutes;
+    private Integer seats;
+    private Integer limit;
+}
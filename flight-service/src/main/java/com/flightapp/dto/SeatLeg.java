@@ -0,0 +1,21 @@
+package com.flightapp.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatLeg {
+    private String flightId;
+    private int seatCount;
+    // specific seats such as "12C"; when present they replace seatCount
+    private List<String> seats;
+
+    public SeatLeg(String flightId, int seatCount) {
+        this(flightId, seatCount, null);
+    }
+}
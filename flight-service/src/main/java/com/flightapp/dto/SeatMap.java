@@ -0,0 +1,21 @@
+package com.flightapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Live seat map of a flight. occupied is the base64 of the occupancy bitset in
+ * little-endian bit order (java.util.BitSet#toByteArray), where bit
+ * (row - 1) * seatLetters.length() + letterIndex marks a taken seat.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatMap {
+	private String flightId;
+	private int rows;
+	private String seatLetters;
+	private int availableSeats;
+	private String occupied;
+}
@@ -0,0 +1,88 @@
+package com.flightapp.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Seat grid of a flight: rows numbered from 1 and the seat letters of each
+ * row, e.g. 30 rows of "ABCDEF". Seat "12C" has index (12 - 1) * 6 + 2, which
+ * is its bit in {@link Flight#getOccupiedSeats()}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CabinLayout {
+
+	private static final String SEAT_LETTERS = "[A-Z]{1,10}";
+	private static final String INVALID_SEAT_LETTERS = "Seat letters must be 1 to 10 distinct capital letters";
+
+	@Min(value = 1, message = "Cabin must have at least one row")
+	private int rows;
+
+	@NotNull(message = INVALID_SEAT_LETTERS)
+	@Pattern(regexp = SEAT_LETTERS, message = INVALID_SEAT_LETTERS)
+	private String seatLetters;
+
+	/** A repeated letter would give two seat indexes the same label. */
+	@JsonIgnore
+	@AssertTrue(message = INVALID_SEAT_LETTERS)
+	public boolean isSeatLettersDistinct() {
+		return seatLetters == null || seatLetters.chars().distinct().count() == seatLetters.length();
+	}
+
+	/** The bean validation constraints above, for callers that skip {@code @Valid}. */
+	@JsonIgnore
+	public boolean isValid() {
+		return rows >= 1 && seatLetters != null && seatLetters.matches(SEAT_LETTERS) && isSeatLettersDistinct();
+	}
+
+	public int capacity() {
+		return rows * seatLetters.length();
+	}
+
+	/** An all-free occupancy bitset sized for this layout. */
+	public List<Long> emptyOccupancy() {
+		return new ArrayList<>(Collections.nCopies((capacity() + 63) / 64, 0L));
+	}
+
+	/**
+	 * Returns the bit index of a seat label such as "12C" (or "C12"), or -1 if it
+	 * is not on this layout.
+	 */
+	public int seatIndex(String seat) {
+		if (seat == null || seat.trim().length() < 2) {
+			return -1;
+		}
+		String label = seat.trim().toUpperCase();
+		boolean letterFirst = Character.isLetter(label.charAt(0));
+		int letter = seatLetters.indexOf(letterFirst ? label.charAt(0) : label.charAt(label.length() - 1));
+		if (letter < 0) {
+			return -1;
+		}
+		int row;
+		try {
+			row = Integer.parseInt(letterFirst ? label.substring(1) : label.substring(0, label.length() - 1));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+		if (row < 1 || row > rows) {
+			return -1;
+		}
+		return (row - 1) * seatLetters.length() + letter;
+	}
+
+	public String seatLabel(int index) {
+		return (index / seatLetters.length() + 1) + String.valueOf(seatLetters.charAt(index % seatLetters.length()));
+	}
+}
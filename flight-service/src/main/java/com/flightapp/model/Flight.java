@@ -1,12 +1,17 @@
 package com.flightapp.model;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -14,6 +19,10 @@ import lombok.Data;
 
 @Data
 @Document(collection = "flights")
+@CompoundIndexes({
+		@CompoundIndex(name = "departure_idx", def = "{'departureTime': 1, '_id': 1}"),
+		@CompoundIndex(name = "route_departure_idx", def = "{'fromPlace': 1, 'toPlace': 1, 'departureTime': 1}"),
+		@CompoundIndex(name = "schedule_key_idx", def = "{'airline': 1, 'fromPlace': 1, 'toPlace': 1, 'departureTime': 1}", unique = true) })
 public class Flight {
 
 	@Id
@@ -44,4 +53,16 @@ public class Flight {
 
 	@Min(value = 0, message = "Available seats cannot be negative")
 	private int availableSeats;
+
+	/** Optional; flights without a layout only track the availableSeats counter. */
+	@Valid
+	private CabinLayout cabinLayout;
+
+	/**
+	 * Occupied seats as a bitset in 64-bit words, indexed as in
+	 * {@link CabinLayout#seatIndex(String)}. Updated in place with $bit so
+	 * seat assignment is a single conditional update on the flight.
+	 */
+	@JsonIgnore
+	private List<Long> occupiedSeats;
 }
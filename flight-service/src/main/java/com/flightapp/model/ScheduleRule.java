@@ -0,0 +1,123 @@
+package com.flightapp.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * A recurring flight, e.g. Indigo BLR→DEL at 06:00 on weekdays from November
+ * to March. Dates up to materializedThrough exist as Flight documents; later
+ * dates are answered from the rule and materialized on demand.
+ */
+@Data
+@Document(collection = "schedule_rules")
+@CompoundIndex(name = "route_idx", def = "{'fromPlace': 1, 'toPlace': 1}")
+public class ScheduleRule {
+
+	private static final String VIRTUAL_PREFIX = "sched-";
+	private static final DateTimeFormatter VIRTUAL_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+	@Id
+	private String id;
+
+	@NotBlank(message = "Airline name cannot be null")
+	private String airline;
+
+	@NotBlank(message = "From place cannot be null")
+	private String fromPlace;
+
+	@NotBlank(message = "To place cannot be null")
+	private String toPlace;
+
+	@NotNull(message = "Departure time cannot be null")
+	@JsonFormat(pattern = "HH:mm")
+	private LocalTime departureTime;
+
+	@Min(value = 1, message = "Duration should be at least 1 minute")
+	private int durationMinutes;
+
+	// empty means daily
+	private Set<DayOfWeek> daysOfWeek;
+
+	@NotNull(message = "Valid from cannot be null")
+	private LocalDate validFrom;
+
+	@NotNull(message = "Valid to cannot be null")
+	private LocalDate validTo;
+
+	@Min(value = 1, message = "Price should be at least 1")
+	private int price;
+
+	@Min(value = 1, message = "Total seats should be at least 1")
+	private int totalSeats;
+
+	@Valid
+	private CabinLayout cabinLayout;
+
+	private LocalDate materializedThrough;
+
+	public boolean operatesOn(LocalDate date) {
+		return !date.isBefore(validFrom) && !date.isAfter(validTo)
+				&& (daysOfWeek == null || daysOfWeek.isEmpty() || daysOfWeek.contains(date.getDayOfWeek()));
+	}
+
+	/** The flight this rule operates on the given date, without an id. */
+	public Flight flightOn(LocalDate date) {
+		LocalDateTime departure = date.atTime(departureTime);
+		Flight flight = new Flight();
+		flight.setAirline(airline);
+		flight.setFromPlace(fromPlace);
+		flight.setToPlace(toPlace);
+		flight.setDepartureTime(departure);
+		flight.setArrivalTime(departure.plusMinutes(durationMinutes));
+		flight.setPrice(price);
+		flight.setTotalSeats(totalSeats);
+		flight.setAvailableSeats(totalSeats);
+		if (cabinLayout != null) {
+			flight.setCabinLayout(cabinLayout);
+			flight.setOccupiedSeats(cabinLayout.emptyOccupancy());
+		}
+		return flight;
+	}
+
+	/** Stand-in id for a date that has not been materialized yet. */
+	public String virtualFlightId(LocalDate date) {
+		return VIRTUAL_PREFIX + id + "-" + date.format(VIRTUAL_DATE);
+	}
+
+	public static boolean isVirtualFlightId(String flightId) {
+		return flightId != null && flightId.startsWith(VIRTUAL_PREFIX);
+	}
+
+	/** Splits a virtual flight id into rule id and date, or returns null if it is malformed. */
+	public static VirtualFlight parseVirtualFlightId(String flightId) {
+		int dash = flightId.lastIndexOf('-');
+		if (!isVirtualFlightId(flightId) || dash <= VIRTUAL_PREFIX.length()) {
+			return null;
+		}
+		try {
+			return new VirtualFlight(flightId.substring(VIRTUAL_PREFIX.length(), dash),
+					LocalDate.parse(flightId.substring(dash + 1), VIRTUAL_DATE));
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	public record VirtualFlight(String ruleId, LocalDate date) {
+	}
+}
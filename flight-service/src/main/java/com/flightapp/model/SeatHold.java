@@ -0,0 +1,50 @@
+package com.flightapp.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.flightapp.dto.SeatLeg;
+
+import lombok.Data;
+
+@Data
+@Document(collection = "seat_holds")
+public class SeatHold {
+
+	@Id
+	private String id;
+
+	private List<SeatLeg> legs;
+
+	@JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "Asia/Kolkata")
+	private LocalDateTime createdAt;
+
+	@Indexed
+	@JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "Asia/Kolkata")
+	private LocalDateTime expiresAt;
+
+	/**
+	 * Set when the booking confirms the hold. Confirmed holds are kept for a
+	 * while so a repeated confirm can be answered; they no longer expire.
+	 */
+	@Indexed(name = "confirmed_ttl_idx", expireAfter = "7d")
+	@JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "Asia/Kolkata")
+	private LocalDateTime confirmedAt;
+
+	/**
+	 * Set while the hold's seats are being returned; the hold is deleted once
+	 * they are. A release that dies half-way leaves this set, and the sweeper
+	 * takes the hold over again once the lease has run out.
+	 */
+	@JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "Asia/Kolkata")
+	private LocalDateTime releasingAt;
+
+	@Transient
+	private List<Flight> flights;
+}
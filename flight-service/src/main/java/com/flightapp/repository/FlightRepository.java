@@ -11,13 +11,18 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
-public interface FlightRepository extends ReactiveCrudRepository<Flight, String> {
+public interface FlightRepository extends ReactiveCrudRepository<Flight, String>, FlightRepositoryCustom {
 
 	Flux<Flight> findByFromPlaceAndToPlaceAndDepartureTimeBetween(String fromPlace, String toPlace, LocalDateTime start,
 			LocalDateTime end);
 
+	Flux<Flight> findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(String fromPlace,
+			String toPlace, LocalDateTime start, LocalDateTime end);
+
 	Flux<Flight> findByFromPlaceAndToPlaceAndAirline(String fromPlace, String toPlace, String airline);
 
+	Flux<Flight> findByDepartureTimeAfter(LocalDateTime time);
+
 	Mono<Flight> findByAirlineAndFromPlaceAndToPlaceAndDepartureTime(String airline, String fromPlace, String toPlace,
 			LocalDateTime departureTime);
 }
@@ -0,0 +1,65 @@
+package com.flightapp.repository;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+
+import com.flightapp.dto.BulkInsertResult;
+import com.flightapp.dto.FareCalendarDay;
+import com.flightapp.dto.PageCursor;
+import com.flightapp.model.Flight;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface FlightRepositoryCustom {
+
+	/**
+	 * Atomically decrements availableSeats only when at least seatCount seats are
+	 * left. Emits the updated flight, or completes empty when the flight is missing
+	 * or does not have enough seats.
+	 */
+	Mono<Flight> decrementAvailableSeats(String flightId, int seatCount);
+
+	/**
+	 * Atomically increments availableSeats. Emits the updated flight, or completes
+	 * empty when the flight is missing.
+	 */
+	Mono<Flight> incrementAvailableSeats(String flightId, int seatCount);
+
+	/**
+	 * Atomically marks the given seats occupied and decrements availableSeats,
+	 * only when none of them is taken yet. Completes empty otherwise.
+	 */
+	Mono<Flight> occupySeats(String flightId, BitSet seats);
+
+	/**
+	 * Atomically frees the given seats and increments availableSeats, only when
+	 * all of them are currently occupied. Completes empty otherwise.
+	 */
+	Mono<Flight> vacateSeats(String flightId, BitSet seats);
+
+	/** Loads only the fields needed to render the seat map. */
+	Mono<Flight> findSeatMap(String flightId);
+
+	/**
+	 * Aggregates the route's flights departing in [start, end) with at least
+	 * seats available into one entry per departure day, ordered by day. Days
+	 * without such flights are omitted.
+	 */
+	Flux<FareCalendarDay> fareCalendar(String fromPlace, String toPlace, LocalDateTime start, LocalDateTime end,
+			int seats);
+
+	/**
+	 * Inserts the flights in one unordered bulk write, so a duplicate or invalid
+	 * document does not stop the rest of the batch. Per-document failures are
+	 * reported in the result rather than as an error signal.
+	 */
+	Mono<BulkInsertResult> insertUnordered(List<Flight> flights);
+
+	/**
+	 * Returns up to limit flights ordered by departure time, starting strictly
+	 * after the given cursor (or from the earliest departure when cursor is null).
+	 */
+	Flux<Flight> findPage(PageCursor after, int limit);
+}
@@ -0,0 +1,169 @@
+package com.flightapp.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightapp.dto.BulkInsertResult;
+import com.flightapp.dto.FareCalendarDay;
+import com.flightapp.dto.PageCursor;
+import com.flightapp.model.Flight;
+
+import com.mongodb.MongoBulkWriteException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class FlightRepositoryCustomImpl implements FlightRepositoryCustom {
+
+	private static final int DUPLICATE_KEY = 11000;
+
+	private static final String ID = "_id";
+	private static final String AVAILABLE_SEATS = "availableSeats";
+	private static final String DEPARTURE_TIME = "departureTime";
+	private static final String OCCUPIED_SEATS = "occupiedSeats";
+	private static final String CABIN_LAYOUT = "cabinLayout";
+	private static final String FROM_PLACE = "fromPlace";
+	private static final String TO_PLACE = "toPlace";
+	private static final String PRICE = "price";
+	private static final String DAY = "day";
+	private static final String LOWEST_PRICE = "lowestPrice";
+	private static final String FLIGHTS = "flights";
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	public FlightRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public Mono<Flight> decrementAvailableSeats(String flightId, int seatCount) {
+		Query query = Query.query(where(ID).is(flightId).and(AVAILABLE_SEATS).gte(seatCount));
+		Update update = new Update().inc(AVAILABLE_SEATS, -seatCount);
+		return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Flight.class);
+	}
+
+	@Override
+	public Mono<Flight> incrementAvailableSeats(String flightId, int seatCount) {
+		Query query = Query.query(where(ID).is(flightId));
+		Update update = new Update().inc(AVAILABLE_SEATS, seatCount);
+		return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Flight.class);
+	}
+
+	@Override
+	public Mono<Flight> occupySeats(String flightId, BitSet seats) {
+		int count = seats.cardinality();
+		Query query = Query.query(where(ID).is(flightId).and(AVAILABLE_SEATS).gte(count));
+		Update update = new Update().inc(AVAILABLE_SEATS, -count);
+		long[] words = seats.toLongArray();
+		for (int i = 0; i < words.length; i++) {
+			if (words[i] != 0) {
+				String word = OCCUPIED_SEATS + "." + i;
+				query.addCriteria(where(word).bits().allClear(bitPositions(words[i])));
+				update.bitwise(word).or(words[i]);
+			}
+		}
+		return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Flight.class);
+	}
+
+	@Override
+	public Mono<Flight> vacateSeats(String flightId, BitSet seats) {
+		Query query = Query.query(where(ID).is(flightId));
+		Update update = new Update().inc(AVAILABLE_SEATS, seats.cardinality());
+		long[] words = seats.toLongArray();
+		for (int i = 0; i < words.length; i++) {
+			if (words[i] != 0) {
+				String word = OCCUPIED_SEATS + "." + i;
+				query.addCriteria(where(word).bits().allSet(bitPositions(words[i])));
+				update.bitwise(word).and(~words[i]);
+			}
+		}
+		return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Flight.class);
+	}
+
+	@Override
+	public Mono<Flight> findSeatMap(String flightId) {
+		Query query = Query.query(where(ID).is(flightId));
+		query.fields().include(CABIN_LAYOUT, OCCUPIED_SEATS, AVAILABLE_SEATS);
+		return mongoTemplate.findOne(query, Flight.class);
+	}
+
+	// numeric $bits masks must fit in a non-negative int32, so 64-bit words are matched by position
+	private static List<Integer> bitPositions(long word) {
+		List<Integer> positions = new ArrayList<>(Long.bitCount(word));
+		for (long w = word; w != 0; w &= w - 1) {
+			positions.add(Long.numberOfTrailingZeros(w));
+		}
+		return positions;
+	}
+
+	@Override
+	public Flux<FareCalendarDay> fareCalendar(String fromPlace, String toPlace, LocalDateTime start, LocalDateTime end,
+			int seats) {
+		// LocalDateTimes are stored as instants in the JVM zone, so days are cut in that zone too
+		DateOperators.Timezone zone = DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId());
+		Aggregation aggregation = Aggregation.newAggregation(
+				Aggregation.match(where(FROM_PLACE).is(fromPlace).and(TO_PLACE).is(toPlace).and(DEPARTURE_TIME)
+						.gte(start).lt(end).and(AVAILABLE_SEATS).gte(seats)),
+				Aggregation.project(PRICE, AVAILABLE_SEATS).and(DateOperators.DateToString.dateOf(DEPARTURE_TIME)
+						.toString("%Y-%m-%d").withTimezone(zone)).as(DAY),
+				Aggregation.group(DAY).min(PRICE).as(LOWEST_PRICE).sum(AVAILABLE_SEATS).as(AVAILABLE_SEATS).count()
+						.as(FLIGHTS),
+				Aggregation.sort(Sort.Direction.ASC, ID));
+		return mongoTemplate.aggregate(aggregation, Flight.class, Document.class)
+				.map(day -> new FareCalendarDay(LocalDate.parse(day.getString(ID)),
+						((Number) day.get(LOWEST_PRICE)).intValue(), ((Number) day.get(AVAILABLE_SEATS)).intValue(),
+						((Number) day.get(FLIGHTS)).intValue()));
+	}
+
+	@Override
+	public Mono<BulkInsertResult> insertUnordered(List<Flight> flights) {
+		return mongoTemplate.bulkOps(BulkMode.UNORDERED, Flight.class).insert(flights).execute()
+				.map(result -> new BulkInsertResult(result.getInsertedCount(), List.of()))
+				.onErrorResume(e -> bulkWriteFailure(e) != null, e -> {
+					MongoBulkWriteException failure = bulkWriteFailure(e);
+					List<BulkInsertResult.Failure> failures = failure.getWriteErrors().stream()
+							.map(error -> new BulkInsertResult.Failure(error.getIndex(),
+									error.getCode() == DUPLICATE_KEY, error.getMessage()))
+							.toList();
+					return Mono.just(new BulkInsertResult(failure.getWriteResult().getInsertedCount(), failures));
+				});
+	}
+
+	// the template translates bulk failures (e.g. into DuplicateKeyException) but keeps the driver exception as cause
+	private static MongoBulkWriteException bulkWriteFailure(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof MongoBulkWriteException bulk) {
+				return bulk;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public Flux<Flight> findPage(PageCursor after, int limit) {
+		Query query = new Query();
+		if (after != null) {
+			query.addCriteria(new Criteria().orOperator(where(DEPARTURE_TIME).gt(after.time()),
+					where(DEPARTURE_TIME).is(after.time()).and(ID).gt(after.id())));
+		}
+		query.with(Sort.by(Sort.Direction.ASC, DEPARTURE_TIME, ID)).limit(limit);
+		return mongoTemplate.find(query, Flight.class);
+	}
+}
@@ -0,0 +1,20 @@
+package com.flightapp.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightapp.model.ScheduleRule;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ScheduleRuleRepository
+		extends ReactiveCrudRepository<ScheduleRule, String>, ScheduleRuleRepositoryCustom {
+
+	Flux<ScheduleRule> findByValidToGreaterThanEqual(LocalDate date);
+
+	Flux<ScheduleRule> findByFromPlaceAndToPlaceAndValidToGreaterThanEqual(String fromPlace, String toPlace,
+			LocalDate date);
+}
@@ -0,0 +1,16 @@
+package com.flightapp.repository;
+
+import java.time.LocalDate;
+
+import com.flightapp.model.ScheduleRule;
+
+import reactor.core.publisher.Mono;
+
+public interface ScheduleRuleRepositoryCustom {
+
+	/**
+	 * Moves materializedThrough forward to the given date; never moves it back.
+	 * Emits the updated rule, or completes empty when the rule is missing.
+	 */
+	Mono<ScheduleRule> advanceMaterializedThrough(String ruleId, LocalDate date);
+}
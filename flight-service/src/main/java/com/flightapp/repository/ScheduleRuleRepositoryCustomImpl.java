@@ -0,0 +1,34 @@
+package com.flightapp.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDate;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightapp.model.ScheduleRule;
+
+import reactor.core.publisher.Mono;
+
+public class ScheduleRuleRepositoryCustomImpl implements ScheduleRuleRepositoryCustom {
+
+	private static final String ID = "_id";
+	private static final String MATERIALIZED_THROUGH = "materializedThrough";
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	public ScheduleRuleRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public Mono<ScheduleRule> advanceMaterializedThrough(String ruleId, LocalDate date) {
+		Query query = Query.query(where(ID).is(ruleId));
+		Update update = new Update().max(MATERIALIZED_THROUGH, date);
+		return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+				ScheduleRule.class);
+	}
+}
@@ -0,0 +1,16 @@
+package com.flightapp.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+
+import com.flightapp.model.SeatHold;
+
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface SeatHoldRepository extends ReactiveCrudRepository<SeatHold, String>, SeatHoldRepositoryCustom {
+
+	Flux<SeatHold> findByConfirmedAtIsNullAndExpiresAtBefore(LocalDateTime time);
+}
@@ -0,0 +1,24 @@
+package com.flightapp.repository;
+
+import java.time.LocalDateTime;
+
+import com.flightapp.model.SeatHold;
+
+import reactor.core.publisher.Mono;
+
+public interface SeatHoldRepositoryCustom {
+
+	/**
+	 * Atomically marks the hold confirmed if it has not expired yet. Completes
+	 * empty when the hold is missing, expired, being released or already
+	 * confirmed.
+	 */
+	Mono<SeatHold> confirm(String holdId, LocalDateTime now);
+
+	/**
+	 * Atomically marks an unconfirmed hold as releasing regardless of expiry.
+	 * Completes empty when the hold is missing, confirmed, or claimed by a
+	 * release that started after staleBefore.
+	 */
+	Mono<SeatHold> claim(String holdId, LocalDateTime now, LocalDateTime staleBefore);
+}
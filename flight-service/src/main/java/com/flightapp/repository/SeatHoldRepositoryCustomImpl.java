@@ -0,0 +1,44 @@
+package com.flightapp.repository;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.flightapp.model.SeatHold;
+
+import reactor.core.publisher.Mono;
+
+public class SeatHoldRepositoryCustomImpl implements SeatHoldRepositoryCustom {
+
+	private static final String ID = "_id";
+	private static final String EXPIRES_AT = "expiresAt";
+	private static final String CONFIRMED_AT = "confirmedAt";
+	private static final String RELEASING_AT = "releasingAt";
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	public SeatHoldRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+		this.mongoTemplate = mongoTemplate;
+	}
+
+	@Override
+	public Mono<SeatHold> confirm(String holdId, LocalDateTime now) {
+		Query query = Query.query(where(ID).is(holdId).and(CONFIRMED_AT).is(null).and(RELEASING_AT).is(null)
+				.and(EXPIRES_AT).gt(now));
+		return mongoTemplate.findAndModify(query, new Update().set(CONFIRMED_AT, now),
+				FindAndModifyOptions.options().returnNew(true), SeatHold.class);
+	}
+
+	@Override
+	public Mono<SeatHold> claim(String holdId, LocalDateTime now, LocalDateTime staleBefore) {
+		Query query = Query.query(where(ID).is(holdId).and(CONFIRMED_AT).is(null)
+				.orOperator(where(RELEASING_AT).is(null), where(RELEASING_AT).lt(staleBefore)));
+		return mongoTemplate.findAndModify(query, new Update().set(RELEASING_AT, now),
+				FindAndModifyOptions.options().returnNew(true), SeatHold.class);
+	}
+}
@@ -0,0 +1,19 @@
+package com.flightapp.service;
+
+import com.flightapp.dto.ImportReport;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface FlightImportService {
+
+	enum Format {
+		NDJSON, CSV
+	}
+
+	/**
+	 * Imports one flight per line. CSV input starts with a header row naming the
+	 * Flight fields; NDJSON lines use the same JSON as the single-flight endpoint.
+	 */
+	Mono<ImportReport> importFlights(Flux<String> lines, Format format);
+}
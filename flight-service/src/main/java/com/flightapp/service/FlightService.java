@@ -1,7 +1,15 @@
 package com.flightapp.service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-
+import java.util.List;
+
+import com.flightapp.dto.CursorPage;
+import com.flightapp.dto.FareCalendarDay;
+import com.flightapp.dto.Itinerary;
+import com.flightapp.dto.ItinerarySearchRequest;
+import com.flightapp.dto.SeatLeg;
+import com.flightapp.dto.SeatMap;
 import com.flightapp.model.Flight;
 
 import reactor.core.publisher.Flux;
@@ -13,13 +21,32 @@ public interface FlightService {
 
 	Flux<Flight> getAllFlights();
 
+	Mono<CursorPage<Flight>> getFlightsPage(String cursor, int size);
+
 	Mono<Flight> searchFlightById(String flightId);
 
 	Flux<Flight> searchFlights(String fromPlace, String toPlace, LocalDateTime start, LocalDateTime end);
 
 	Flux<Flight> searchFlightsByAirline(String fromPlace, String toPlace, String airline);
+
+	/**
+	 * Only covers stored flights: the route graph holds no flights expanded
+	 * from schedule rules, so dates past the materialization horizon
+	 * (flight.schedule.horizon-days) have no itineraries yet.
+	 */
+	Flux<Itinerary> searchItineraries(ItinerarySearchRequest request);
+
+	/** Includes flights expanded from schedule rules on dates that are not materialized yet. */
+	Flux<FareCalendarDay> getFareCalendar(String fromPlace, String toPlace, LocalDate startDate, LocalDate endDate,
+			int seats);
 	
 	Mono<Flight> reserveSeats(String flightId, int seatCount);
 
     Mono<Flight> releaseSeats(String flightId, int seatCount);
+
+	Mono<List<Flight>> reserveSeats(List<SeatLeg> legs);
+
+	Mono<List<Flight>> releaseSeats(List<SeatLeg> legs);
+
+	Mono<SeatMap> getSeatMap(String flightId);
 }
@@ -0,0 +1,36 @@
+package com.flightapp.service;
+
+import java.time.LocalDateTime;
+
+import com.flightapp.model.Flight;
+import com.flightapp.model.ScheduleRule;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ScheduleService {
+
+	Mono<ScheduleRule> addRule(ScheduleRule rule);
+
+	Flux<ScheduleRule> getRules();
+
+	/**
+	 * Flights the route's rules operate strictly within (start, end) on dates
+	 * that are not materialized yet, ordered by departure. They carry virtual
+	 * ids that {@link #materialize(String)} resolves.
+	 */
+	Flux<Flight> expand(String fromPlace, String toPlace, LocalDateTime start, LocalDateTime end);
+
+	/**
+	 * Returns the flight a virtual id stands for without storing it: the stored
+	 * flight once the date is materialized, otherwise the rule's flight under
+	 * the virtual id.
+	 */
+	Mono<Flight> find(String virtualFlightId);
+
+	/** Returns the stored flight for a virtual flight id, creating it if needed. */
+	Mono<Flight> materialize(String virtualFlightId);
+
+	/** Materializes every active rule up to the rolling horizon. Emits the number of flights created. */
+	Mono<Long> materializeHorizon();
+}
@@ -0,0 +1,19 @@
+package com.flightapp.service;
+
+import java.util.List;
+
+import com.flightapp.dto.SeatLeg;
+import com.flightapp.model.SeatHold;
+
+import reactor.core.publisher.Mono;
+
+public interface SeatHoldService {
+
+	Mono<SeatHold> holdSeats(List<SeatLeg> legs);
+
+	Mono<SeatHold> confirmHold(String holdId);
+
+	Mono<SeatHold> releaseHold(String holdId);
+
+	Mono<Long> releaseExpiredHolds();
+}
@@ -0,0 +1,268 @@
+package com.flightapp.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flightapp.cache.FlightSearchCache;
+import com.flightapp.cache.RouteGraph;
+import com.flightapp.dto.BulkInsertResult;
+import com.flightapp.dto.ImportReport;
+import com.flightapp.dto.ImportReport.RecordError;
+import com.flightapp.model.Flight;
+import com.flightapp.repository.FlightRepository;
+import com.flightapp.service.FlightImportService;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Streams lines through parse → validate → batch → unordered bulk insert.
+ * At most concurrency batches are in flight and the request body is pulled
+ * only as batches complete, so memory stays bounded regardless of the size of
+ * the import. Duplicates are detected by the unique schedule key index rather
+ * than a lookup per flight.
+ */
+@Service
+public class FlightImportServiceImpl implements FlightImportService {
+
+	private static final Logger log = LoggerFactory.getLogger(FlightImportServiceImpl.class);
+
+	private static final String FLIGHT_ALREADY_EXISTS = "Flight already exists";
+
+	private final FlightRepository flightRepository;
+	private final FlightSearchCache flightSearchCache;
+	private final RouteGraph routeGraph;
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
+	private final int batchSize;
+	private final int concurrency;
+	private final int maxReportedErrors;
+
+	public FlightImportServiceImpl(FlightRepository flightRepository, FlightSearchCache flightSearchCache,
+			RouteGraph routeGraph, ObjectMapper objectMapper, Validator validator,
+			@Value("${flight.import.batch-size:1000}") int batchSize,
+			@Value("${flight.import.concurrency:2}") int concurrency,
+			@Value("${flight.import.max-reported-errors:1000}") int maxReportedErrors) {
+		this.flightRepository = flightRepository;
+		this.flightSearchCache = flightSearchCache;
+		this.routeGraph = routeGraph;
+		this.objectMapper = objectMapper;
+		this.validator = validator;
+		this.batchSize = batchSize;
+		this.concurrency = concurrency;
+		this.maxReportedErrors = maxReportedErrors;
+	}
+
+	private record Row(long line, Flight flight) {
+	}
+
+	@Override
+	public Mono<ImportReport> importFlights(Flux<String> lines, Format format) {
+		return Mono.defer(() -> {
+			Progress progress = new Progress(maxReportedErrors);
+			LineParser parser = format == Format.CSV ? new CsvParser() : this::parseJson;
+			return lines.index()
+					.filter(line -> !line.getT2().isBlank())
+					.<Row>handle((line, sink) -> {
+						long lineNumber = line.getT1() + 1;
+						try {
+							Flight flight = parser.parse(line.getT2());
+							if (flight == null) {
+								return;
+							}
+							progress.received.incrementAndGet();
+							String violation = validate(flight);
+							if (violation != null) {
+								progress.invalid(lineNumber, violation);
+							} else {
+								sink.next(new Row(lineNumber, flight));
+							}
+						} catch (Exception e) {
+							progress.received.incrementAndGet();
+							progress.invalid(lineNumber, e.getMessage());
+						}
+					})
+					.buffer(batchSize)
+					.flatMap(batch -> write(batch, progress), concurrency)
+					.then(Mono.fromSupplier(progress::report))
+					.flatMap(report -> {
+						flightSearchCache.clear();
+						log.info("Imported {} of {} flights ({} duplicates, {} invalid, {} failed) in {} ms, {} records/s",
+								report.getInserted(), report.getReceived(), report.getDuplicates(),
+								report.getInvalid(), report.getFailed(), report.getElapsedMillis(),
+								report.getRecordsPerSecond());
+						return routeGraph.refresh().onErrorResume(e -> Mono.empty()).thenReturn(report);
+					});
+		});
+	}
+
+	private Mono<Void> write(List<Row> batch, Progress progress) {
+		List<Flight> flights = batch.stream().map(Row::flight).toList();
+		return flightRepository.insertUnordered(flights)
+				.doOnNext(result -> {
+					progress.inserted.addAndGet(result.inserted());
+					for (BulkInsertResult.Failure failure : result.failures()) {
+						long line = batch.get(failure.index()).line();
+						if (failure.duplicate()) {
+							progress.duplicate(line);
+						} else {
+							progress.failed(line, failure.message());
+						}
+					}
+				})
+				.onErrorResume(e -> {
+					log.error("Bulk insert of {} flights failed", batch.size(), e);
+					batch.forEach(row -> progress.failed(row.line(), e.getMessage()));
+					return Mono.empty();
+				})
+				.then();
+	}
+
+	private String validate(Flight flight) {
+		Set<ConstraintViolation<Flight>> violations = validator.validate(flight);
+		if (!violations.isEmpty()) {
+			return violations.iterator().next().getMessage();
+		}
+		if (!flight.getArrivalTime().isAfter(flight.getDepartureTime())) {
+			return "Arrival time must be after departure time";
+		}
+		if (flight.getAvailableSeats() > flight.getTotalSeats()) {
+			return "Available seats cannot exceed total seats";
+		}
+		if (flight.getCabinLayout() != null) {
+			if (flight.getCabinLayout().capacity() != flight.getTotalSeats()) {
+				return "Cabin layout does not match total seats";
+			}
+			flight.setOccupiedSeats(flight.getCabinLayout().emptyOccupancy());
+		}
+		return null;
+	}
+
+	private Flight parseJson(String line) throws Exception {
+		JsonNode node = objectMapper.readTree(line);
+		Flight flight = objectMapper.treeToValue(node, Flight.class);
+		flight.setId(null);
+		// a sold-out flight is imported as 0; only a missing field means "all seats free"
+		JsonNode available = node.get("availableSeats");
+		if (available == null || available.isNull()) {
+			flight.setAvailableSeats(flight.getTotalSeats());
+		}
+		return flight;
+	}
+
+	@FunctionalInterface
+	private interface LineParser {
+		/** Returns null for lines that carry no record, such as a CSV header. */
+		Flight parse(String line) throws Exception;
+	}
+
+	/**
+	 * Comma separated, no quoting; the first line names the columns:
+	 * airline, fromPlace, toPlace, departureTime, arrivalTime (ISO-8601),
+	 * price, totalSeats and optionally availableSeats.
+	 */
+	private static final class CsvParser implements LineParser {
+
+		private Map<String, Integer> columns;
+
+		@Override
+		public Flight parse(String line) {
+			String[] cells = line.split(",", -1);
+			if (columns == null) {
+				columns = new HashMap<>();
+				for (int i = 0; i < cells.length; i++) {
+					columns.put(cells[i].trim(), i);
+				}
+				return null;
+			}
+			Flight flight = new Flight();
+			flight.setAirline(cell(cells, "airline"));
+			flight.setFromPlace(cell(cells, "fromPlace"));
+			flight.setToPlace(cell(cells, "toPlace"));
+			flight.setDepartureTime(LocalDateTime.parse(cell(cells, "departureTime")));
+			flight.setArrivalTime(LocalDateTime.parse(cell(cells, "arrivalTime")));
+			flight.setPrice(Integer.parseInt(cell(cells, "price")));
+			flight.setTotalSeats(Integer.parseInt(cell(cells, "totalSeats")));
+			String available = cell(cells, "availableSeats");
+			flight.setAvailableSeats(available == null || available.isEmpty() ? flight.getTotalSeats()
+					: Integer.parseInt(available));
+			return flight;
+		}
+
+		private String cell(String[] cells, String column) {
+			Integer index = columns.get(column);
+			if (index == null) {
+				if (column.equals("availableSeats")) {
+					return null;
+				}
+				throw new IllegalArgumentException("Missing column " + column);
+			}
+			if (index >= cells.length) {
+				throw new IllegalArgumentException("Expected " + columns.size() + " columns but got " + cells.length);
+			}
+			return cells[index].trim();
+		}
+	}
+
+	private static final class Progress {
+
+		private final long startedAt = System.nanoTime();
+		private final int maxReportedErrors;
+		private final AtomicLong received = new AtomicLong();
+		private final AtomicLong inserted = new AtomicLong();
+		private final AtomicLong duplicates = new AtomicLong();
+		private final AtomicLong invalid = new AtomicLong();
+		private final AtomicLong failed = new AtomicLong();
+		private final List<RecordError> errors = new ArrayList<>();
+		private boolean errorsTruncated;
+
+		Progress(int maxReportedErrors) {
+			this.maxReportedErrors = maxReportedErrors;
+		}
+
+		void invalid(long line, String message) {
+			invalid.incrementAndGet();
+			error(line, message);
+		}
+
+		void duplicate(long line) {
+			duplicates.incrementAndGet();
+			error(line, FLIGHT_ALREADY_EXISTS);
+		}
+
+		void failed(long line, String message) {
+			failed.incrementAndGet();
+			error(line, message);
+		}
+
+		private synchronized void error(long line, String message) {
+			if (errors.size() < maxReportedErrors) {
+				errors.add(new RecordError(line, message));
+			} else {
+				errorsTruncated = true;
+			}
+		}
+
+		synchronized ImportReport report() {
+			long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+			List<RecordError> sorted = new ArrayList<>(errors);
+			sorted.sort((a, b) -> Long.compare(a.line(), b.line()));
+			return new ImportReport(received.get(), inserted.get(), duplicates.get(), invalid.get(), failed.get(),
+					sorted, errorsTruncated, elapsedNanos / 1_000_000, received.get() * 1_000_000_000L / elapsedNanos);
+		}
+	}
+}
@@ -1,14 +1,39 @@
 package com.flightapp.service.impl;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.flightapp.cache.FlightSearchCache;
+import com.flightapp.cache.RouteGraph;
+import com.flightapp.dto.CursorPage;
+import com.flightapp.dto.FareCalendarDay;
+import com.flightapp.dto.Itinerary;
+import com.flightapp.dto.ItinerarySearchRequest;
+import com.flightapp.dto.PageCursor;
+import com.flightapp.dto.SeatLeg;
+import com.flightapp.dto.SeatMap;
+import com.flightapp.model.CabinLayout;
 import com.flightapp.model.Flight;
+import com.flightapp.model.ScheduleRule;
 import com.flightapp.repository.FlightRepository;
 import com.flightapp.service.FlightService;
+import com.flightapp.service.ScheduleService;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -16,33 +41,52 @@ import reactor.core.publisher.Mono;
 @Service
 public class FlightServiceImpl implements FlightService {
 
+    private static final Logger log = LoggerFactory.getLogger(FlightServiceImpl.class);
+
     private static final String FLIGHT_NOT_FOUND = "Flight not found";
     private static final String FLIGHT_ALREADY_EXISTS = "Flight already exists";
     private static final String NOT_ENOUGH_SEATS = "Not enough seats";
+    private static final String INVALID_SEAT_COUNT = "Seat count must be at least 1";
+    private static final String NO_SEAT_LEGS = "At least one seat leg is required";
+    private static final String SEAT_TAKEN = "Seat already taken";
+    private static final String SEAT_NOT_RESERVED = "Seat is not reserved";
+    private static final String NO_SEAT_MAP = "Flight has no seat map";
+    private static final String LAYOUT_MISMATCH = "Cabin layout does not match total seats";
+    private static final String INVALID_LAYOUT = "Invalid cabin layout";
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_CALENDAR_DAYS = 62;
+    private static final String INVALID_DATE_RANGE = "Date range must be between 1 and " + MAX_CALENDAR_DAYS
+            + " days";
 
     private final FlightRepository flightRepository;
+    private final FlightSearchCache flightSearchCache;
+    private final RouteGraph routeGraph;
+    private final ScheduleService scheduleService;
 
-    public FlightServiceImpl(FlightRepository flightRepository) {
+    public FlightServiceImpl(FlightRepository flightRepository, FlightSearchCache flightSearchCache,
+            RouteGraph routeGraph, ScheduleService scheduleService) {
         this.flightRepository = flightRepository;
+        this.flightSearchCache = flightSearchCache;
+        this.routeGraph = routeGraph;
+        this.scheduleService = scheduleService;
     }
 
     @Override
     public Mono<Flight> addFlight(Flight flight) {
-        return flightRepository
-                .findByAirlineAndFromPlaceAndToPlaceAndDepartureTime(
-                        flight.getAirline(),
-                        flight.getFromPlace(),
-                        flight.getToPlace(),
-                        flight.getDepartureTime())
-                .hasElement()
-                .flatMap(exists -> {
-                    if (exists) {
-                        return Mono.error(
-                                new ResponseStatusException(HttpStatus.CONFLICT, FLIGHT_ALREADY_EXISTS)
-                        );
-                    }
-                    return flightRepository.save(flight);
-                });
+        CabinLayout layout = flight.getCabinLayout();
+        if (layout != null) {
+            if (!layout.isValid()) {
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_LAYOUT));
+            }
+            if (layout.capacity() != flight.getTotalSeats()) {
+                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, LAYOUT_MISMATCH));
+            }
+            flight.setOccupiedSeats(layout.emptyOccupancy());
+        }
+        return flightRepository.save(flight)
+                .doOnNext(this::updateCaches)
+                .onErrorMap(DuplicateKeyException.class,
+                        e -> new ResponseStatusException(HttpStatus.CONFLICT, FLIGHT_ALREADY_EXISTS, e));
     }
 
     @Override
@@ -50,15 +94,37 @@ public class FlightServiceImpl implements FlightService {
         return flightRepository.findAll();
     }
 
+    @Override
+    public Mono<CursorPage<Flight>> getFlightsPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return Mono.defer(() -> flightRepository.findPage(PageCursor.decode(cursor), pageSize + 1).collectList())
+                .map(flights -> {
+                    if (flights.size() <= pageSize) {
+                        return new CursorPage<>(flights, null);
+                    }
+                    List<Flight> page = flights.subList(0, pageSize);
+                    Flight last = page.get(pageSize - 1);
+                    return new CursorPage<>(page, new PageCursor(last.getDepartureTime(), last.getId()).encode());
+                });
+    }
+
     @Override
     public Mono<Flight> searchFlightById(String flightId) {
+        if (ScheduleRule.isVirtualFlightId(flightId)) {
+            return scheduleService.find(flightId);
+        }
         return flightRepository.findById(flightId)
                 .switchIfEmpty(Mono.error(new RuntimeException(FLIGHT_NOT_FOUND)));
     }
 
     @Override
     public Flux<Flight> searchFlights(String from, String to, LocalDateTime start, LocalDateTime end) {
-        return flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetween(from, to, start, end);
+        // stored flights sort ahead of a rule's stand-in for the same departure, which distinct then drops
+        Comparator<Flight> order = Comparator.comparing(Flight::getDepartureTime)
+                .thenComparing(flight -> ScheduleRule.isVirtualFlightId(flight.getId()));
+        return Flux.mergeComparing(order, flightSearchCache.search(from, to, start, end),
+                scheduleService.expand(from, to, start, end))
+                .distinct(FlightServiceImpl::scheduleKey);
     }
 
     @Override
@@ -67,25 +133,240 @@ public class FlightServiceImpl implements FlightService {
     }
 
     @Override
-    public Mono<Flight> reserveSeats(String flightId, int seatCount) {
-        return flightRepository.findById(flightId)
-                .switchIfEmpty(Mono.error(new RuntimeException(FLIGHT_NOT_FOUND)))
-                .flatMap(flight -> {
-                    if (flight.getAvailableSeats() < seatCount) {
-                        return Mono.error(new RuntimeException(NOT_ENOUGH_SEATS));
+    public Flux<Itinerary> searchItineraries(ItinerarySearchRequest request) {
+        return routeGraph.search(request);
+    }
+
+    @Override
+    public Flux<FareCalendarDay> getFareCalendar(String fromPlace, String toPlace, LocalDate startDate,
+            LocalDate endDate, int seats) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)
+                || !startDate.plusDays(MAX_CALENDAR_DAYS).isAfter(endDate)) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_DATE_RANGE));
+        }
+        if (seats < 1) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_SEAT_COUNT));
+        }
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+        return Mono.zip(flightRepository.fareCalendar(fromPlace, toPlace, start, end, seats)
+                        .collectMap(FareCalendarDay::getDate),
+                        scheduledFares(fromPlace, toPlace, start, end, seats))
+                .flatMapMany(fares -> {
+                    Map<LocalDate, FareCalendarDay> days = fares.getT1();
+                    for (Flight flight : fares.getT2()) {
+                        days.merge(flight.getDepartureTime().toLocalDate(),
+                                new FareCalendarDay(flight.getDepartureTime().toLocalDate(), flight.getPrice(),
+                                        flight.getAvailableSeats(), 1),
+                                FlightServiceImpl::combine);
                     }
-                    flight.setAvailableSeats(flight.getAvailableSeats() - seatCount);
-                    return flightRepository.save(flight);
+                    return Flux.fromStream(startDate.datesUntil(endDate.plusDays(1))
+                            .map(date -> days.getOrDefault(date, new FareCalendarDay(date, null, 0, 0))));
                 });
     }
 
+    /**
+     * Flights expanded from schedule rules within [start, end) that are not
+     * stored yet. A date materialized on demand has both, so stand-ins whose
+     * flight is already stored are dropped.
+     */
+    private Mono<List<Flight>> scheduledFares(String fromPlace, String toPlace, LocalDateTime start,
+            LocalDateTime end, int seats) {
+        // expand and the Between query exclude both bounds
+        LocalDateTime after = start.minusNanos(1);
+        return scheduleService.expand(fromPlace, toPlace, after, end)
+                .filter(flight -> flight.getAvailableSeats() >= seats)
+                .collectList()
+                .flatMap(scheduled -> scheduled.isEmpty() ? Mono.just(scheduled)
+                        : flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetween(fromPlace, toPlace, after,
+                                end)
+                                .map(FlightServiceImpl::scheduleKey)
+                                .collect(Collectors.toSet())
+                                .map(stored -> scheduled.stream()
+                                        .filter(flight -> !stored.contains(scheduleKey(flight)))
+                                        .toList()));
+    }
+
+    private static String scheduleKey(Flight flight) {
+        return flight.getAirline() + "|" + flight.getDepartureTime();
+    }
+
+    private static FareCalendarDay combine(FareCalendarDay day, FareCalendarDay other) {
+        return new FareCalendarDay(day.getDate(), Math.min(day.getLowestPrice(), other.getLowestPrice()),
+                day.getAvailableSeats() + other.getAvailableSeats(), day.getFlights() + other.getFlights());
+    }
+
+    /**
+     * Search results for dates past the schedule horizon carry virtual ids;
+     * the flight is stored the first time one of them is used.
+     */
+    private Mono<String> materializedId(String virtualFlightId) {
+        return scheduleService.materialize(virtualFlightId).doOnNext(this::updateCaches).map(Flight::getId);
+    }
+
+    private void updateCaches(Flight flight) {
+        flightSearchCache.put(flight);
+        routeGraph.put(flight);
+    }
+
+    @Override
+    public Mono<Flight> reserveSeats(String flightId, int seatCount) {
+        if (seatCount < 1) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_SEAT_COUNT));
+        }
+        if (ScheduleRule.isVirtualFlightId(flightId)) {
+            return materializedId(flightId).flatMap(id -> reserveSeats(id, seatCount));
+        }
+        return flightRepository.decrementAvailableSeats(flightId, seatCount)
+                .doOnNext(this::updateCaches)
+                .switchIfEmpty(Mono.defer(() -> flightRepository.existsById(flightId)
+                        .flatMap(exists -> Mono.<Flight>error(exists
+                                ? new ResponseStatusException(HttpStatus.CONFLICT, NOT_ENOUGH_SEATS)
+                                : new ResponseStatusException(HttpStatus.NOT_FOUND, FLIGHT_NOT_FOUND)))));
+    }
+
     @Override
     public Mono<Flight> releaseSeats(String flightId, int seatCount) {
-        return flightRepository.findById(flightId)
-                .switchIfEmpty(Mono.error(new RuntimeException(FLIGHT_NOT_FOUND)))
+        if (seatCount < 1) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_SEAT_COUNT));
+        }
+        if (ScheduleRule.isVirtualFlightId(flightId)) {
+            return materializedId(flightId).flatMap(id -> releaseSeats(id, seatCount));
+        }
+        return flightRepository.incrementAvailableSeats(flightId, seatCount)
+                .doOnNext(this::updateCaches)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, FLIGHT_NOT_FOUND)));
+    }
+
+    @Override
+    public Mono<List<Flight>> reserveSeats(List<SeatLeg> legs) {
+        return applyAll(legs, this::reserveLeg, this::releaseLeg);
+    }
+
+    @Override
+    public Mono<List<Flight>> releaseSeats(List<SeatLeg> legs) {
+        return applyAll(legs, this::releaseLeg, this::reserveLeg);
+    }
+
+    @Override
+    public Mono<SeatMap> getSeatMap(String flightId) {
+        if (ScheduleRule.isVirtualFlightId(flightId)) {
+            // an unsaved stand-in keeps its virtual id and has every seat free
+            return scheduleService.find(flightId).flatMap(flight -> ScheduleRule.isVirtualFlightId(flight.getId())
+                    ? seatMap(flightId, flight)
+                    : getSeatMap(flight.getId()));
+        }
+        return flightRepository.findSeatMap(flightId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, FLIGHT_NOT_FOUND)))
+                .flatMap(flight -> seatMap(flightId, flight));
+    }
+
+    private static Mono<SeatMap> seatMap(String flightId, Flight flight) {
+        CabinLayout layout = flight.getCabinLayout();
+        if (layout == null) {
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, NO_SEAT_MAP));
+        }
+        long[] words = flight.getOccupiedSeats() == null ? new long[0]
+                : flight.getOccupiedSeats().stream().mapToLong(Long::longValue).toArray();
+        String occupied = Base64.getEncoder().encodeToString(BitSet.valueOf(words).toByteArray());
+        return Mono.just(new SeatMap(flightId, layout.getRows(), layout.getSeatLetters(), flight.getAvailableSeats(),
+                occupied));
+    }
+
+    private Mono<Flight> reserveLeg(SeatLeg leg) {
+        if (leg.getSeats() == null || leg.getSeats().isEmpty()) {
+            return reserveSeats(leg.getFlightId(), leg.getSeatCount());
+        }
+        if (ScheduleRule.isVirtualFlightId(leg.getFlightId())) {
+            return materializedId(leg.getFlightId())
+                    .flatMap(id -> reserveLeg(new SeatLeg(id, leg.getSeatCount(), leg.getSeats())));
+        }
+        return seatsOnLayout(leg).flatMap(seats -> seats.isEmpty()
+                ? reserveSeats(leg.getFlightId(), leg.getSeats().size())
+                : flightRepository.occupySeats(leg.getFlightId(), seats)
+                        .doOnNext(this::updateCaches)
+                        .switchIfEmpty(Mono.defer(() -> occupyFailure(leg.getFlightId(), seats))));
+    }
+
+    /**
+     * occupySeats matches nothing both when a seat is taken and when the flight
+     * has too few seats left, so the flight is read again to tell them apart.
+     */
+    private Mono<Flight> occupyFailure(String flightId, BitSet seats) {
+        return flightRepository.findSeatMap(flightId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, FLIGHT_NOT_FOUND)))
+                .flatMap(flight -> Mono.error(flight.getAvailableSeats() < seats.cardinality()
+                        ? new ResponseStatusException(HttpStatus.CONFLICT, NOT_ENOUGH_SEATS)
+                        : new ResponseStatusException(HttpStatus.CONFLICT, SEAT_TAKEN)));
+    }
+
+    private Mono<Flight> releaseLeg(SeatLeg leg) {
+        if (leg.getSeats() == null || leg.getSeats().isEmpty()) {
+            return releaseSeats(leg.getFlightId(), leg.getSeatCount());
+        }
+        if (ScheduleRule.isVirtualFlightId(leg.getFlightId())) {
+            return materializedId(leg.getFlightId())
+                    .flatMap(id -> releaseLeg(new SeatLeg(id, leg.getSeatCount(), leg.getSeats())));
+        }
+        return seatsOnLayout(leg).flatMap(seats -> seats.isEmpty()
+                ? releaseSeats(leg.getFlightId(), leg.getSeats().size())
+                : flightRepository.vacateSeats(leg.getFlightId(), seats)
+                        .doOnNext(this::updateCaches)
+                        .switchIfEmpty(Mono.error(
+                                new ResponseStatusException(HttpStatus.CONFLICT, SEAT_NOT_RESERVED))));
+    }
+
+    /**
+     * Resolves the leg's seat labels against the flight's layout. Emits an empty
+     * set for flights without a layout, whose seats are only counted.
+     */
+    private Mono<BitSet> seatsOnLayout(SeatLeg leg) {
+        return flightRepository.findSeatMap(leg.getFlightId())
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, FLIGHT_NOT_FOUND)))
                 .flatMap(flight -> {
-                    flight.setAvailableSeats(flight.getAvailableSeats() + seatCount);
-                    return flightRepository.save(flight);
+                    BitSet seats = new BitSet();
+                    CabinLayout layout = flight.getCabinLayout();
+                    if (layout == null) {
+                        return Mono.just(seats);
+                    }
+                    for (String seat : leg.getSeats()) {
+                        int index = layout.seatIndex(seat);
+                        if (index < 0 || seats.get(index)) {
+                            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                    "Invalid seat " + seat));
+                        }
+                        seats.set(index);
+                    }
+                    return Mono.just(seats);
                 });
     }
-}
\ No newline at end of file
+
+    /**
+     * Applies the action to each leg in order. If one fails, the legs already
+     * applied are compensated in reverse order and the original error is
+     * emitted; a compensation that fails is logged and the rest still run.
+     */
+    private Mono<List<Flight>> applyAll(List<SeatLeg> legs, Function<SeatLeg, Mono<Flight>> action,
+            Function<SeatLeg, Mono<Flight>> compensation) {
+        if (legs == null || legs.isEmpty()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, NO_SEAT_LEGS));
+        }
+        return Mono.defer(() -> {
+            List<SeatLeg> applied = new ArrayList<>();
+            return Flux.fromIterable(legs)
+                    .concatMap(leg -> action.apply(leg).doOnNext(flight -> applied.add(leg)))
+                    .collectList()
+                    .onErrorResume(e -> {
+                        List<SeatLeg> undo = new ArrayList<>(applied);
+                        Collections.reverse(undo);
+                        return Flux.fromIterable(undo)
+                                .concatMap(leg -> compensation.apply(leg)
+                                        .doOnError(failure -> log.error(
+                                                "Failed to undo seat change on flight {} after a failed batch",
+                                                leg.getFlightId(), failure))
+                                        .onErrorResume(failure -> Mono.empty()))
+                                .then(Mono.error(e));
+                    });
+        });
+    }
+}
@@ -0,0 +1,261 @@
+package com.flightapp.service.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.flightapp.cache.FlightSearchCache;
+import com.flightapp.cache.RouteGraph;
+import com.flightapp.model.Flight;
+import com.flightapp.model.ScheduleRule;
+import com.flightapp.model.ScheduleRule.VirtualFlight;
+import com.flightapp.repository.FlightRepository;
+import com.flightapp.repository.ScheduleRuleRepository;
+import com.flightapp.service.ScheduleService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the flights collection to a rolling horizon: a background job
+ * materializes the next horizonDays of every active rule with unordered bulk
+ * inserts, and dates beyond it are expanded from the rules in memory. Bulk
+ * inserts rely on the unique schedule key, so re-running the job or racing
+ * with an on-demand materialization never creates a second flight.
+ *
+ * A route's rules are loaded from Mongo on its first search and reloaded once
+ * older than the search cache staleness, so rules added on another instance
+ * show up within that bound rather than at the next materialization run.
+ */
+@Service
+public class ScheduleServiceImpl implements ScheduleService {
+
+	private static final Logger log = LoggerFactory.getLogger(ScheduleServiceImpl.class);
+
+	private static final String FLIGHT_NOT_FOUND = "Flight not found";
+	private static final String INVALID_VALIDITY = "Valid to must not be before valid from";
+	private static final String LAYOUT_MISMATCH = "Cabin layout does not match total seats";
+	private static final String INVALID_LAYOUT = "Invalid cabin layout";
+	private static final int BATCH_SIZE = 1000;
+
+	private final ScheduleRuleRepository scheduleRuleRepository;
+	private final FlightRepository flightRepository;
+	private final FlightSearchCache flightSearchCache;
+	private final RouteGraph routeGraph;
+	private final int horizonDays;
+	private final Duration staleness;
+	private final Clock clock;
+	private final Map<String, RouteRules> rulesByRoute;
+
+	@Autowired
+	public ScheduleServiceImpl(ScheduleRuleRepository scheduleRuleRepository, FlightRepository flightRepository,
+			FlightSearchCache flightSearchCache, RouteGraph routeGraph,
+			@Value("${flight.schedule.horizon-days:30}") int horizonDays,
+			@Value("${flight.search-cache.max-routes:1000}") int maxRoutes,
+			@Value("${flight.search-cache.staleness:30s}") Duration staleness) {
+		this(scheduleRuleRepository, flightRepository, flightSearchCache, routeGraph, horizonDays, maxRoutes,
+				staleness, Clock.systemDefaultZone());
+	}
+
+	public ScheduleServiceImpl(ScheduleRuleRepository scheduleRuleRepository, FlightRepository flightRepository,
+			FlightSearchCache flightSearchCache, RouteGraph routeGraph, int horizonDays, int maxRoutes,
+			Duration staleness, Clock clock) {
+		this.scheduleRuleRepository = scheduleRuleRepository;
+		this.flightRepository = flightRepository;
+		this.flightSearchCache = flightSearchCache;
+		this.routeGraph = routeGraph;
+		this.horizonDays = horizonDays;
+		this.staleness = staleness;
+		this.clock = clock;
+		this.rulesByRoute = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, RouteRules> eldest) {
+				return size() > maxRoutes;
+			}
+		});
+	}
+
+	private record RouteRules(Instant loadedAt, Mono<List<ScheduleRule>> rules) {
+	}
+
+	@Override
+	public Mono<ScheduleRule> addRule(ScheduleRule rule) {
+		if (rule.getValidTo().isBefore(rule.getValidFrom())) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_VALIDITY));
+		}
+		if (rule.getCabinLayout() != null && !rule.getCabinLayout().isValid()) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_LAYOUT));
+		}
+		if (rule.getCabinLayout() != null && rule.getCabinLayout().capacity() != rule.getTotalSeats()) {
+			return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, LAYOUT_MISMATCH));
+		}
+		rule.setId(null);
+		rule.setMaterializedThrough(null);
+		return scheduleRuleRepository.save(rule)
+				.flatMap(saved -> materialize(saved, LocalDate.now(clock)).map(count -> saved))
+				.flatMap(saved -> scheduleRuleRepository.findById(saved.getId()))
+				.doOnNext(saved -> rulesByRoute.remove(routeKey(saved.getFromPlace(), saved.getToPlace())))
+				.doOnNext(saved -> flightSearchCache.clear());
+	}
+
+	@Override
+	public Flux<ScheduleRule> getRules() {
+		return scheduleRuleRepository.findAll();
+	}
+
+	@Override
+	public Flux<Flight> expand(String fromPlace, String toPlace, LocalDateTime start, LocalDateTime end) {
+		if (start == null || end == null || !start.isBefore(end)) {
+			return Flux.empty();
+		}
+		return rules(fromPlace, toPlace).flatMapIterable(rules -> expand(rules, start, end));
+	}
+
+	private List<Flight> expand(List<ScheduleRule> rules, LocalDateTime start, LocalDateTime end) {
+		LocalDate today = LocalDate.now(clock);
+		List<Flight> flights = new ArrayList<>();
+		for (ScheduleRule rule : rules) {
+			LocalDate from = latest(start.toLocalDate(), today, firstUnmaterialized(rule));
+			LocalDate to = end.toLocalDate().isBefore(rule.getValidTo()) ? end.toLocalDate() : rule.getValidTo();
+			for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+				if (!rule.operatesOn(date)) {
+					continue;
+				}
+				Flight flight = rule.flightOn(date);
+				if (flight.getDepartureTime().isAfter(start) && flight.getDepartureTime().isBefore(end)) {
+					flight.setId(rule.virtualFlightId(date));
+					flights.add(flight);
+				}
+			}
+		}
+		flights.sort(Comparator.comparing(Flight::getDepartureTime).thenComparing(Flight::getId));
+		return flights;
+	}
+
+	/**
+	 * The route's active rules, shared between concurrent searches while they
+	 * load. A failed load is dropped so the next search retries it.
+	 */
+	private Mono<List<ScheduleRule>> rules(String fromPlace, String toPlace) {
+		String key = routeKey(fromPlace, toPlace);
+		Instant now = clock.instant();
+		RouteRules cached = rulesByRoute.compute(key, (k, current) -> {
+			if (current != null && !current.loadedAt().plus(staleness).isBefore(now)) {
+				return current;
+			}
+			return new RouteRules(now, scheduleRuleRepository
+					.findByFromPlaceAndToPlaceAndValidToGreaterThanEqual(fromPlace, toPlace, LocalDate.now(clock))
+					.collectList()
+					.cache());
+		});
+		return cached.rules().doOnError(e -> rulesByRoute.remove(key, cached));
+	}
+
+	@Override
+	public Mono<Flight> find(String virtualFlightId) {
+		return scheduledFlight(virtualFlightId)
+				.flatMap(flight -> flightRepository.findByAirlineAndFromPlaceAndToPlaceAndDepartureTime(
+						flight.getAirline(), flight.getFromPlace(), flight.getToPlace(), flight.getDepartureTime())
+						.switchIfEmpty(Mono.fromSupplier(() -> {
+							flight.setId(virtualFlightId);
+							return flight;
+						})));
+	}
+
+	@Override
+	public Mono<Flight> materialize(String virtualFlightId) {
+		return scheduledFlight(virtualFlightId)
+				.flatMap(flight -> flightRepository.save(flight)
+						.onErrorResume(DuplicateKeyException.class,
+								e -> flightRepository.findByAirlineAndFromPlaceAndToPlaceAndDepartureTime(
+										flight.getAirline(), flight.getFromPlace(), flight.getToPlace(),
+										flight.getDepartureTime())));
+	}
+
+	/** The unsaved flight a virtual id's rule operates on its date. */
+	private Mono<Flight> scheduledFlight(String virtualFlightId) {
+		VirtualFlight virtual = ScheduleRule.parseVirtualFlightId(virtualFlightId);
+		if (virtual == null) {
+			return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, FLIGHT_NOT_FOUND));
+		}
+		return scheduleRuleRepository.findById(virtual.ruleId())
+				.filter(rule -> rule.operatesOn(virtual.date()))
+				.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, FLIGHT_NOT_FOUND)))
+				.map(rule -> rule.flightOn(virtual.date()));
+	}
+
+	@Override
+	@Scheduled(fixedDelayString = "${flight.schedule.materialize-interval-ms:3600000}")
+	public Mono<Long> materializeHorizon() {
+		LocalDate today = LocalDate.now(clock);
+		return scheduleRuleRepository.findByValidToGreaterThanEqual(today)
+				.concatMap(rule -> materialize(rule, today)
+						.doOnError(e -> log.error("Failed to materialize schedule rule {}", rule.getId(), e))
+						.onErrorResume(e -> Mono.just(0L)))
+				.reduce(0L, Long::sum)
+				.doOnNext(created -> rulesByRoute.clear())
+				.flatMap(created -> {
+					if (created == 0) {
+						return Mono.just(created);
+					}
+					log.info("Materialized {} scheduled flights through {}", created, today.plusDays(horizonDays));
+					flightSearchCache.clear();
+					return routeGraph.refresh().onErrorResume(e -> Mono.empty()).thenReturn(created);
+				});
+	}
+
+	/** Bulk inserts the rule's flights from its first unmaterialized date through the horizon. */
+	private Mono<Long> materialize(ScheduleRule rule, LocalDate today) {
+		LocalDate from = latest(today, firstUnmaterialized(rule));
+		LocalDate horizon = today.plusDays(horizonDays);
+		LocalDate through = horizon.isBefore(rule.getValidTo()) ? horizon : rule.getValidTo();
+		if (from.isAfter(through)) {
+			return Mono.just(0L);
+		}
+		return Flux.fromStream(from.datesUntil(through.plusDays(1)))
+				.filter(rule::operatesOn)
+				.map(rule::flightOn)
+				.buffer(BATCH_SIZE)
+				.concatMap(flightRepository::insertUnordered)
+				.map(result -> (long) result.inserted())
+				.reduce(0L, Long::sum)
+				.flatMap(created -> scheduleRuleRepository.advanceMaterializedThrough(rule.getId(), through)
+						.thenReturn(created));
+	}
+
+	private static LocalDate firstUnmaterialized(ScheduleRule rule) {
+		return rule.getMaterializedThrough() == null ? rule.getValidFrom() : rule.getMaterializedThrough().plusDays(1);
+	}
+
+	private static LocalDate latest(LocalDate first, LocalDate... others) {
+		LocalDate latest = first;
+		for (LocalDate other : others) {
+			if (other.isAfter(latest)) {
+				latest = other;
+			}
+		}
+		return latest;
+	}
+
+	private static String routeKey(String fromPlace, String toPlace) {
+		return fromPlace + "|" + toPlace;
+	}
+}
@@ -0,0 +1,104 @@
+package com.flightapp.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.flightapp.dto.SeatLeg;
+import com.flightapp.model.SeatHold;
+import com.flightapp.repository.SeatHoldRepository;
+import com.flightapp.service.FlightService;
+import com.flightapp.service.SeatHoldService;
+
+import reactor.core.publisher.Mono;
+
+@Service
+public class SeatHoldServiceImpl implements SeatHoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatHoldServiceImpl.class);
+
+    private static final String HOLD_NOT_FOUND = "Seat hold not found or expired";
+    // a claimed release older than this is assumed dead and taken over by the sweeper
+    private static final Duration RELEASE_LEASE = Duration.ofMinutes(5);
+
+    private final SeatHoldRepository seatHoldRepository;
+    private final FlightService flightService;
+    private final Duration holdTtl;
+
+    public SeatHoldServiceImpl(SeatHoldRepository seatHoldRepository, FlightService flightService,
+            @Value("${flight.hold.ttl:10m}") Duration holdTtl) {
+        this.seatHoldRepository = seatHoldRepository;
+        this.flightService = flightService;
+        this.holdTtl = holdTtl;
+    }
+
+    @Override
+    public Mono<SeatHold> holdSeats(List<SeatLeg> legs) {
+        return flightService.reserveSeats(legs).flatMap(flights -> {
+            LocalDateTime now = LocalDateTime.now();
+            SeatHold hold = new SeatHold();
+            hold.setLegs(legs);
+            hold.setCreatedAt(now);
+            hold.setExpiresAt(now.plus(holdTtl));
+            return seatHoldRepository.save(hold)
+                    .doOnNext(saved -> saved.setFlights(flights))
+                    .onErrorResume(e -> flightService.releaseSeats(legs).then(Mono.error(e)));
+        });
+    }
+
+    @Override
+    public Mono<SeatHold> confirmHold(String holdId) {
+        // confirming twice is a no-op, so a booking that lost the first response can ask again
+        return seatHoldRepository.confirm(holdId, LocalDateTime.now())
+                .switchIfEmpty(Mono.defer(() -> seatHoldRepository.findById(holdId)
+                        .filter(hold -> hold.getConfirmedAt() != null)))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, HOLD_NOT_FOUND)));
+    }
+
+    @Override
+    public Mono<SeatHold> releaseHold(String holdId) {
+        return claim(holdId)
+                .switchIfEmpty(Mono.defer(() -> seatHoldRepository.findById(holdId)
+                        .filter(hold -> hold.getConfirmedAt() != null)
+                        .flatMap(hold -> Mono.<SeatHold>error(
+                                new ResponseStatusException(HttpStatus.CONFLICT, "Seat hold already confirmed")))))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, HOLD_NOT_FOUND)))
+                .flatMap(this::release);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${flight.hold.sweep-interval-ms:30000}")
+    public Mono<Long> releaseExpiredHolds() {
+        return seatHoldRepository.findByConfirmedAtIsNullAndExpiresAtBefore(LocalDateTime.now())
+                .concatMap(expired -> claim(expired.getId()))
+                .concatMap(hold -> release(hold)
+                        .doOnError(e -> log.error("Failed to release expired seat hold {}", hold.getId(), e))
+                        .onErrorResume(e -> Mono.empty()))
+                .count()
+                .doOnNext(released -> {
+                    if (released > 0) {
+                        log.info("Released {} expired seat holds", released);
+                    }
+                });
+    }
+
+    private Mono<SeatHold> claim(String holdId) {
+        LocalDateTime now = LocalDateTime.now();
+        return seatHoldRepository.claim(holdId, now, now.minus(RELEASE_LEASE));
+    }
+
+    /** Returns the seats first; the hold is only deleted once they are back, so a failure is retried. */
+    private Mono<SeatHold> release(SeatHold hold) {
+        return flightService.releaseSeats(hold.getLegs())
+                .then(seatHoldRepository.deleteById(hold.getId()))
+                .thenReturn(hold);
+    }
+}
@@ -0,0 +1,180 @@
+package com.demo.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightapp.cache.FlightSearchCache;
+import com.flightapp.model.Flight;
+import com.flightapp.repository.FlightRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class FlightSearchCacheTest {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2025, 12, 1, 0, 0);
+
+	private FlightRepository flightRepository;
+	private SimpleMeterRegistry meterRegistry;
+	private Clock clock;
+	private FlightSearchCache cache;
+
+	private Flight morning;
+	private Flight evening;
+
+	@BeforeEach
+	void setUp() {
+		flightRepository = mock(FlightRepository.class);
+		meterRegistry = new SimpleMeterRegistry();
+		clock = mock(Clock.class);
+		when(clock.instant()).thenReturn(Instant.parse("2025-11-01T00:00:00Z"));
+		cache = new FlightSearchCache(flightRepository, meterRegistry, 2, Duration.ofSeconds(30), Duration.ofDays(60),
+				clock);
+
+		morning = flight("F1", "BLR", "DEL", DAY.plusHours(6), 50);
+		evening = flight("F2", "BLR", "DEL", DAY.plusHours(18), 50);
+		when(flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(eq("BLR"),
+				eq("DEL"), any(), any())).thenReturn(Flux.just(evening, morning));
+	}
+
+	@Test
+	void search_returnsFlightsInWindowOrderedByDeparture() {
+		StepVerifier.create(cache.search("BLR", "DEL", DAY, DAY.plusDays(1))).expectNext(morning, evening)
+				.verifyComplete();
+
+		StepVerifier.create(cache.search("BLR", "DEL", DAY.plusHours(12), DAY.plusDays(1))).expectNext(evening)
+				.verifyComplete();
+
+		verify(flightRepository, times(1)).findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(
+				eq("BLR"), eq("DEL"), any(), any());
+		assertThat(meterRegistry.counter("flight.search.cache", "result", "miss").count()).isEqualTo(1.0);
+		assertThat(meterRegistry.counter("flight.search.cache", "result", "hit").count()).isEqualTo(1.0);
+	}
+
+	@Test
+	void search_excludesWindowBoundaries() {
+		StepVerifier.create(cache.search("BLR", "DEL", DAY.plusHours(6), DAY.plusHours(18))).verifyComplete();
+	}
+
+	@Test
+	void put_updatesCachedRoute() {
+		cache.search("BLR", "DEL", DAY, DAY.plusDays(1)).blockLast();
+
+		Flight reserved = flight("F1", "BLR", "DEL", DAY.plusHours(6), 40);
+		cache.put(reserved);
+		Flight added = flight("F3", "BLR", "DEL", DAY.plusHours(9), 100);
+		cache.put(added);
+
+		StepVerifier.create(cache.search("BLR", "DEL", DAY, DAY.plusDays(1))).expectNext(reserved, added, evening)
+				.verifyComplete();
+	}
+
+	@Test
+	void search_reloadsStaleRoute() {
+		cache.search("BLR", "DEL", DAY, DAY.plusDays(1)).blockLast();
+		when(clock.instant()).thenReturn(Instant.parse("2025-11-01T00:01:00Z"));
+
+		cache.search("BLR", "DEL", DAY, DAY.plusDays(1)).blockLast();
+
+		verify(flightRepository, times(2)).findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(
+				eq("BLR"), eq("DEL"), any(), any());
+	}
+
+	@Test
+	void search_evictsLeastRecentlyUsedRoute() {
+		when(flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(eq("BLR"),
+				eq("HYD"), any(), any())).thenReturn(Flux.empty());
+		when(flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(eq("BLR"),
+				eq("BOM"), any(), any())).thenReturn(Flux.empty());
+
+		cache.search("BLR", "DEL", DAY, DAY.plusDays(1)).blockLast();
+		cache.search("BLR", "HYD", DAY, DAY.plusDays(1)).blockLast();
+		cache.search("BLR", "BOM", DAY, DAY.plusDays(1)).blockLast();
+		cache.search("BLR", "DEL", DAY, DAY.plusDays(1)).blockLast();
+
+		verify(flightRepository, times(2)).findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(
+				eq("BLR"), eq("DEL"), any(), any());
+	}
+
+	@Test
+	void search_beyondHorizon_queriesRepositoryWithoutCaching() {
+		Flight later = flight("F9", "BLR", "DEL", DAY.plusDays(90), 50);
+		when(flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime("BLR", "DEL",
+				DAY.plusDays(90), DAY.plusDays(91))).thenReturn(Flux.just(later));
+
+		StepVerifier.create(cache.search("BLR", "DEL", DAY.plusDays(90), DAY.plusDays(91))).expectNext(later)
+				.verifyComplete();
+
+		verify(flightRepository, times(1)).findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(
+				eq("BLR"), eq("DEL"), any(), any());
+	}
+
+	@Test
+	void search_beyondHorizonOnCachedRoute_countsAsMiss() {
+		cache.search("BLR", "DEL", DAY, DAY.plusDays(1)).blockLast();
+
+		StepVerifier.create(cache.search("BLR", "DEL", DAY.plusDays(90), DAY.plusDays(91)))
+				.expectNext(evening, morning).verifyComplete();
+
+		assertThat(meterRegistry.counter("flight.search.cache", "result", "miss").count()).isEqualTo(2.0);
+		assertThat(meterRegistry.counter("flight.search.cache", "result", "hit").count()).isZero();
+	}
+
+	@Test
+	void search_concurrentMisses_shareOneLoad() {
+		Sinks.Empty<Void> loaded = Sinks.empty();
+		when(flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(eq("BLR"),
+				eq("DEL"), any(), any())).thenReturn(Flux.just(evening, morning).delaySubscription(loaded.asMono()));
+
+		StepVerifier.create(Mono.zip(cache.search("BLR", "DEL", DAY, DAY.plusDays(1)).collectList(),
+				cache.search("BLR", "DEL", DAY.plusHours(12), DAY.plusDays(1)).collectList()))
+				.then(loaded::tryEmitEmpty)
+				.assertNext(results -> {
+					assertThat(results.getT1()).containsExactly(morning, evening);
+					assertThat(results.getT2()).containsExactly(evening);
+				})
+				.verifyComplete();
+
+		verify(flightRepository, times(1)).findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(
+				eq("BLR"), eq("DEL"), any(), any());
+	}
+
+	@Test
+	void search_failedLoad_isRetried() {
+		when(flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetweenOrderByDepartureTime(eq("BLR"),
+				eq("DEL"), any(), any())).thenReturn(Flux.error(new IllegalStateException("down")),
+						Flux.just(evening, morning));
+
+		StepVerifier.create(cache.search("BLR", "DEL", DAY, DAY.plusDays(1)))
+				.verifyError(IllegalStateException.class);
+		StepVerifier.create(cache.search("BLR", "DEL", DAY, DAY.plusDays(1))).expectNext(morning, evening)
+				.verifyComplete();
+	}
+
+	private static Flight flight(String id, String from, String to, LocalDateTime departure, int availableSeats) {
+		Flight flight = new Flight();
+		flight.setId(id);
+		flight.setFromPlace(from);
+		flight.setToPlace(to);
+		flight.setDepartureTime(departure);
+		flight.setArrivalTime(departure.plusHours(2));
+		flight.setAvailableSeats(availableSeats);
+		return flight;
+	}
+}
@@ -0,0 +1,195 @@
+package com.demo.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.flightapp.cache.RouteGraph;
+import com.flightapp.dto.Itinerary;
+import com.flightapp.dto.ItinerarySearchRequest;
+import com.flightapp.model.Flight;
+import com.flightapp.repository.FlightRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class RouteGraphTest {
+
+	private static final LocalDateTime DAY = LocalDateTime.of(2025, 12, 1, 0, 0);
+
+	private FlightRepository flightRepository;
+	private RouteGraph graph;
+
+	private Flight blrDelDirect;
+	private Flight blrBom;
+	private Flight bomDel;
+	private Flight bomDelEarly;
+	private Flight blrHyd;
+	private Flight hydBom;
+
+	@BeforeEach
+	void setUp() {
+		flightRepository = mock(FlightRepository.class);
+		Clock clock = Clock.fixed(Instant.parse("2025-11-01T00:00:00Z"), ZoneOffset.UTC);
+		graph = new RouteGraph(flightRepository, Duration.ofMinutes(45), Duration.ofHours(6), clock);
+
+		blrDelDirect = flight("F1", "BLR", "DEL", DAY.plusHours(6), DAY.plusHours(9), 9000);
+		blrBom = flight("F2", "BLR", "BOM", DAY.plusHours(7), DAY.plusHours(8).plusMinutes(30), 3000);
+		bomDel = flight("F3", "BOM", "DEL", DAY.plusHours(10), DAY.plusHours(12), 3500);
+		bomDelEarly = flight("F4", "BOM", "DEL", DAY.plusHours(8).plusMinutes(45), DAY.plusHours(11), 3000);
+		blrHyd = flight("F5", "BLR", "HYD", DAY.plusHours(5), DAY.plusHours(6), 2000);
+		hydBom = flight("F6", "HYD", "BOM", DAY.plusHours(7), DAY.plusHours(8), 2000);
+		when(flightRepository.findByDepartureTimeAfter(LocalDateTime.of(2025, 11, 1, 0, 0)))
+				.thenReturn(Flux.just(blrDelDirect, blrBom, bomDel, bomDelEarly, blrHyd, hydBom));
+	}
+
+	@Test
+	void search_findsDirectAndConnectingItinerariesRankedByDuration() {
+		StepVerifier.create(graph.search(request("BLR", "DEL", null)))
+				.assertNext(direct -> {
+					assertThat(direct.getLegs()).containsExactly(blrDelDirect);
+					assertThat(direct.getDurationMinutes()).isEqualTo(180);
+				})
+				.assertNext(oneStop -> {
+					assertThat(oneStop.getLegs()).containsExactly(blrBom, bomDel);
+					assertThat(oneStop.getStops()).isEqualTo(1);
+					assertThat(oneStop.getTotalPrice()).isEqualTo(6500);
+				})
+				// bomDelEarly leaves 15 minutes after blrBom lands, below the minimum layover
+				.assertNext(twoStop -> assertThat(twoStop.getLegs()).containsExactly(blrHyd, hydBom, bomDelEarly))
+				.assertNext(twoStop -> assertThat(twoStop.getLegs()).containsExactly(blrHyd, hydBom, bomDel))
+				.verifyComplete();
+	}
+
+	@Test
+	void search_honoursMaxStops() {
+		StepVerifier.create(graph.search(request("BLR", "DEL", 1)).map(Itinerary::getStops)).expectNext(0, 1)
+				.verifyComplete();
+	}
+
+	@Test
+	void search_honoursMaxLayover() {
+		ItinerarySearchRequest request = request("BLR", "DEL", null);
+		request.setMaxLayoverMinutes(60);
+
+		StepVerifier.create(graph.search(request).map(Itinerary::getLegs))
+				.expectNext(List.of(blrDelDirect))
+				.expectNext(List.of(blrHyd, hydBom, bomDelEarly))
+				.verifyComplete();
+	}
+
+	@Test
+	void search_skipsFlightsWithoutEnoughSeats() {
+		blrDelDirect.setAvailableSeats(1);
+		ItinerarySearchRequest request = request("BLR", "DEL", 0);
+		request.setSeats(2);
+
+		StepVerifier.create(graph.search(request)).verifyComplete();
+	}
+
+	@Test
+	void put_addsNewFlightWithoutReloading() {
+		StepVerifier.create(graph.refresh()).expectNext(6).verifyComplete();
+		Flight hydDel = flight("F7", "HYD", "DEL", DAY.plusHours(7), DAY.plusHours(8).plusMinutes(30), 4000);
+		graph.put(hydDel);
+
+		StepVerifier.create(graph.search(request("BLR", "DEL", 1)).map(Itinerary::getLegs))
+				.expectNextMatches(legs -> legs.size() == 1)
+				.expectNextMatches(legs -> legs.contains(hydDel))
+				.expectNextMatches(legs -> legs.contains(bomDel))
+				.verifyComplete();
+
+		verify(flightRepository, times(1)).findByDepartureTimeAfter(LocalDateTime.of(2025, 11, 1, 0, 0));
+	}
+
+	@Test
+	void search_keepsOnlyTheBestLimitItineraries() {
+		ItinerarySearchRequest request = request("BLR", "DEL", null);
+		request.setLimit(2);
+
+		StepVerifier.create(graph.search(request).map(Itinerary::getLegs))
+				.expectNext(List.of(blrDelDirect))
+				.expectNext(List.of(blrBom, bomDel))
+				.verifyComplete();
+	}
+
+	@Test
+	void put_duringRebuild_isReplayedOntoTheNewGraph() {
+		StepVerifier.create(graph.refresh()).expectNext(6).verifyComplete();
+		Sinks.Empty<Void> readDone = Sinks.empty();
+		// the rebuild reads F1 as it was before the update below
+		when(flightRepository.findByDepartureTimeAfter(LocalDateTime.of(2025, 11, 1, 0, 0)))
+				.thenReturn(Flux.just(blrDelDirect, blrBom, bomDel, bomDelEarly, blrHyd, hydBom)
+						.concatWith(readDone.asMono().then(Mono.<Flight>empty())));
+		Flight soldOut = flight("F1", "BLR", "DEL", DAY.plusHours(6), DAY.plusHours(9), 9000);
+		soldOut.setAvailableSeats(0);
+
+		StepVerifier.create(graph.refresh())
+				.then(() -> {
+					graph.put(soldOut);
+					readDone.tryEmitEmpty();
+				})
+				.expectNext(6)
+				.verifyComplete();
+
+		StepVerifier.create(graph.search(request("BLR", "DEL", 0))).verifyComplete();
+	}
+
+	@Test
+	void search_concurrentSearchesOnColdGraph_shareOneReload() {
+		Sinks.Empty<Void> loaded = Sinks.empty();
+		when(flightRepository.findByDepartureTimeAfter(LocalDateTime.of(2025, 11, 1, 0, 0)))
+				.thenReturn(Flux.just(blrDelDirect, blrBom, bomDel, bomDelEarly, blrHyd, hydBom)
+						.delaySubscription(loaded.asMono()));
+
+		StepVerifier.create(Mono.zip(graph.search(request("BLR", "DEL", 0)).count(),
+				graph.search(request("BLR", "BOM", 0)).count()))
+				.then(loaded::tryEmitEmpty)
+				.assertNext(counts -> {
+					assertThat(counts.getT1()).isEqualTo(1);
+					assertThat(counts.getT2()).isEqualTo(1);
+				})
+				.verifyComplete();
+
+		verify(flightRepository, times(1)).findByDepartureTimeAfter(LocalDateTime.of(2025, 11, 1, 0, 0));
+	}
+
+	private static ItinerarySearchRequest request(String from, String to, Integer maxStops) {
+		ItinerarySearchRequest request = new ItinerarySearchRequest();
+		request.setFromPlace(from);
+		request.setToPlace(to);
+		request.setStartTime(DAY);
+		request.setEndTime(DAY.plusDays(1));
+		request.setMaxStops(maxStops);
+		return request;
+	}
+
+	private static Flight flight(String id, String from, String to, LocalDateTime departure, LocalDateTime arrival,
+			int price) {
+		Flight flight = new Flight();
+		flight.setId(id);
+		flight.setAirline("Indigo");
+		flight.setFromPlace(from);
+		flight.setToPlace(to);
+		flight.setDepartureTime(departure);
+		flight.setArrivalTime(arrival);
+		flight.setPrice(price);
+		flight.setTotalSeats(100);
+		flight.setAvailableSeats(50);
+		return flight;
+	}
+}
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +19,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.flightapp.controller.FlightController;
 import com.flightapp.dto.FlightSearchRequest;
+import com.flightapp.dto.SeatLeg;
+import com.flightapp.dto.SeatMap;
 import com.flightapp.model.Flight;
 import com.flightapp.service.FlightService;
 
@@ -72,6 +75,19 @@ class FlightControllerTest {
 		assertThat(captor.getValue()).isSameAs(flight);
 	}
 
+	@Test
+	void getAllFlights_shouldStreamFromService() {
+		Flight f1 = new Flight();
+		f1.setId("f1");
+		Flight f2 = new Flight();
+		f2.setId("f2");
+
+		when(flightService.getAllFlights()).thenReturn(Flux.just(f1, f2));
+
+		StepVerifier.create(flightController.getAllFlights(), 1).expectNext(f1).thenRequest(1).expectNext(f2)
+				.verifyComplete();
+	}
+
 	@Test
 	void searchFlights_shouldCallService() {
 		LocalDateTime start = LocalDateTime.parse("2025-12-01T10:00");
@@ -144,4 +160,38 @@ class FlightControllerTest {
 
 		verify(flightService).releaseSeats("f1", 2);
 	}
+
+	@Test
+	void reserveSeatsBatch_shouldCallService() {
+		Flight f = new Flight();
+		f.setId("f1");
+		List<SeatLeg> legs = List.of(new SeatLeg("f1", 2));
+
+		when(flightService.reserveSeats(legs)).thenReturn(Mono.just(List.of(f)));
+
+		StepVerifier.create(flightController.reserveSeats(legs)).expectNext(List.of(f)).verifyComplete();
+
+		verify(flightService).reserveSeats(legs);
+	}
+
+	@Test
+	void releaseSeatsBatch_shouldCallService() {
+		Flight f = new Flight();
+		f.setId("f1");
+		List<SeatLeg> legs = List.of(new SeatLeg("f1", 2));
+
+		when(flightService.releaseSeats(legs)).thenReturn(Mono.just(List.of(f)));
+
+		StepVerifier.create(flightController.releaseSeats(legs)).expectNext(List.of(f)).verifyComplete();
+
+		verify(flightService).releaseSeats(legs);
+	}
+
+	@Test
+	void getSeatMap_shouldDelegateToService() {
+		SeatMap seatMap = new SeatMap("F1", 30, "ABCDEF", 179, "AQ==");
+		when(flightService.getSeatMap("F1")).thenReturn(Mono.just(seatMap));
+
+		StepVerifier.create(flightController.getSeatMap("F1")).expectNext(seatMap).verifyComplete();
+	}
 }
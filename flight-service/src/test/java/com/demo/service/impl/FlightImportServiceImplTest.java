@@ -0,0 +1,175 @@
+package com.demo.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.flightapp.cache.FlightSearchCache;
+import com.flightapp.cache.RouteGraph;
+import com.flightapp.dto.BulkInsertResult;
+import com.flightapp.dto.ImportReport.RecordError;
+import com.flightapp.model.Flight;
+import com.flightapp.repository.FlightRepository;
+import com.flightapp.service.FlightImportService.Format;
+import com.flightapp.service.impl.FlightImportServiceImpl;
+
+import jakarta.validation.Validation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class FlightImportServiceImplTest {
+
+	private FlightRepository flightRepository;
+	private FlightSearchCache flightSearchCache;
+	private RouteGraph routeGraph;
+	private FlightImportServiceImpl importService;
+
+	@BeforeEach
+	void setUp() {
+		flightRepository = mock(FlightRepository.class);
+		flightSearchCache = mock(FlightSearchCache.class);
+		routeGraph = mock(RouteGraph.class);
+		when(routeGraph.refresh()).thenReturn(Mono.just(0));
+		ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+		importService = new FlightImportServiceImpl(flightRepository, flightSearchCache, routeGraph, objectMapper,
+				Validation.buildDefaultValidatorFactory().getValidator(), 2, 1, 10);
+	}
+
+	@Test
+	void importFlights_ndjson_insertsValidRecordsInBatchesAndReportsErrors() {
+		when(flightRepository.insertUnordered(anyList())).thenAnswer(
+				i -> Mono.just(new BulkInsertResult(((List<?>) i.getArgument(0)).size(), List.of())));
+
+		Flux<String> lines = Flux.just(json("F1", 10), json("F2", 10), "{not json", json("F3", 0), "",
+				json("F4", 10));
+
+		StepVerifier.create(importService.importFlights(lines, Format.NDJSON)).assertNext(report -> {
+			assertThat(report.getReceived()).isEqualTo(5);
+			assertThat(report.getInserted()).isEqualTo(3);
+			assertThat(report.getInvalid()).isEqualTo(2);
+			assertThat(report.getErrors()).extracting(RecordError::line).containsExactly(3L, 4L);
+			assertThat(report.getErrors().get(1).message()).isEqualTo("Price should be at least 1");
+		}).verifyComplete();
+
+		verify(flightRepository, times(2)).insertUnordered(anyList());
+		verify(flightSearchCache).clear();
+		verify(routeGraph).refresh();
+	}
+
+	@Test
+	void importFlights_duplicateScheduleKey_isReportedPerRecord() {
+		when(flightRepository.insertUnordered(anyList())).thenReturn(
+				Mono.just(new BulkInsertResult(1, List.of(new BulkInsertResult.Failure(1, true, "E11000")))));
+
+		StepVerifier.create(importService.importFlights(Flux.just(json("F1", 10), json("F1", 10)), Format.NDJSON))
+				.assertNext(report -> {
+					assertThat(report.getInserted()).isEqualTo(1);
+					assertThat(report.getDuplicates()).isEqualTo(1);
+					assertThat(report.getErrors()).containsExactly(new RecordError(2, "Flight already exists"));
+				}).verifyComplete();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void importFlights_csv_mapsColumnsByHeader() {
+		ArgumentCaptor<List<Flight>> batch = ArgumentCaptor.forClass(List.class);
+		when(flightRepository.insertUnordered(batch.capture())).thenReturn(Mono.just(new BulkInsertResult(1, List.of())));
+
+		Flux<String> lines = Flux.just("fromPlace,toPlace,airline,departureTime,arrivalTime,price,totalSeats",
+				"BLR,DEL,Indigo,2025-12-01T06:00:00,2025-12-01T09:00:00,4500,180",
+				"BLR,DEL,Indigo,2025-12-01T06:00:00,2025-12-01T05:00:00,4500,180");
+
+		StepVerifier.create(importService.importFlights(lines, Format.CSV)).assertNext(report -> {
+			assertThat(report.getReceived()).isEqualTo(2);
+			assertThat(report.getInserted()).isEqualTo(1);
+			assertThat(report.getErrors())
+					.containsExactly(new RecordError(3, "Arrival time must be after departure time"));
+		}).verifyComplete();
+
+		Flight imported = batch.getValue().get(0);
+		assertThat(imported.getAirline()).isEqualTo("Indigo");
+		assertThat(imported.getFromPlace()).isEqualTo("BLR");
+		assertThat(imported.getAvailableSeats()).isEqualTo(180);
+	}
+
+	@Test
+	void importFlights_failedBatch_marksItsRecordsFailedAndContinues() {
+		when(flightRepository.insertUnordered(anyList())).thenReturn(Mono.error(new IllegalStateException("down")),
+				Mono.just(new BulkInsertResult(1, List.of())));
+
+		StepVerifier.create(importService.importFlights(Flux.just(json("F1", 10), json("F2", 10), json("F3", 10)),
+				Format.NDJSON)).assertNext(report -> {
+					assertThat(report.getFailed()).isEqualTo(2);
+					assertThat(report.getInserted()).isEqualTo(1);
+				}).verifyComplete();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void importFlights_ndjson_defaultsAvailableSeatsOnlyWhenAbsent() {
+		ArgumentCaptor<List<Flight>> batch = ArgumentCaptor.forClass(List.class);
+		when(flightRepository.insertUnordered(batch.capture())).thenAnswer(
+				i -> Mono.just(new BulkInsertResult(((List<?>) i.getArgument(0)).size(), List.of())));
+
+		Flux<String> lines = Flux.just(json("F1", 10), withAvailableSeats(json("F2", 10), "0"),
+				withAvailableSeats(json("F3", 10), "null"));
+
+		StepVerifier.create(importService.importFlights(lines, Format.NDJSON))
+				.assertNext(report -> assertThat(report.getInserted()).isEqualTo(3)).verifyComplete();
+
+		List<Flight> imported = batch.getAllValues().stream().flatMap(List::stream).toList();
+		assertThat(imported).extracting(Flight::getAvailableSeats).containsExactly(180, 0, 180);
+	}
+
+	@Test
+	void importFlights_availableSeatsAboveTotal_isInvalid() {
+		when(flightRepository.insertUnordered(anyList())).thenReturn(Mono.just(new BulkInsertResult(1, List.of())));
+
+		Flux<String> lines = Flux.just(withAvailableSeats(json("F1", 10), "181"), json("F2", 10));
+
+		StepVerifier.create(importService.importFlights(lines, Format.NDJSON)).assertNext(report -> {
+			assertThat(report.getInvalid()).isEqualTo(1);
+			assertThat(report.getErrors())
+					.containsExactly(new RecordError(1, "Available seats cannot exceed total seats"));
+		}).verifyComplete();
+	}
+
+	private static String withAvailableSeats(String json, String availableSeats) {
+		return json.substring(0, json.length() - 1) + ",\"availableSeats\":" + availableSeats + "}";
+	}
+
+	@Test
+	void importFlights_layoutWithoutOrWithRepeatedSeatLetters_isRejected() {
+		String base = json("F1", 10);
+		String missing = base.replace("}", ",\"cabinLayout\":{\"rows\":30}}");
+		String repeated = base.replace("}", ",\"cabinLayout\":{\"rows\":30,\"seatLetters\":\"ABCDEA\"}}");
+
+		StepVerifier.create(importService.importFlights(Flux.just(missing, repeated), Format.NDJSON))
+				.assertNext(report -> {
+					assertThat(report.getInvalid()).isEqualTo(2);
+					assertThat(report.getErrors()).extracting(RecordError::message).containsOnly(
+							"Seat letters must be 1 to 10 distinct capital letters");
+				}).verifyComplete();
+
+		verify(flightRepository, never()).insertUnordered(anyList());
+	}
+
+	private static String json(String airline, int price) {
+		return "{\"airline\":\"" + airline + "\",\"fromPlace\":\"BLR\",\"toPlace\":\"DEL\","
+				+ "\"departureTime\":\"2025-12-01T06:00:00\",\"arrivalTime\":\"2025-12-01T09:00:00\","
+				+ "\"price\":" + price + ",\"totalSeats\":180}";
+	}
+}
@@ -1,12 +1,18 @@
 package com.demo.service.impl;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,10 +20,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.flightapp.cache.FlightSearchCache;
+import com.flightapp.cache.RouteGraph;
+import com.flightapp.dto.FareCalendarDay;
+import com.flightapp.dto.Itinerary;
+import com.flightapp.dto.ItinerarySearchRequest;
+import com.flightapp.dto.PageCursor;
+import com.flightapp.dto.SeatLeg;
+import com.flightapp.model.CabinLayout;
 import com.flightapp.model.Flight;
 import com.flightapp.repository.FlightRepository;
+import com.flightapp.service.ScheduleService;
 import com.flightapp.service.impl.FlightServiceImpl;
 
 import reactor.core.publisher.Flux;
@@ -30,6 +47,15 @@ class FlightServiceImplTest {
 	@Mock
 	private FlightRepository flightRepository;
 
+	@Mock
+	private FlightSearchCache flightSearchCache;
+
+	@Mock
+	private RouteGraph routeGraph;
+
+	@Mock
+	private ScheduleService scheduleService;
+
 	@InjectMocks
 	private FlightServiceImpl flightService;
 
@@ -58,6 +84,35 @@ class FlightServiceImplTest {
 		verify(flightRepository).findAll();
 	}
 
+	@Test
+	void getFlightsPage_returnsNextCursorWhenMoreFlightsExist() {
+		Flight second = new Flight();
+		second.setId("F2");
+		second.setDepartureTime(flight.getDepartureTime().plusHours(1));
+		when(flightRepository.findPage(null, 2)).thenReturn(Flux.just(flight, second));
+
+		StepVerifier.create(flightService.getFlightsPage(null, 1)).assertNext(page -> {
+			assertThat(page.getItems()).containsExactly(flight);
+			assertThat(PageCursor.decode(page.getNextCursor()))
+					.isEqualTo(new PageCursor(flight.getDepartureTime(), "F1"));
+		}).verifyComplete();
+	}
+
+	@Test
+	void getFlightsPage_lastPageHasNoCursor() {
+		PageCursor after = new PageCursor(flight.getDepartureTime(), "F0");
+		when(flightRepository.findPage(after, 21)).thenReturn(Flux.just(flight));
+
+		StepVerifier.create(flightService.getFlightsPage(after.encode(), 20))
+				.assertNext(page -> assertThat(page.getNextCursor()).isNull()).verifyComplete();
+	}
+
+	@Test
+	void getFlightsPage_invalidCursor_returnsBadRequest() {
+		StepVerifier.create(flightService.getFlightsPage("not-a-cursor", 20))
+				.expectError(ResponseStatusException.class).verify();
+	}
+
 	@Test
 	void searchFlightById_whenPresent_returnsFlight() {
 		when(flightRepository.findById("F1")).thenReturn(Mono.just(flight));
@@ -65,18 +120,36 @@ class FlightServiceImplTest {
 		StepVerifier.create(flightService.searchFlightById("F1")).expectNext(flight).verifyComplete();
 	}
 
+	@Test
+	void searchFlightById_virtualFlightId_doesNotMaterializeTheFlight() {
+		Flight standIn = new Flight();
+		standIn.setId("sched-R1-20251201");
+		when(scheduleService.find("sched-R1-20251201")).thenReturn(Mono.just(standIn));
+
+		StepVerifier.create(flightService.searchFlightById("sched-R1-20251201")).expectNext(standIn)
+				.verifyComplete();
+
+		verify(scheduleService, never()).materialize(anyString());
+		verify(flightSearchCache, never()).put(any());
+	}
+
 	@Test
 	void reserveSeats_successfulReservation() {
-		when(flightRepository.findById("F1")).thenReturn(Mono.just(flight));
-		when(flightRepository.save(any(Flight.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+		flight.setAvailableSeats(40);
+		when(flightRepository.decrementAvailableSeats("F1", 10)).thenReturn(Mono.just(flight));
 
 		StepVerifier.create(flightService.reserveSeats("F1", 10)).expectNextMatches(f -> f.getAvailableSeats() == 40)
 				.verifyComplete();
+
+		verify(flightSearchCache).put(flight);
+
+		verify(flightRepository, never()).save(any());
 	}
 
 	@Test
 	void reserveSeats_notEnoughSeats_shouldReturnError() {
-		when(flightRepository.findById("F1")).thenReturn(Mono.just(flight));
+		when(flightRepository.decrementAvailableSeats("F1", 1000)).thenReturn(Mono.empty());
+		when(flightRepository.existsById("F1")).thenReturn(Mono.just(true));
 
 		StepVerifier.create(flightService.reserveSeats("F1", 1000))
 				.expectErrorMatches(ex -> ex.getMessage().contains("Not enough seats")).verify();
@@ -84,40 +157,365 @@ class FlightServiceImplTest {
 
 	@Test
 	void reserveSeats_flightNotFound_returnsError() {
-		when(flightRepository.findById("F1")).thenReturn(Mono.empty());
+		when(flightRepository.decrementAvailableSeats("F1", 10)).thenReturn(Mono.empty());
+		when(flightRepository.existsById("F1")).thenReturn(Mono.just(false));
 
 		StepVerifier.create(flightService.reserveSeats("F1", 10))
 				.expectErrorMatches(ex -> ex.getMessage().contains("Flight not found")).verify();
 	}
 
+	@Test
+	void reserveSeats_nonPositiveSeatCount_returnsError() {
+		StepVerifier.create(flightService.reserveSeats("F1", 0))
+				.expectErrorMatches(ex -> ex.getMessage().contains("Seat count must be at least 1")).verify();
+
+		verify(flightRepository, never()).decrementAvailableSeats(anyString(), anyInt());
+	}
+
 	@Test
 	void releaseSeats_shouldIncreaseSeatCount() {
-		when(flightRepository.findById("F1")).thenReturn(Mono.just(flight));
-		when(flightRepository.save(any(Flight.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+		flight.setAvailableSeats(55);
+		when(flightRepository.incrementAvailableSeats("F1", 5)).thenReturn(Mono.just(flight));
 
 		StepVerifier.create(flightService.releaseSeats("F1", 5)).expectNextMatches(f -> f.getAvailableSeats() == 55)
 				.verifyComplete();
+
+		verify(flightRepository, never()).save(any());
 	}
 
 	@Test
 	void releaseSeats_flightNotFound_returnsError() {
-		when(flightRepository.findById("F1")).thenReturn(Mono.empty());
+		when(flightRepository.incrementAvailableSeats("F1", 5)).thenReturn(Mono.empty());
 
 		StepVerifier.create(flightService.releaseSeats("F1", 5))
 				.expectErrorMatches(ex -> ex.getMessage().contains("Flight not found")).verify();
 	}
 
 	@Test
-	void searchFlights_shouldDelegateToRepository() {
+	void reserveSeatsBatch_allLegsReserved() {
+		Flight returnFlight = new Flight();
+		returnFlight.setId("F2");
+		when(flightRepository.decrementAvailableSeats("F1", 2)).thenReturn(Mono.just(flight));
+		when(flightRepository.decrementAvailableSeats("F2", 2)).thenReturn(Mono.just(returnFlight));
+
+		StepVerifier.create(flightService.reserveSeats(List.of(new SeatLeg("F1", 2), new SeatLeg("F2", 2))))
+				.expectNext(List.of(flight, returnFlight)).verifyComplete();
+
+		verify(flightRepository, never()).incrementAvailableSeats(anyString(), anyInt());
+	}
+
+	@Test
+	void reserveSeatsBatch_laterLegFails_releasesEarlierLegs() {
+		when(flightRepository.decrementAvailableSeats("F1", 2)).thenReturn(Mono.just(flight));
+		when(flightRepository.decrementAvailableSeats("F2", 2)).thenReturn(Mono.empty());
+		when(flightRepository.existsById("F2")).thenReturn(Mono.just(true));
+		when(flightRepository.incrementAvailableSeats("F1", 2)).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.reserveSeats(List.of(new SeatLeg("F1", 2), new SeatLeg("F2", 2))))
+				.expectErrorMatches(ex -> ex.getMessage().contains("Not enough seats")).verify();
+
+		verify(flightRepository).incrementAvailableSeats("F1", 2);
+	}
+
+	@Test
+	void reserveSeatsBatch_compensationFails_stillUndoesOtherLegsAndKeepsOriginalError() {
+		Flight second = new Flight();
+		second.setId("F2");
+		when(flightRepository.decrementAvailableSeats("F1", 2)).thenReturn(Mono.just(flight));
+		when(flightRepository.decrementAvailableSeats("F2", 2)).thenReturn(Mono.just(second));
+		when(flightRepository.decrementAvailableSeats("F3", 2)).thenReturn(Mono.empty());
+		when(flightRepository.existsById("F3")).thenReturn(Mono.just(true));
+		when(flightRepository.incrementAvailableSeats("F2", 2)).thenReturn(Mono.error(new RuntimeException("down")));
+		when(flightRepository.incrementAvailableSeats("F1", 2)).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.reserveSeats(
+				List.of(new SeatLeg("F1", 2), new SeatLeg("F2", 2), new SeatLeg("F3", 2))))
+				.expectErrorMatches(ex -> ex.getMessage().contains("Not enough seats")).verify();
+
+		verify(flightRepository).incrementAvailableSeats("F2", 2);
+		verify(flightRepository).incrementAvailableSeats("F1", 2);
+	}
+
+	@Test
+	void reserveSeatsBatch_emptyLegs_returnsError() {
+		StepVerifier.create(flightService.reserveSeats(List.of()))
+				.expectErrorMatches(ex -> ex.getMessage().contains("At least one seat leg is required")).verify();
+	}
+
+	@Test
+	void releaseSeatsBatch_allLegsReleased() {
+		when(flightRepository.incrementAvailableSeats("F1", 3)).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.releaseSeats(List.of(new SeatLeg("F1", 3)))).expectNext(List.of(flight))
+				.verifyComplete();
+	}
+
+	@Test
+	void addFlight_withCabinLayout_startsWithEmptySeatMap() {
+		flight.setCabinLayout(new CabinLayout(20, "ABCDEF"));
+		flight.setTotalSeats(120);
+		when(flightRepository.save(flight)).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.addFlight(flight)).expectNext(flight).verifyComplete();
+
+		assertThat(flight.getOccupiedSeats()).containsExactly(0L, 0L);
+	}
+
+	@Test
+	void addFlight_layoutWithoutOrWithRepeatedSeatLetters_returnsBadRequest() {
+		flight.setTotalSeats(120);
+		for (String letters : new String[] { null, "AABCDE" }) {
+			flight.setCabinLayout(new CabinLayout(20, letters));
+
+			StepVerifier.create(flightService.addFlight(flight))
+					.expectErrorMatches(ex -> ex instanceof ResponseStatusException
+							&& ((ResponseStatusException) ex).getStatusCode() == HttpStatus.BAD_REQUEST)
+					.verify();
+		}
+
+		verify(flightRepository, never()).save(any());
+	}
+
+	@Test
+	void addFlight_layoutNotMatchingTotalSeats_returnsBadRequest() {
+		flight.setCabinLayout(new CabinLayout(20, "ABCDEF"));
+
+		StepVerifier.create(flightService.addFlight(flight))
+				.expectErrorMatches(ex -> ex instanceof ResponseStatusException
+						&& ((ResponseStatusException) ex).getStatusCode() == HttpStatus.BAD_REQUEST)
+				.verify();
+
+		verify(flightRepository, never()).save(any());
+	}
+
+	@Test
+	void reserveSeatsBatch_specificSeats_occupiesTheirBits() {
+		flight.setCabinLayout(new CabinLayout(20, "ABCDEF"));
+		BitSet expected = new BitSet();
+		expected.set(0);
+		expected.set(11 * 6 + 2);
+		when(flightRepository.findSeatMap("F1")).thenReturn(Mono.just(flight));
+		when(flightRepository.occupySeats("F1", expected)).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.reserveSeats(List.of(new SeatLeg("F1", 2, List.of("1A", "12c")))))
+				.expectNext(List.of(flight)).verifyComplete();
+
+		verify(flightRepository, never()).decrementAvailableSeats(anyString(), anyInt());
+	}
+
+	@Test
+	void reserveSeatsBatch_seatAlreadyTaken_returnsConflict() {
+		flight.setCabinLayout(new CabinLayout(20, "ABCDEF"));
+		when(flightRepository.findSeatMap("F1")).thenReturn(Mono.just(flight));
+		when(flightRepository.occupySeats(anyString(), any(BitSet.class))).thenReturn(Mono.empty());
+
+		StepVerifier.create(flightService.reserveSeats(List.of(new SeatLeg("F1", 1, List.of("1A")))))
+				.expectErrorMatches(ex -> ex instanceof ResponseStatusException
+						&& ((ResponseStatusException) ex).getStatusCode() == HttpStatus.CONFLICT
+						&& ex.getMessage().contains("Seat already taken"))
+				.verify();
+	}
+
+	@Test
+	void reserveSeatsBatch_tooFewSeatsLeft_returnsNotEnoughSeats() {
+		flight.setCabinLayout(new CabinLayout(20, "ABCDEF"));
+		flight.setAvailableSeats(1);
+		when(flightRepository.findSeatMap("F1")).thenReturn(Mono.just(flight));
+		when(flightRepository.occupySeats(anyString(), any(BitSet.class))).thenReturn(Mono.empty());
+
+		StepVerifier.create(flightService.reserveSeats(List.of(new SeatLeg("F1", 2, List.of("1A", "1B")))))
+				.expectErrorMatches(ex -> ex instanceof ResponseStatusException
+						&& ((ResponseStatusException) ex).getStatusCode() == HttpStatus.CONFLICT
+						&& ex.getMessage().contains("Not enough seats"))
+				.verify();
+	}
+
+	@Test
+	void reserveSeatsBatch_flightDeletedMeanwhile_returnsNotFound() {
+		flight.setCabinLayout(new CabinLayout(20, "ABCDEF"));
+		when(flightRepository.findSeatMap("F1")).thenReturn(Mono.just(flight), Mono.empty());
+		when(flightRepository.occupySeats(anyString(), any(BitSet.class))).thenReturn(Mono.empty());
+
+		StepVerifier.create(flightService.reserveSeats(List.of(new SeatLeg("F1", 1, List.of("1A")))))
+				.expectErrorMatches(ex -> ex instanceof ResponseStatusException
+						&& ((ResponseStatusException) ex).getStatusCode() == HttpStatus.NOT_FOUND)
+				.verify();
+	}
+
+	@Test
+	void reserveSeatsBatch_seatNotOnLayout_returnsBadRequest() {
+		flight.setCabinLayout(new CabinLayout(20, "ABCDEF"));
+		when(flightRepository.findSeatMap("F1")).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.reserveSeats(List.of(new SeatLeg("F1", 1, List.of("21A")))))
+				.expectErrorMatches(ex -> ex instanceof ResponseStatusException
+						&& ((ResponseStatusException) ex).getStatusCode() == HttpStatus.BAD_REQUEST)
+				.verify();
+	}
+
+	@Test
+	void reserveSeatsBatch_specificSeatsOnFlightWithoutLayout_areCounted() {
+		when(flightRepository.findSeatMap("F1")).thenReturn(Mono.just(flight));
+		when(flightRepository.decrementAvailableSeats("F1", 2)).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.reserveSeats(List.of(new SeatLeg("F1", 2, List.of("1A", "1B")))))
+				.expectNext(List.of(flight)).verifyComplete();
+	}
+
+	@Test
+	void releaseSeatsBatch_specificSeats_vacatesTheirBits() {
+		flight.setCabinLayout(new CabinLayout(20, "ABCDEF"));
+		BitSet expected = new BitSet();
+		expected.set(1);
+		when(flightRepository.findSeatMap("F1")).thenReturn(Mono.just(flight));
+		when(flightRepository.vacateSeats("F1", expected)).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.releaseSeats(List.of(new SeatLeg("F1", 1, List.of("1B")))))
+				.expectNext(List.of(flight)).verifyComplete();
+	}
+
+	@Test
+	void getSeatMap_encodesOccupancyBitset() {
+		flight.setCabinLayout(new CabinLayout(20, "ABCDEF"));
+		flight.setOccupiedSeats(List.of(0b101L, 1L << 55));
+		when(flightRepository.findSeatMap("F1")).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.getSeatMap("F1")).assertNext(map -> {
+			assertThat(map.getRows()).isEqualTo(20);
+			assertThat(map.getSeatLetters()).isEqualTo("ABCDEF");
+			BitSet occupied = BitSet.valueOf(Base64.getDecoder().decode(map.getOccupied()));
+			assertThat(occupied.stream()).containsExactly(0, 2, 64 + 55);
+		}).verifyComplete();
+	}
+
+	@Test
+	void getSeatMap_flightWithoutLayout_returnsNotFound() {
+		when(flightRepository.findSeatMap("F1")).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.getSeatMap("F1"))
+				.expectErrorMatches(ex -> ex instanceof ResponseStatusException
+						&& ((ResponseStatusException) ex).getStatusCode() == HttpStatus.NOT_FOUND)
+				.verify();
+	}
+
+	@Test
+	void searchFlights_shouldDelegateToSearchCache() {
 		LocalDateTime start = LocalDateTime.now();
 		LocalDateTime end = start.plusHours(5);
 
-		when(flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetween("BLR", "DEL", start, end))
-				.thenReturn(Flux.just(flight));
+		when(flightSearchCache.search("BLR", "DEL", start, end)).thenReturn(Flux.just(flight));
+		when(scheduleService.expand("BLR", "DEL", start, end)).thenReturn(Flux.empty());
 
 		StepVerifier.create(flightService.searchFlights("BLR", "DEL", start, end)).expectNext(flight).verifyComplete();
 	}
 
+	@Test
+	void searchFlights_mergesScheduledFlightsAndDropsStandInsForStoredOnes() {
+		LocalDateTime start = flight.getDepartureTime().minusHours(1);
+		LocalDateTime end = start.plusDays(2);
+		Flight standIn = new Flight();
+		standIn.setId("sched-R1-20251201");
+		standIn.setAirline(flight.getAirline());
+		standIn.setDepartureTime(flight.getDepartureTime());
+		Flight later = new Flight();
+		later.setId("sched-R1-20251202");
+		later.setAirline(flight.getAirline());
+		later.setDepartureTime(flight.getDepartureTime().plusDays(1));
+		when(flightSearchCache.search("BLR", "DEL", start, end)).thenReturn(Flux.just(flight));
+		when(scheduleService.expand("BLR", "DEL", start, end)).thenReturn(Flux.just(standIn, later));
+
+		StepVerifier.create(flightService.searchFlights("BLR", "DEL", start, end)).expectNext(flight, later)
+				.verifyComplete();
+	}
+
+	@Test
+	void reserveSeats_virtualFlightId_materializesTheFlightFirst() {
+		when(scheduleService.materialize("sched-R1-20251201")).thenReturn(Mono.just(flight));
+		when(flightRepository.decrementAvailableSeats("F1", 2)).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.reserveSeats("sched-R1-20251201", 2)).expectNext(flight).verifyComplete();
+	}
+
+	@Test
+	void searchItineraries_shouldDelegateToRouteGraph() {
+		ItinerarySearchRequest request = new ItinerarySearchRequest();
+		Itinerary itinerary = new Itinerary(List.of(flight), flight.getDepartureTime(), flight.getArrivalTime(), 120,
+				3000);
+		when(routeGraph.search(request)).thenReturn(Flux.just(itinerary));
+
+		StepVerifier.create(flightService.searchItineraries(request)).expectNext(itinerary).verifyComplete();
+	}
+
+	@Test
+	void reserveSeats_updatesSearchCacheAndRouteGraph() {
+		when(flightRepository.decrementAvailableSeats("F1", 1)).thenReturn(Mono.just(flight));
+
+		StepVerifier.create(flightService.reserveSeats("F1", 1)).expectNext(flight).verifyComplete();
+
+		verify(flightSearchCache).put(flight);
+		verify(routeGraph).put(flight);
+	}
+
+	@Test
+	void getFareCalendar_fillsDaysWithoutFlights() {
+		LocalDate start = LocalDate.of(2025, 12, 1);
+		FareCalendarDay second = new FareCalendarDay(start.plusDays(1), 2800, 120, 3);
+		when(flightRepository.fareCalendar("BLR", "DEL", start.atStartOfDay(), start.plusDays(3).atStartOfDay(), 2))
+				.thenReturn(Flux.just(second));
+		when(scheduleService.expand("BLR", "DEL", start.atStartOfDay().minusNanos(1), start.plusDays(3).atStartOfDay()))
+				.thenReturn(Flux.empty());
+
+		StepVerifier.create(flightService.getFareCalendar("BLR", "DEL", start, start.plusDays(2), 2))
+				.expectNext(new FareCalendarDay(start, null, 0, 0))
+				.expectNext(second)
+				.expectNext(new FareCalendarDay(start.plusDays(2), null, 0, 0))
+				.verifyComplete();
+	}
+
+	@Test
+	void getFareCalendar_includesScheduledFlightsNotStoredYet() {
+		LocalDate start = LocalDate.of(2026, 3, 1);
+		LocalDateTime after = start.atStartOfDay().minusNanos(1);
+		LocalDateTime end = start.plusDays(2).atStartOfDay();
+		Flight stored = scheduled(null, start.atTime(6, 0), 3000, 50);
+		Flight sameDay = scheduled("sched-R1-20260301", start.atTime(9, 0), 2500, 180);
+		Flight nextDay = scheduled("sched-R1-20260302", start.plusDays(1).atTime(9, 0), 2500, 180);
+		Flight storedStandIn = scheduled("sched-R2-20260301", start.atTime(6, 0), 3000, 180);
+		when(flightRepository.fareCalendar("BLR", "DEL", start.atStartOfDay(), end, 2))
+				.thenReturn(Flux.just(new FareCalendarDay(start, 3000, 50, 1)));
+		when(scheduleService.expand("BLR", "DEL", after, end))
+				.thenReturn(Flux.just(storedStandIn, sameDay, nextDay));
+		when(flightRepository.findByFromPlaceAndToPlaceAndDepartureTimeBetween("BLR", "DEL", after, end))
+				.thenReturn(Flux.just(stored));
+
+		StepVerifier.create(flightService.getFareCalendar("BLR", "DEL", start, start.plusDays(1), 2))
+				.expectNext(new FareCalendarDay(start, 2500, 230, 2))
+				.expectNext(new FareCalendarDay(start.plusDays(1), 2500, 180, 1))
+				.verifyComplete();
+	}
+
+	private static Flight scheduled(String id, LocalDateTime departure, int price, int availableSeats) {
+		Flight flight = new Flight();
+		flight.setId(id);
+		flight.setAirline("Indigo");
+		flight.setDepartureTime(departure);
+		flight.setPrice(price);
+		flight.setAvailableSeats(availableSeats);
+		return flight;
+	}
+
+	@Test
+	void getFareCalendar_rangeTooLong_returnsBadRequest() {
+		LocalDate start = LocalDate.of(2025, 12, 1);
+
+		StepVerifier.create(flightService.getFareCalendar("BLR", "DEL", start, start.plusDays(62), 1))
+				.expectErrorMatches(ex -> ex instanceof ResponseStatusException
+						&& ((ResponseStatusException) ex).getStatusCode() == HttpStatus.BAD_REQUEST)
+				.verify();
+
+		verify(flightRepository, never()).fareCalendar(anyString(), anyString(), any(), any(), anyInt());
+	}
+
 	@Test
 	void searchFlightsByAirline_shouldDelegateToRepository() {
 		when(flightRepository.findByFromPlaceAndToPlaceAndAirline("BLR", "DEL", "Indigo"))
@@ -128,24 +526,27 @@ class FlightServiceImplTest {
 	}
 
 	@Test
-	void addFlight_shouldThrowConflictWhenDuplicateExists() {
-		Flight existing = new Flight();
-		existing.setId("123");
-		existing.setAirline("Indigo");
-		existing.setFromPlace("BLR");
-		existing.setToPlace("HYD");
-		existing.setDepartureTime(LocalDateTime.of(2025, 12, 1, 10, 0));
+	void addFlight_shouldSaveFlight() {
+		when(flightRepository.save(flight)).thenReturn(Mono.just(flight));
 
+		StepVerifier.create(flightService.addFlight(flight)).expectNext(flight).verifyComplete();
+
+		verify(flightSearchCache).put(flight);
+	}
+
+	@Test
+	void addFlight_shouldThrowConflictWhenDuplicateExists() {
 		Flight newFlight = new Flight();
 		newFlight.setAirline("Indigo");
 		newFlight.setFromPlace("BLR");
 		newFlight.setToPlace("HYD");
 		newFlight.setDepartureTime(LocalDateTime.of(2025, 12, 1, 10, 0));
 
-		when(flightRepository.findByAirlineAndFromPlaceAndToPlaceAndDepartureTime(anyString(), anyString(), anyString(),
-				any(LocalDateTime.class))).thenReturn(Mono.just(existing));
+		when(flightRepository.save(newFlight)).thenReturn(Mono.error(new DuplicateKeyException("E11000")));
 
-		StepVerifier.create(flightService.addFlight(newFlight)).expectError(ResponseStatusException.class).verify();
-		verify(flightRepository, never()).save(any());
+		StepVerifier.create(flightService.addFlight(newFlight))
+				.expectErrorMatches(ex -> ex instanceof ResponseStatusException
+						&& ((ResponseStatusException) ex).getStatusCode() == HttpStatus.CONFLICT)
+				.verify();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,210 @@
+package com.demo.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+
+import com.flightapp.cache.FlightSearchCache;
+import com.flightapp.cache.RouteGraph;
+import com.flightapp.dto.BulkInsertResult;
+import com.flightapp.model.CabinLayout;
+import com.flightapp.model.Flight;
+import com.flightapp.model.ScheduleRule;
+import com.flightapp.repository.FlightRepository;
+import com.flightapp.repository.ScheduleRuleRepository;
+import com.flightapp.service.impl.ScheduleServiceImpl;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ScheduleServiceImplTest {
+
+	private static final LocalDate TODAY = LocalDate.of(2025, 11, 3);
+
+	private ScheduleRuleRepository scheduleRuleRepository;
+	private FlightRepository flightRepository;
+	private RouteGraph routeGraph;
+	private ScheduleServiceImpl scheduleService;
+
+	private ScheduleRule rule;
+
+	@BeforeEach
+	void setUp() {
+		scheduleRuleRepository = mock(ScheduleRuleRepository.class);
+		flightRepository = mock(FlightRepository.class);
+		routeGraph = mock(RouteGraph.class);
+		when(routeGraph.refresh()).thenReturn(Mono.just(0));
+		Clock clock = Clock.fixed(Instant.parse("2025-11-03T00:00:00Z"), ZoneOffset.UTC);
+		scheduleService = new ScheduleServiceImpl(scheduleRuleRepository, flightRepository,
+				mock(FlightSearchCache.class), routeGraph, 7, 100, Duration.ofSeconds(30), clock);
+
+		rule = new ScheduleRule();
+		rule.setId("R1");
+		rule.setAirline("Indigo");
+		rule.setFromPlace("BLR");
+		rule.setToPlace("DEL");
+		rule.setDepartureTime(LocalTime.of(6, 0));
+		rule.setDurationMinutes(165);
+		rule.setDaysOfWeek(Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+		rule.setValidFrom(LocalDate.of(2025, 11, 1));
+		rule.setValidTo(LocalDate.of(2026, 3, 31));
+		rule.setPrice(4500);
+		rule.setTotalSeats(180);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void materializeHorizon_bulkInsertsOperatingDaysAndAdvancesTheRule() {
+		ArgumentCaptor<List<Flight>> batch = ArgumentCaptor.forClass(List.class);
+		when(scheduleRuleRepository.findByValidToGreaterThanEqual(TODAY)).thenReturn(Flux.just(rule));
+		when(flightRepository.insertUnordered(batch.capture()))
+				.thenReturn(Mono.just(new BulkInsertResult(3, List.of())));
+		when(scheduleRuleRepository.advanceMaterializedThrough("R1", TODAY.plusDays(7))).thenReturn(Mono.just(rule));
+
+		StepVerifier.create(scheduleService.materializeHorizon()).expectNext(3L).verifyComplete();
+
+		// Mon 3rd, Wed 5th and Mon 10th November
+		assertThat(batch.getValue()).extracting(Flight::getDepartureTime).containsExactly(
+				LocalDateTime.of(2025, 11, 3, 6, 0), LocalDateTime.of(2025, 11, 5, 6, 0),
+				LocalDateTime.of(2025, 11, 10, 6, 0));
+		assertThat(batch.getValue().get(0).getArrivalTime()).isEqualTo(LocalDateTime.of(2025, 11, 3, 8, 45));
+		assertThat(batch.getValue().get(0).getAvailableSeats()).isEqualTo(180);
+		verify(routeGraph).refresh();
+	}
+
+	@Test
+	void materializeHorizon_alreadyMaterializedRule_insertsNothing() {
+		rule.setMaterializedThrough(TODAY.plusDays(7));
+		when(scheduleRuleRepository.findByValidToGreaterThanEqual(TODAY)).thenReturn(Flux.just(rule));
+
+		StepVerifier.create(scheduleService.materializeHorizon()).expectNext(0L).verifyComplete();
+
+		verify(flightRepository, never()).insertUnordered(anyList());
+	}
+
+	@Test
+	void expand_answersDatesPastTheHorizonFromTheRule() {
+		rule.setMaterializedThrough(TODAY.plusDays(7));
+		when(scheduleRuleRepository.findByFromPlaceAndToPlaceAndValidToGreaterThanEqual("BLR", "DEL", TODAY))
+				.thenReturn(Flux.just(rule));
+
+		StepVerifier
+				.create(scheduleService.expand("BLR", "DEL", TODAY.atStartOfDay(), TODAY.plusDays(15).atStartOfDay()))
+				.assertNext(flight -> {
+					assertThat(flight.getId()).isEqualTo("sched-R1-20251112");
+					assertThat(flight.getDepartureTime()).isEqualTo(LocalDateTime.of(2025, 11, 12, 6, 0));
+				})
+				.assertNext(flight -> assertThat(flight.getId()).isEqualTo("sched-R1-20251117"))
+				.verifyComplete();
+	}
+
+	@Test
+	void expand_loadsTheRouteRulesOnceWhileFresh() {
+		rule.setMaterializedThrough(TODAY.plusDays(7));
+		when(scheduleRuleRepository.findByFromPlaceAndToPlaceAndValidToGreaterThanEqual("BLR", "DEL", TODAY))
+				.thenReturn(Flux.just(rule));
+
+		for (int i = 0; i < 2; i++) {
+			StepVerifier.create(
+					scheduleService.expand("BLR", "DEL", TODAY.atStartOfDay(), TODAY.plusDays(15).atStartOfDay()))
+					.expectNextCount(2).verifyComplete();
+		}
+
+		verify(scheduleRuleRepository, times(1)).findByFromPlaceAndToPlaceAndValidToGreaterThanEqual("BLR", "DEL",
+				TODAY);
+	}
+
+	@Test
+	void expand_failedRuleLoad_isRetriedOnTheNextSearch() {
+		rule.setMaterializedThrough(TODAY.plusDays(7));
+		when(scheduleRuleRepository.findByFromPlaceAndToPlaceAndValidToGreaterThanEqual("BLR", "DEL", TODAY))
+				.thenReturn(Flux.error(new IllegalStateException("down")), Flux.just(rule));
+
+		StepVerifier.create(
+				scheduleService.expand("BLR", "DEL", TODAY.atStartOfDay(), TODAY.plusDays(15).atStartOfDay()))
+				.verifyError(IllegalStateException.class);
+		StepVerifier.create(
+				scheduleService.expand("BLR", "DEL", TODAY.atStartOfDay(), TODAY.plusDays(15).atStartOfDay()))
+				.expectNextCount(2).verifyComplete();
+	}
+
+	@Test
+	void materialize_virtualFlightAlreadyStored_returnsTheStoredFlight() {
+		Flight stored = new Flight();
+		stored.setId("F9");
+		when(scheduleRuleRepository.findById("R1")).thenReturn(Mono.just(rule));
+		when(flightRepository.save(any(Flight.class))).thenReturn(Mono.error(new DuplicateKeyException("dup")));
+		when(flightRepository.findByAirlineAndFromPlaceAndToPlaceAndDepartureTime("Indigo", "BLR", "DEL",
+				LocalDateTime.of(2025, 12, 1, 6, 0))).thenReturn(Mono.just(stored));
+
+		StepVerifier.create(scheduleService.materialize("sched-R1-20251201")).expectNext(stored).verifyComplete();
+	}
+
+	@Test
+	void find_unmaterializedDate_returnsTheRuleFlightWithoutStoringIt() {
+		when(scheduleRuleRepository.findById("R1")).thenReturn(Mono.just(rule));
+		when(flightRepository.findByAirlineAndFromPlaceAndToPlaceAndDepartureTime("Indigo", "BLR", "DEL",
+				LocalDateTime.of(2025, 12, 1, 6, 0))).thenReturn(Mono.empty());
+
+		StepVerifier.create(scheduleService.find("sched-R1-20251201")).assertNext(flight -> {
+			assertThat(flight.getId()).isEqualTo("sched-R1-20251201");
+			assertThat(flight.getAvailableSeats()).isEqualTo(180);
+		}).verifyComplete();
+
+		verify(flightRepository, never()).save(any(Flight.class));
+	}
+
+	@Test
+	void find_materializedDate_returnsTheStoredFlight() {
+		Flight stored = new Flight();
+		stored.setId("F9");
+		when(scheduleRuleRepository.findById("R1")).thenReturn(Mono.just(rule));
+		when(flightRepository.findByAirlineAndFromPlaceAndToPlaceAndDepartureTime("Indigo", "BLR", "DEL",
+				LocalDateTime.of(2025, 12, 1, 6, 0))).thenReturn(Mono.just(stored));
+
+		StepVerifier.create(scheduleService.find("sched-R1-20251201")).expectNext(stored).verifyComplete();
+	}
+
+	@Test
+	void addRule_layoutWithRepeatedSeatLetters_returnsBadRequest() {
+		rule.setCabinLayout(new CabinLayout(30, "ABCDEA"));
+
+		StepVerifier.create(scheduleService.addRule(rule))
+				.expectErrorMatches(e -> e.getMessage().contains("Invalid cabin layout")).verify();
+
+		verify(scheduleRuleRepository, never()).save(any(ScheduleRule.class));
+	}
+
+	@Test
+	void materialize_dateTheRuleDoesNotOperate_returnsNotFound() {
+		when(scheduleRuleRepository.findById("R1")).thenReturn(Mono.just(rule));
+
+		// Tuesday
+		StepVerifier.create(scheduleService.materialize("sched-R1-20251202"))
+				.expectErrorMatches(e -> e.getMessage().contains("Flight not found")).verify();
+
+		verify(flightRepository, never()).save(any(Flight.class));
+	}
+}
@@ -0,0 +1,208 @@
+package com.demo.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.flightapp.dto.SeatLeg;
+import com.flightapp.model.Flight;
+import com.flightapp.model.SeatHold;
+import com.flightapp.repository.SeatHoldRepository;
+import com.flightapp.service.FlightService;
+import com.flightapp.service.impl.SeatHoldServiceImpl;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldServiceImplTest {
+
+	@Mock
+	private SeatHoldRepository seatHoldRepository;
+
+	@Mock
+	private FlightService flightService;
+
+	private SeatHoldServiceImpl seatHoldService;
+
+	private List<SeatLeg> legs;
+	private Flight flight;
+
+	@BeforeEach
+	void setup() {
+		seatHoldService = new SeatHoldServiceImpl(seatHoldRepository, flightService, Duration.ofMinutes(10));
+		legs = List.of(new SeatLeg("F1", 2));
+		flight = new Flight();
+		flight.setId("F1");
+		flight.setPrice(3000);
+	}
+
+	@Test
+	void holdSeats_reservesSeatsAndSavesHoldWithExpiry() {
+		when(flightService.reserveSeats(legs)).thenReturn(Mono.just(List.of(flight)));
+		when(seatHoldRepository.save(any(SeatHold.class))).thenAnswer(inv -> {
+			SeatHold hold = inv.getArgument(0);
+			hold.setId("H1");
+			return Mono.just(hold);
+		});
+
+		StepVerifier.create(seatHoldService.holdSeats(legs)).assertNext(hold -> {
+			assertThat(hold.getId()).isEqualTo("H1");
+			assertThat(hold.getLegs()).isEqualTo(legs);
+			assertThat(hold.getFlights()).containsExactly(flight);
+			assertThat(Duration.between(hold.getCreatedAt(), hold.getExpiresAt())).isEqualTo(Duration.ofMinutes(10));
+		}).verifyComplete();
+	}
+
+	@Test
+	void holdSeats_saveFails_releasesSeats() {
+		when(flightService.reserveSeats(legs)).thenReturn(Mono.just(List.of(flight)));
+		when(seatHoldRepository.save(any(SeatHold.class))).thenReturn(Mono.error(new RuntimeException("db down")));
+		when(flightService.releaseSeats(legs)).thenReturn(Mono.just(List.of(flight)));
+
+		StepVerifier.create(seatHoldService.holdSeats(legs)).expectErrorMessage("db down").verify();
+
+		verify(flightService).releaseSeats(legs);
+	}
+
+	@Test
+	void confirmHold_activeHold_isConfirmedWithoutReleasingSeats() {
+		SeatHold hold = new SeatHold();
+		hold.setId("H1");
+		hold.setLegs(legs);
+		when(seatHoldRepository.confirm(any(String.class), any(LocalDateTime.class))).thenReturn(Mono.just(hold));
+
+		StepVerifier.create(seatHoldService.confirmHold("H1")).expectNext(hold).verifyComplete();
+
+		verify(flightService, never()).releaseSeats(anyList());
+	}
+
+	@Test
+	void confirmHold_expiredHold_returnsNotFound() {
+		SeatHold expired = new SeatHold();
+		expired.setId("H1");
+		when(seatHoldRepository.confirm(any(String.class), any(LocalDateTime.class))).thenReturn(Mono.empty());
+		when(seatHoldRepository.findById("H1")).thenReturn(Mono.just(expired));
+
+		StepVerifier.create(seatHoldService.confirmHold("H1"))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.NOT_FOUND)
+				.verify();
+	}
+
+	@Test
+	void confirmHold_alreadyConfirmed_returnsHoldAgain() {
+		SeatHold confirmed = new SeatHold();
+		confirmed.setId("H1");
+		confirmed.setConfirmedAt(LocalDateTime.now());
+		when(seatHoldRepository.confirm(any(String.class), any(LocalDateTime.class))).thenReturn(Mono.empty());
+		when(seatHoldRepository.findById("H1")).thenReturn(Mono.just(confirmed));
+
+		StepVerifier.create(seatHoldService.confirmHold("H1")).expectNext(confirmed).verifyComplete();
+	}
+
+	@Test
+	void releaseHold_confirmedHold_returnsConflictWithoutReleasingSeats() {
+		SeatHold confirmed = new SeatHold();
+		confirmed.setId("H1");
+		confirmed.setConfirmedAt(LocalDateTime.now());
+		when(seatHoldRepository.claim(eq("H1"), any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(Mono.empty());
+		when(seatHoldRepository.findById("H1")).thenReturn(Mono.just(confirmed));
+
+		StepVerifier.create(seatHoldService.releaseHold("H1"))
+				.expectErrorMatches(e -> e instanceof ResponseStatusException
+						&& ((ResponseStatusException) e).getStatusCode() == HttpStatus.CONFLICT)
+				.verify();
+
+		verify(flightService, never()).releaseSeats(anyList());
+	}
+
+	@Test
+	void releaseHold_returnsSeats() {
+		SeatHold hold = new SeatHold();
+		hold.setId("H1");
+		hold.setLegs(legs);
+		when(seatHoldRepository.claim(eq("H1"), any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(Mono.just(hold));
+		when(flightService.releaseSeats(legs)).thenReturn(Mono.just(List.of(flight)));
+		when(seatHoldRepository.deleteById("H1")).thenReturn(Mono.empty());
+
+		StepVerifier.create(seatHoldService.releaseHold("H1")).expectNext(hold).verifyComplete();
+
+		InOrder order = inOrder(flightService, seatHoldRepository);
+		order.verify(flightService).releaseSeats(legs);
+		order.verify(seatHoldRepository).deleteById("H1");
+	}
+
+	@Test
+	void releaseHold_releaseFails_keepsTheHold() {
+		SeatHold hold = new SeatHold();
+		hold.setId("H1");
+		hold.setLegs(legs);
+		when(seatHoldRepository.claim(eq("H1"), any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(Mono.just(hold));
+		when(flightService.releaseSeats(legs)).thenReturn(Mono.error(new RuntimeException("flight db down")));
+
+		StepVerifier.create(seatHoldService.releaseHold("H1")).expectErrorMessage("flight db down").verify();
+
+		verify(seatHoldRepository, never()).deleteById(anyString());
+	}
+
+	@Test
+	void releaseExpiredHolds_releasesOnlyClaimedHolds() {
+		SeatHold first = new SeatHold();
+		first.setId("H1");
+		first.setLegs(legs);
+		SeatHold second = new SeatHold();
+		second.setId("H2");
+		second.setLegs(legs);
+
+		when(seatHoldRepository.findByConfirmedAtIsNullAndExpiresAtBefore(any(LocalDateTime.class)))
+				.thenReturn(Flux.just(first, second));
+		when(seatHoldRepository.claim(eq("H1"), any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(Mono.just(first));
+		when(seatHoldRepository.claim(eq("H2"), any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(Mono.empty());
+		when(flightService.releaseSeats(legs)).thenReturn(Mono.just(List.of(flight)));
+		when(seatHoldRepository.deleteById("H1")).thenReturn(Mono.empty());
+
+		StepVerifier.create(seatHoldService.releaseExpiredHolds()).expectNext(1L).verifyComplete();
+	}
+
+	@Test
+	void releaseExpiredHolds_releaseFails_keepsTheHoldForTheNextSweep() {
+		SeatHold expired = new SeatHold();
+		expired.setId("H1");
+		expired.setLegs(legs);
+		when(seatHoldRepository.findByConfirmedAtIsNullAndExpiresAtBefore(any(LocalDateTime.class)))
+				.thenReturn(Flux.just(expired));
+		when(seatHoldRepository.claim(eq("H1"), any(LocalDateTime.class), any(LocalDateTime.class)))
+				.thenReturn(Mono.just(expired));
+		when(flightService.releaseSeats(legs)).thenReturn(Mono.error(new RuntimeException("flight db down")));
+
+		StepVerifier.create(seatHoldService.releaseExpiredHolds()).expectNext(0L).verifyComplete();
+
+		verify(seatHoldRepository, never()).deleteById(anyString());
+	}
+}
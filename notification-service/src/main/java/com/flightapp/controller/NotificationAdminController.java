@@ -0,0 +1,32 @@
+package com.flightapp.controller;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.flightapp.service.DltReplayService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/notification/admin")
+public class NotificationAdminController {
+
+	private static final int MAX_REPLAY = 10_000;
+
+	private final DltReplayService dltReplayService;
+
+	@PostMapping("/dlt/replay")
+	public Mono<ReplayResult> replayDeadLetters(@RequestParam(defaultValue = "500") int max) {
+		int limit = Math.max(1, Math.min(max, MAX_REPLAY));
+		return Mono.fromCallable(() -> new ReplayResult(dltReplayService.replay(limit)))
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	public record ReplayResult(int replayed) {
+	}
+}
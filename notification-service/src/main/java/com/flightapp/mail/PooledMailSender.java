@@ -0,0 +1,233 @@
+package com.flightapp.mail;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.NoSuchProviderException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Sends mail over a pool of connected, authenticated SMTP transports instead of
+ * opening a session per message like {@link JavaMailSenderImpl#send}. Host,
+ * port, credentials and session properties still come from the spring.mail.*
+ * configured sender.
+ *
+ * A connection is replaced after max-messages-per-connection messages, after
+ * sitting idle for connection-idle-timeout, or after any send error. Failed
+ * connects and sends are retried with exponential backoff unless the server
+ * rejected the credentials or the recipients.
+ */
+@Component
+public class PooledMailSender {
+
+	private static final Logger log = LoggerFactory.getLogger(PooledMailSender.class);
+
+	private final JavaMailSenderImpl mailSender;
+	private final int maxMessagesPerConnection;
+	private final long idleTimeoutNanos;
+	private final int maxAttempts;
+	private final Duration retryBackoff;
+	private final long sendIntervalNanos;
+
+	private final Semaphore connectionPermits;
+	private final BlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+	private long nextSendAt = System.nanoTime();
+
+	public PooledMailSender(JavaMailSenderImpl mailSender,
+			@Value("${notification.mail.max-connections:8}") int maxConnections,
+			@Value("${notification.mail.max-messages-per-connection:100}") int maxMessagesPerConnection,
+			@Value("${notification.mail.connection-idle-timeout:60s}") Duration idleTimeout,
+			@Value("${notification.mail.max-attempts:3}") int maxAttempts,
+			@Value("${notification.mail.retry-backoff:500ms}") Duration retryBackoff,
+			@Value("${notification.mail.max-per-second:0}") double maxPerSecond) {
+		this.mailSender = mailSender;
+		this.maxMessagesPerConnection = maxMessagesPerConnection;
+		this.idleTimeoutNanos = idleTimeout.toNanos();
+		this.maxAttempts = maxAttempts;
+		this.retryBackoff = retryBackoff;
+		this.sendIntervalNanos = maxPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / maxPerSecond) : 0;
+		this.connectionPermits = new Semaphore(maxConnections, true);
+	}
+
+	/** Sends a multipart/alternative mail when html is present, plaintext otherwise. */
+	public void send(RenderedMail mail) {
+		MimeMessage message = mailSender.createMimeMessage();
+		try {
+			MimeMessageHelper helper = new MimeMessageHelper(message, mail.html() != null,
+					StandardCharsets.UTF_8.name());
+			helper.setTo(mail.to());
+			helper.setSubject(mail.subject());
+			if (mail.html() != null) {
+				helper.setText(mail.text(), mail.html());
+			} else {
+				helper.setText(mail.text());
+			}
+			helper.setSentDate(new Date());
+			message.saveChanges();
+		} catch (MessagingException e) {
+			throw new MailPreparationException("Failed to prepare mail", e);
+		}
+		deliver(message);
+	}
+
+	private void deliver(MimeMessage message) {
+		awaitRateLimit();
+		for (int attempt = 1;; attempt++) {
+			PooledTransport pooled = null;
+			try {
+				pooled = borrow();
+				pooled.transport.sendMessage(message, message.getAllRecipients());
+				pooled.sent++;
+				release(pooled);
+				return;
+			} catch (MessagingException e) {
+				if (pooled != null) {
+					discard(pooled);
+				}
+				if (e instanceof AuthenticationFailedException) {
+					throw new MailAuthenticationException(e);
+				}
+				if (!isTransient(e) || attempt >= maxAttempts) {
+					throw new MailSendException("Failed to send mail after " + attempt + " attempt(s)", e);
+				}
+				log.warn("Transient SMTP failure on attempt {}, retrying", attempt, e);
+				sleep(retryBackoff.toNanos() << Math.min(attempt - 1, 10));
+			}
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		PooledTransport pooled;
+		while ((pooled = idle.poll()) != null) {
+			closeQuietly(pooled.transport);
+		}
+	}
+
+	private PooledTransport borrow() throws MessagingException {
+		try {
+			connectionPermits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MailSendException("Interrupted while waiting for an SMTP connection", e);
+		}
+
+		try {
+			PooledTransport pooled;
+			while ((pooled = idle.pollFirst()) != null) {
+				if (isReusable(pooled)) {
+					return pooled;
+				}
+				closeQuietly(pooled.transport);
+			}
+			return new PooledTransport(connect());
+		} catch (MessagingException | RuntimeException e) {
+			connectionPermits.release();
+			throw e;
+		}
+	}
+
+	private boolean isReusable(PooledTransport pooled) {
+		return pooled.sent < maxMessagesPerConnection && System.nanoTime() - pooled.lastUsed < idleTimeoutNanos
+				&& pooled.transport.isConnected();
+	}
+
+	private void release(PooledTransport pooled) {
+		pooled.lastUsed = System.nanoTime();
+		idle.offerFirst(pooled);
+		connectionPermits.release();
+	}
+
+	private void discard(PooledTransport pooled) {
+		closeQuietly(pooled.transport);
+		connectionPermits.release();
+	}
+
+	private Transport connect() throws MessagingException {
+		String username = mailSender.getUsername();
+		String password = mailSender.getPassword();
+		Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+		try {
+			transport.connect(mailSender.getHost(), mailSender.getPort(), "".equals(username) ? null : username,
+					"".equals(password) ? null : password);
+			return transport;
+		} catch (MessagingException e) {
+			closeQuietly(transport);
+			throw e;
+		}
+	}
+
+	private boolean isTransient(MessagingException e) {
+		if (e instanceof NoSuchProviderException) {
+			return false;
+		}
+		if (e instanceof SendFailedException sendFailed) {
+			return sendFailed.getInvalidAddresses() == null || sendFailed.getInvalidAddresses().length == 0;
+		}
+		return true;
+	}
+
+	private void awaitRateLimit() {
+		if (sendIntervalNanos == 0) {
+			return;
+		}
+		long wait;
+		synchronized (this) {
+			long now = System.nanoTime();
+			long sendAt = Math.max(now, nextSendAt);
+			nextSendAt = sendAt + sendIntervalNanos;
+			wait = sendAt - now;
+		}
+		sleep(wait);
+	}
+
+	private static void sleep(long nanos) {
+		if (nanos <= 0) {
+			return;
+		}
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MailSendException("Interrupted while sending mail", e);
+		}
+	}
+
+	private static void closeQuietly(Transport transport) {
+		try {
+			transport.close();
+		} catch (MessagingException e) {
+			log.debug("Failed to close SMTP connection", e);
+		}
+	}
+
+	private static final class PooledTransport {
+		private final Transport transport;
+		private int sent;
+		private long lastUsed = System.nanoTime();
+
+		private PooledTransport(Transport transport) {
+			this.transport = transport;
+		}
+	}
+}
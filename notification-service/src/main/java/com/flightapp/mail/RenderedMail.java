@@ -0,0 +1,5 @@
+package com.flightapp.mail;
+
+/** A ready-to-send mail; {@code html} may be null for plaintext-only mail. */
+public record RenderedMail(String to, String subject, String text, String html) {
+}
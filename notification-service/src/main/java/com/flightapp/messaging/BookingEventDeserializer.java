@@ -0,0 +1,34 @@
+package com.flightapp.messaging;
+
+import java.io.IOException;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads binary booking events, and still accepts JSON records published
+ * before booking-service switched to {@link BookingEventCodec}.
+ */
+public class BookingEventDeserializer implements Deserializer<BookingEvent> {
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	@Override
+	public BookingEvent deserialize(String topic, byte[] data) {
+		if (data == null) {
+			return null;
+		}
+		try {
+			if (data.length > 0 && data[0] == '{') {
+				return objectMapper.readValue(data, BookingEvent.class);
+			}
+			return BookingEventCodec.decode(data);
+		} catch (IOException | IllegalArgumentException e) {
+			throw new SerializationException("Failed to deserialize booking event from " + topic, e);
+		}
+	}
+}
@@ -0,0 +1,11 @@
+package com.flightapp.messaging;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+public class BookingEventSerializer implements Serializer<BookingEvent> {
+
+	@Override
+	public byte[] serialize(String topic, BookingEvent event) {
+		return event == null ? null : BookingEventCodec.encode(event);
+	}
+}
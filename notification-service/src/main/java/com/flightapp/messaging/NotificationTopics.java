@@ -0,0 +1,18 @@
+package com.flightapp.messaging;
+
+public final class NotificationTopics {
+
+	public static final String BOOKING_EVENTS = "booking-events";
+
+	/**
+	 * Events whose mail failed on the main listener. Retried through
+	 * booking-notifications-retry-N with growing delays, then parked in
+	 * {@link #DLT}.
+	 */
+	public static final String RETRY = "booking-notifications";
+
+	public static final String DLT = RETRY + "-dlt";
+
+	private NotificationTopics() {
+	}
+}
@@ -0,0 +1,10 @@
+package com.flightapp.service;
+
+public interface DltReplayService {
+
+	/**
+	 * Republishes up to {@code max} dead-lettered notifications to the retry
+	 * topic and returns how many were replayed.
+	 */
+	int replay(int max);
+}
@@ -5,34 +5,76 @@ import java.util.Map;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaRetryTopic;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.BookingEventDeserializer;
 
 @Configuration
+@EnableKafkaRetryTopic
 public class KafkaConsumerConfig {
 
+	private final int concurrency;
+	private final int maxPollRecords;
+
+	/**
+	 * @param concurrency consumer threads; set to the booking-events partition
+	 *                    count, extra threads sit idle
+	 */
+	public KafkaConsumerConfig(@Value("${notification.kafka.concurrency:3}") int concurrency,
+			@Value("${notification.kafka.max-poll-records:200}") int maxPollRecords) {
+		this.concurrency = concurrency;
+		this.maxPollRecords = maxPollRecords;
+	}
+
 	@Bean
 	public ConsumerFactory<String, BookingEvent> bookingEventConsumerFactory() {
-		JsonDeserializer<BookingEvent> deserializer = new JsonDeserializer<>(BookingEvent.class);
-		deserializer.addTrustedPackages("*");
+		BookingEventDeserializer deserializer = new BookingEventDeserializer();
 		Map<String, Object> config = new HashMap<>();
 		config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
 		config.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-service");
 		config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-		config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer.getClass());
+		config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, BookingEventDeserializer.class);
+		config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+		config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 		return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), deserializer);
 	}
 
 	@Bean
 	public ConcurrentKafkaListenerContainerFactory<String, BookingEvent> bookingEventKafkaListenerContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, BookingEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(bookingEventConsumerFactory());
+		factory.setBatchListener(true);
+		factory.setConcurrency(concurrency);
+		factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+		return factory;
+	}
+
+	/**
+	 * Record-at-a-time factory for the retry topics; non-blocking retries do not
+	 * support batch listeners.
+	 */
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, BookingEvent> bookingEventRetryKafkaListenerContainerFactory() {
 		ConcurrentKafkaListenerContainerFactory<String, BookingEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
 		factory.setConsumerFactory(bookingEventConsumerFactory());
 		return factory;
 	}
+
+	/** Resumes retry-topic partitions once their back-off delay has elapsed. */
+	@Bean
+	public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setThreadNamePrefix("retry-topic-");
+		return new RetryTopicSchedulerWrapper(scheduler);
+	}
 }
@@ -0,0 +1,39 @@
+package com.flightapp.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.BookingEventSerializer;
+
+/**
+ * Producer used to hand failed notifications to the retry topics and to
+ * replay the dead-letter topic.
+ */
+@Configuration
+public class KafkaProducerConfig {
+
+	@Bean
+	public ProducerFactory<String, BookingEvent> bookingEventProducerFactory() {
+		Map<String, Object> config = new HashMap<>();
+		config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+		config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BookingEventSerializer.class);
+		config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+		config.put(ProducerConfig.ACKS_CONFIG, "all");
+		return new DefaultKafkaProducerFactory<>(config);
+	}
+
+	@Bean
+	public KafkaTemplate<String, BookingEvent> bookingEventKafkaTemplate() {
+		return new KafkaTemplate<>(bookingEventProducerFactory());
+	}
+}
@@ -0,0 +1,30 @@
+package com.flightapp.service;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class MailExecutorConfig {
+
+	/**
+	 * Bounded pool for SMTP delivery. When the queue is full the consumer thread
+	 * sends the mail itself, which slows polling instead of dropping mail.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor notificationMailExecutor(@Value("${notification.mail.pool-size:8}") int poolSize,
+			@Value("${notification.mail.queue-capacity:500}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("mail-");
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationSeconds(30);
+		return executor;
+	}
+}
@@ -1,7 +1,18 @@
 package com.flightapp.service;
 
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.support.Acknowledgment;
+
 import com.flightapp.messaging.BookingEvent;
 
 public interface NotificationService {
 	void handleBookingEvent(BookingEvent event);
+
+	void handleBookingEvents(List<ConsumerRecord<String, BookingEvent>> records, Acknowledgment acknowledgment,
+			Consumer<?, ?> consumer);
+
+	void retryBookingEvent(BookingEvent event);
 }
@@ -0,0 +1,133 @@
+package com.flightapp.service.impl;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.kafka.support.Acknowledgment;
+
+/**
+ * Acknowledges the batches of one consumer thread in poll order while their
+ * deliveries complete on other threads. Offset commits are cumulative, so a
+ * batch is only acknowledged once every earlier batch of the run has been.
+ *
+ * When a delivery fails, nothing later in the run is acknowledged and the
+ * failed batch's partitions are sought back. The next poll on the consumer
+ * thread then rewinds every partition to its first unacknowledged offset,
+ * drops the batch it was handed and starts a new run, so the failed batch and
+ * everything after it is redelivered. A partition revocation ends the run the
+ * same way, leaving the revoked partitions to their committed offsets.
+ *
+ * {@link #rewindIfFailed}, {@link #track} and {@link #revoked} must be called
+ * on the consumer thread that owns this instance.
+ */
+final class BatchAcknowledger {
+
+	private static final Logger log = LoggerFactory.getLogger(BatchAcknowledger.class);
+
+	private Run run = new Run();
+	private volatile ConsumerSeekCallback seekCallback;
+
+	void setSeekCallback(ConsumerSeekCallback seekCallback) {
+		this.seekCallback = seekCallback;
+	}
+
+	/**
+	 * If the current run has failed or lost partitions, seeks back so that the
+	 * unacknowledged batches and the given one are redelivered, starts a new run
+	 * and returns true; the caller must then drop the batch.
+	 */
+	boolean rewindIfFailed(List<? extends ConsumerRecord<?, ?>> records, Consumer<?, ?> consumer) {
+		if (!run.failed.get()) {
+			return false;
+		}
+		Map<TopicPartition, Long> rewind = new LinkedHashMap<>();
+		run.unacknowledged.values().forEach(offsets -> offsets.forEach((partition, offset) -> {
+			if (!run.revoked.contains(partition)) {
+				rewind.putIfAbsent(partition, offset);
+			}
+		}));
+		firstOffsets(records).forEach(rewind::putIfAbsent);
+
+		Set<TopicPartition> assigned = consumer.assignment();
+		rewind.forEach((partition, offset) -> {
+			if (assigned.contains(partition)) {
+				consumer.seek(partition, offset);
+			}
+		});
+		log.warn("Rewinding {} to redeliver unacknowledged notifications", rewind);
+		run = new Run();
+		return true;
+	}
+
+	void track(List<? extends ConsumerRecord<?, ?>> records, CompletableFuture<Void> delivered,
+			Acknowledgment acknowledgment) {
+		Run current = run;
+		long batch = current.nextBatch++;
+		Map<TopicPartition, Long> offsets = firstOffsets(records);
+		current.unacknowledged.put(batch, offsets);
+		current.tail = current.tail.thenCompose(previous -> delivered)
+				.handle((ignored, error) -> {
+					complete(current, batch, offsets, acknowledgment, error);
+					return null;
+				});
+	}
+
+	void revoked(Collection<TopicPartition> partitions) {
+		if (!partitions.isEmpty() && !run.unacknowledged.isEmpty()) {
+			run.revoked.addAll(partitions);
+			run.failed.set(true);
+		}
+	}
+
+	private void complete(Run current, long batch, Map<TopicPartition, Long> offsets, Acknowledgment acknowledgment,
+			Throwable error) {
+		if (error == null) {
+			if (current.failed.get()) {
+				return;
+			}
+			try {
+				acknowledgment.acknowledge();
+				current.unacknowledged.remove(batch);
+				return;
+			} catch (RuntimeException e) {
+				error = e;
+			}
+		}
+		if (current.failed.compareAndSet(false, true)) {
+			log.error("Notification delivery failed; redelivering from {}", offsets, error);
+			ConsumerSeekCallback callback = seekCallback;
+			if (callback != null) {
+				offsets.forEach((partition, offset) -> callback.seek(partition.topic(), partition.partition(), offset));
+			}
+		}
+	}
+
+	private static Map<TopicPartition, Long> firstOffsets(List<? extends ConsumerRecord<?, ?>> records) {
+		Map<TopicPartition, Long> offsets = new LinkedHashMap<>();
+		for (ConsumerRecord<?, ?> record : records) {
+			offsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset(), Math::min);
+		}
+		return offsets;
+	}
+
+	private static final class Run {
+		private final AtomicBoolean failed = new AtomicBoolean();
+		private final Map<Long, Map<TopicPartition, Long>> unacknowledged = new ConcurrentSkipListMap<>();
+		private final Set<TopicPartition> revoked = new HashSet<>();
+		private long nextBatch;
+		private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+	}
+}
@@ -0,0 +1,91 @@
+package com.flightapp.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.NotificationTopics;
+import com.flightapp.service.DltReplayService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Drains the DLT with a dedicated consumer group, so each replay resumes where
+ * the previous one stopped. Only records present when the replay starts are
+ * considered, so a notification that dead-letters again is not replayed twice
+ * in the same call.
+ */
+@Service
+@RequiredArgsConstructor
+public class DltReplayServiceImpl implements DltReplayService {
+
+	static final String REPLAY_GROUP = "notification-dlt-replay";
+
+	private static final Logger log = LoggerFactory.getLogger(DltReplayServiceImpl.class);
+	private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+	private static final Duration MAX_REPLAY_TIME = Duration.ofSeconds(30);
+
+	private final ConsumerFactory<String, BookingEvent> bookingEventConsumerFactory;
+	private final KafkaTemplate<String, BookingEvent> bookingEventKafkaTemplate;
+
+	@Override
+	public int replay(int max) {
+		Properties overrides = new Properties();
+		overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(Math.min(max, 500)));
+
+		try (Consumer<String, BookingEvent> consumer = bookingEventConsumerFactory.createConsumer(REPLAY_GROUP, null,
+				null, overrides)) {
+			List<PartitionInfo> partitionInfos = consumer.partitionsFor(NotificationTopics.DLT);
+			if (partitionInfos == null || partitionInfos.isEmpty()) {
+				return 0;
+			}
+			List<TopicPartition> partitions = partitionInfos.stream()
+					.map(info -> new TopicPartition(info.topic(), info.partition())).toList();
+			consumer.assign(partitions);
+			Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+			Map<TopicPartition, OffsetAndMetadata> processed = new HashMap<>();
+			List<CompletableFuture<?>> sends = new ArrayList<>();
+			long deadline = System.nanoTime() + MAX_REPLAY_TIME.toNanos();
+			while (sends.size() < max && !caughtUp(consumer, endOffsets) && System.nanoTime() < deadline) {
+				for (ConsumerRecord<String, BookingEvent> dead : consumer.poll(POLL_TIMEOUT)) {
+					TopicPartition partition = new TopicPartition(dead.topic(), dead.partition());
+					if (sends.size() >= max || dead.offset() >= endOffsets.get(partition)) {
+						continue;
+					}
+					if (dead.value() != null) {
+						sends.add(bookingEventKafkaTemplate.send(NotificationTopics.RETRY, dead.key(), dead.value()));
+					}
+					processed.put(partition, new OffsetAndMetadata(dead.offset() + 1));
+				}
+			}
+
+			CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+			consumer.commitSync(processed);
+			log.info("Replayed {} notifications from {}", sends.size(), NotificationTopics.DLT);
+			return sends.size();
+		}
+	}
+
+	private static boolean caughtUp(Consumer<?, ?> consumer, Map<TopicPartition, Long> endOffsets) {
+		return endOffsets.entrySet().stream().allMatch(end -> consumer.position(end.getKey()) >= end.getValue());
+	}
+}
@@ -0,0 +1,136 @@
+package com.flightapp.service.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.flightapp.messaging.BookingEvent;
+
+/**
+ * Merges events for the same userEmail that arrive within one window into a
+ * single delivery. The first event for a user opens the window; the merged
+ * events are handed to the sink when it closes, when the user reaches
+ * maxEventsPerDigest, or when more than maxPendingUsers windows are open (the
+ * oldest is flushed early). A zero window still merges events of the same
+ * submitted batch but flushes them immediately.
+ */
+final class NotificationCoalescer {
+
+	private final long windowNanos;
+	private final int maxPendingUsers;
+	private final int maxEventsPerDigest;
+	private final Consumer<List<BookingEvent>> sink;
+	private final Executor deliveryExecutor;
+	private final ScheduledExecutorService windowTimer;
+
+	private final Map<String, Digest> pending = new LinkedHashMap<>();
+
+	NotificationCoalescer(Duration window, int maxPendingUsers, int maxEventsPerDigest,
+			Consumer<List<BookingEvent>> sink, Executor deliveryExecutor) {
+		this.windowNanos = window.toNanos();
+		this.maxPendingUsers = maxPendingUsers;
+		this.maxEventsPerDigest = maxEventsPerDigest;
+		this.sink = sink;
+		this.deliveryExecutor = deliveryExecutor;
+		this.windowTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "notification-digest");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Adds the events in order and returns a future that completes once every one
+	 * of them has been delivered (or handed to the retry topic).
+	 */
+	CompletableFuture<Void> submitAll(List<BookingEvent> events) {
+		Set<CompletableFuture<Void>> deliveries = new HashSet<>();
+		List<Digest> ready = new ArrayList<>();
+		synchronized (pending) {
+			for (BookingEvent event : events) {
+				String userEmail = String.valueOf(event.getUserEmail());
+				Digest digest = pending.get(userEmail);
+				if (digest == null) {
+					digest = new Digest(userEmail);
+					pending.put(userEmail, digest);
+					if (windowNanos > 0) {
+						Digest opened = digest;
+						windowTimer.schedule(() -> closeWindow(opened), windowNanos, TimeUnit.NANOSECONDS);
+					}
+				}
+				digest.events.add(event);
+				deliveries.add(digest.delivered);
+
+				if (digest.events.size() >= maxEventsPerDigest) {
+					ready.add(pending.remove(userEmail));
+				}
+				if (pending.size() > maxPendingUsers) {
+					Iterator<Digest> oldest = pending.values().iterator();
+					ready.add(oldest.next());
+					oldest.remove();
+				}
+			}
+			if (windowNanos == 0) {
+				ready.addAll(pending.values());
+				pending.clear();
+			}
+		}
+		ready.forEach(this::dispatch);
+		return CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new));
+	}
+
+	/** Delivers everything still buffered on the calling thread; used on shutdown. */
+	void flushAll() {
+		List<Digest> remaining;
+		synchronized (pending) {
+			remaining = new ArrayList<>(pending.values());
+			pending.clear();
+		}
+		windowTimer.shutdownNow();
+		remaining.forEach(this::deliver);
+	}
+
+	private void closeWindow(Digest digest) {
+		boolean open;
+		synchronized (pending) {
+			open = pending.remove(digest.userEmail, digest);
+		}
+		if (open) {
+			dispatch(digest);
+		}
+	}
+
+	private void dispatch(Digest digest) {
+		deliveryExecutor.execute(() -> deliver(digest));
+	}
+
+	private void deliver(Digest digest) {
+		try {
+			sink.accept(digest.events);
+			digest.delivered.complete(null);
+		} catch (RuntimeException e) {
+			digest.delivered.completeExceptionally(e);
+		}
+	}
+
+	private static final class Digest {
+		private final String userEmail;
+		private final List<BookingEvent> events = new ArrayList<>();
+		private final CompletableFuture<Void> delivered = new CompletableFuture<>();
+
+		private Digest(String userEmail) {
+			this.userEmail = userEmail;
+		}
+	}
+}
@@ -1,59 +1,150 @@
 package com.flightapp.service.impl;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Service;
 
+import com.flightapp.mail.PooledMailSender;
 import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.NotificationTopics;
 import com.flightapp.service.NotificationService;
+import com.flightapp.template.NotificationTemplates;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 
 @Service
-@RequiredArgsConstructor
-public class NotificationServiceImpl implements NotificationService {
+public class NotificationServiceImpl implements NotificationService, ConsumerSeekAware {
 
 	private static final Logger log = LoggerFactory.getLogger(NotificationServiceImpl.class);
 
-	private final JavaMailSender mailSender;
+	private final PooledMailSender mailSender;
+	private final NotificationTemplates templates;
+	private final KafkaTemplate<String, BookingEvent> kafkaTemplate;
+	private final NotificationCoalescer coalescer;
+	private final ThreadLocal<BatchAcknowledger> acknowledgers = ThreadLocal.withInitial(BatchAcknowledger::new);
+
+	public NotificationServiceImpl(PooledMailSender mailSender, NotificationTemplates templates,
+			@Qualifier("notificationMailExecutor") Executor mailExecutor,
+			KafkaTemplate<String, BookingEvent> kafkaTemplate,
+			@Value("${notification.digest.window:5s}") Duration digestWindow,
+			@Value("${notification.digest.max-pending-users:10000}") int maxPendingUsers,
+			@Value("${notification.digest.max-events:50}") int maxEventsPerDigest) {
+		this.mailSender = mailSender;
+		this.templates = templates;
+		this.kafkaTemplate = kafkaTemplate;
+		this.coalescer = new NotificationCoalescer(digestWindow, maxPendingUsers, maxEventsPerDigest,
+				this::handleDigest, mailExecutor);
+	}
 
+	/**
+	 * Hands a polled batch to the digest stage. The offsets are acknowledged
+	 * once every event in the batch has been mailed or handed to the retry
+	 * topic, in poll order per consumer thread; see {@link BatchAcknowledger}.
+	 */
 	@Override
-	@KafkaListener(topics = "booking-events", groupId = "notification-service", containerFactory = "bookingEventKafkaListenerContainerFactory")
-	public void handleBookingEvent(BookingEvent event) {
-		log.info("Received booking event: {}", event);
+	@KafkaListener(topics = NotificationTopics.BOOKING_EVENTS, groupId = "notification-service", containerFactory = "bookingEventKafkaListenerContainerFactory")
+	public void handleBookingEvents(List<ConsumerRecord<String, BookingEvent>> records,
+			Acknowledgment acknowledgment, Consumer<?, ?> consumer) {
+		BatchAcknowledger acknowledger = acknowledgers.get();
+		if (acknowledger.rewindIfFailed(records, consumer)) {
+			return;
+		}
+		List<BookingEvent> events = records.stream().map(ConsumerRecord::value).filter(Objects::nonNull).toList();
+		acknowledger.track(records, coalescer.submitAll(events), acknowledgment);
+	}
 
-		String subject;
-		String body;
-
-		switch (event.getEventType()) {
-		case "BOOKING_CONFIRMED":
-			subject = "Your flight booking is confirmed - PNR " + event.getPnr();
-			body = "Thank you for booking. Your PNR is " + event.getPnr() + " and total price is "
-					+ event.getTotalPrice();
-			break;
-
-		case "BOOKING_CANCELLED":
-			subject = "Your flight booking is cancelled - PNR " + event.getPnr();
-			body = "Your booking with PNR " + event.getPnr() + " has been cancelled.";
-			break;
-
-		default:
-			subject = "Flight booking update";
-			body = "Update for booking PNR: " + event.getPnr();
-			break;
+	@Override
+	public void registerSeekCallback(ConsumerSeekCallback callback) {
+		acknowledgers.get().setSeekCallback(callback);
+	}
+
+	@Override
+	public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+		acknowledgers.get().revoked(partitions);
+	}
+
+	/**
+	 * Sends one mail for the events a user accumulated within the digest
+	 * window. A single event gets the regular notification.
+	 */
+	void handleDigest(List<BookingEvent> events) {
+		if (events.size() == 1) {
+			handleBookingEvent(events.get(0));
+			return;
 		}
 
+		BookingEvent first = events.get(0);
+		log.info("Sending digest of {} booking events to {}", events.size(), first.getUserEmail());
 		try {
-			SimpleMailMessage message = new SimpleMailMessage();
-			message.setTo(event.getUserEmail());
-			message.setSubject(subject);
-			message.setText(body);
-			mailSender.send(message);
+			mailSender.send(templates.renderDigest(events));
 		} catch (Exception e) {
-			log.error("Failed to send email", e);
+			log.error("Failed to send digest email, scheduling retries for {} events", events.size(), e);
+			CompletableFuture.allOf(events.stream()
+					.map(event -> kafkaTemplate.send(NotificationTopics.RETRY, event.getPnr(), event))
+					.toArray(CompletableFuture[]::new)).join();
 		}
 	}
+
+	@PreDestroy
+	public void flushPendingDigests() {
+		coalescer.flushAll();
+	}
+
+	/**
+	 * Sends the mail for one event. A failed send is handed to the retry topic
+	 * rather than retried here, so it does not hold up the rest of the batch; if
+	 * that hand-off fails too the exception propagates and the batch is not
+	 * acknowledged.
+	 */
+	@Override
+	public void handleBookingEvent(BookingEvent event) {
+		log.info("Received booking event: {}", event);
+
+		try {
+			mailSender.send(templates.render(event));
+		} catch (Exception e) {
+			log.error("Failed to send email, scheduling retry for PNR {}", event.getPnr(), e);
+			kafkaTemplate.send(NotificationTopics.RETRY, event.getPnr(), event).join();
+		}
+	}
+
+	/**
+	 * Retries failed notifications with non-blocking delays of 30s, 2m and 8m
+	 * before parking them in the DLT.
+	 */
+	@Override
+	@RetryableTopic(attempts = "4", backoff = @Backoff(delay = 30_000, multiplier = 4, maxDelay = 600_000), topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE, kafkaTemplate = "bookingEventKafkaTemplate")
+	@KafkaListener(topics = NotificationTopics.RETRY, groupId = "notification-service", containerFactory = "bookingEventRetryKafkaListenerContainerFactory")
+	public void retryBookingEvent(BookingEvent event) {
+		log.info("Retrying notification for PNR {}", event.getPnr());
+		mailSender.send(templates.render(event));
+	}
+
+	@DltHandler
+	public void handleDeadLetter(BookingEvent event,
+			@Header(name = KafkaHeaders.EXCEPTION_MESSAGE, required = false) String error) {
+		log.error("Giving up on notification for PNR {}: {}", event.getPnr(), error);
+	}
 }
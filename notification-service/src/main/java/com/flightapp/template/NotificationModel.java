@@ -0,0 +1,14 @@
+package com.flightapp.template;
+
+import com.flightapp.messaging.BookingEvent;
+
+/**
+ * Values a template can reference. {@code count}, {@code items} and
+ * {@code htmlItems} are only set for digests.
+ */
+record NotificationModel(BookingEvent event, int count, String items, String htmlItems) {
+
+	static NotificationModel of(BookingEvent event) {
+		return new NotificationModel(event, 1, "", "");
+	}
+}
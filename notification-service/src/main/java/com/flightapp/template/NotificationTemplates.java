@@ -0,0 +1,146 @@
+package com.flightapp.template;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import com.flightapp.mail.RenderedMail;
+import com.flightapp.messaging.BookingEvent;
+
+/**
+ * Notification templates, compiled once at startup from
+ * classpath:templates/notifications/{EVENT_TYPE}.{languageTag}.tmpl. Each file
+ * holds "--- subject", "--- text", "--- html" and (except DIGEST) "--- summary"
+ * sections.
+ *
+ * A template is picked by event type and the event's locale, falling back to
+ * the locale's language, then the default locale, then the DEFAULT type.
+ */
+@Component
+public class NotificationTemplates {
+
+	private static final Logger log = LoggerFactory.getLogger(NotificationTemplates.class);
+
+	private static final String LOCATION = "classpath*:templates/notifications/*.tmpl";
+	private static final String DEFAULT_TYPE = "DEFAULT";
+	private static final String DIGEST_TYPE = "DIGEST";
+
+	private final Map<String, CompiledTemplate> templates = new HashMap<>();
+	private final String defaultLanguageTag;
+
+	private record CompiledTemplate(TemplateRenderer subject, TemplateRenderer text, TemplateRenderer html,
+			TemplateRenderer summary) {
+	}
+
+	public NotificationTemplates(@Value("${notification.templates.default-locale:en}") String defaultLocale) {
+		this.defaultLanguageTag = Locale.forLanguageTag(defaultLocale).toLanguageTag();
+		try {
+			for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+				String filename = resource.getFilename();
+				String key = filename.substring(0, filename.length() - ".tmpl".length());
+				try (InputStream in = resource.getInputStream()) {
+					templates.put(key, compile(key, new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to load notification templates", e);
+		}
+		if (!templates.containsKey(DEFAULT_TYPE + "." + defaultLanguageTag)
+				|| !templates.containsKey(DIGEST_TYPE + "." + defaultLanguageTag)) {
+			throw new IllegalStateException(
+					"Missing DEFAULT or DIGEST notification template for default locale " + defaultLanguageTag);
+		}
+		log.info("Compiled {} notification templates", templates.size());
+	}
+
+	public RenderedMail render(BookingEvent event) {
+		CompiledTemplate template = resolve(String.valueOf(event.getEventType()), event.getLocale());
+		NotificationModel model = NotificationModel.of(event);
+		return new RenderedMail(event.getUserEmail(), template.subject().render(model), template.text().render(model),
+				template.html().render(model));
+	}
+
+	/** Renders one mail summarising several events for the same user. */
+	public RenderedMail renderDigest(List<BookingEvent> events) {
+		BookingEvent first = events.get(0);
+		StringBuilder items = new StringBuilder();
+		StringBuilder htmlItems = new StringBuilder();
+		for (BookingEvent event : events) {
+			String summary = resolve(String.valueOf(event.getEventType()), first.getLocale()).summary()
+					.render(NotificationModel.of(event));
+			if (!items.isEmpty()) {
+				items.append('\n');
+			}
+			items.append("- ").append(summary);
+			htmlItems.append("<li>");
+			TemplateRenderer.escapeHtml(htmlItems, summary);
+			htmlItems.append("</li>");
+		}
+
+		CompiledTemplate digest = resolve(DIGEST_TYPE, first.getLocale());
+		NotificationModel model = new NotificationModel(first, events.size(), items.toString(), htmlItems.toString());
+		return new RenderedMail(first.getUserEmail(), digest.subject().render(model), digest.text().render(model),
+				digest.html().render(model));
+	}
+
+	private CompiledTemplate resolve(String eventType, String languageTag) {
+		CompiledTemplate template = resolveLocale(eventType, languageTag);
+		return template != null ? template : resolveLocale(DEFAULT_TYPE, languageTag);
+	}
+
+	private CompiledTemplate resolveLocale(String eventType, String languageTag) {
+		if (languageTag != null && !languageTag.isEmpty()) {
+			Locale locale = Locale.forLanguageTag(languageTag);
+			CompiledTemplate template = templates.get(eventType + "." + locale.toLanguageTag());
+			if (template == null) {
+				template = templates.get(eventType + "." + locale.getLanguage());
+			}
+			if (template != null) {
+				return template;
+			}
+		}
+		return templates.get(eventType + "." + defaultLanguageTag);
+	}
+
+	private static CompiledTemplate compile(String name, String source) {
+		Map<String, StringBuilder> sections = new HashMap<>();
+		StringBuilder current = null;
+		for (String line : source.split("\r?\n", -1)) {
+			if (line.startsWith("--- ")) {
+				current = new StringBuilder();
+				sections.put(line.substring(4).trim(), current);
+			} else if (current != null) {
+				current.append(line).append('\n');
+			}
+		}
+
+		TemplateRenderer subject = section(sections, "subject", false, name, true);
+		TemplateRenderer text = section(sections, "text", false, name, true);
+		TemplateRenderer html = section(sections, "html", true, name, true);
+		TemplateRenderer summary = section(sections, "summary", false, name, !name.startsWith(DIGEST_TYPE + "."));
+		return new CompiledTemplate(subject, text, html, summary);
+	}
+
+	private static TemplateRenderer section(Map<String, StringBuilder> sections, String section, boolean html,
+			String name, boolean required) {
+		StringBuilder source = sections.get(section);
+		if (source == null) {
+			if (required) {
+				throw new IllegalStateException("Template " + name + " has no " + section + " section");
+			}
+			return null;
+		}
+		return TemplateRenderer.compile(source.toString().strip(), html, name + "#" + section);
+	}
+}
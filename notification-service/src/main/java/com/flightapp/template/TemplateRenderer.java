@@ -0,0 +1,107 @@
+package com.flightapp.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A template section compiled into literal and field segments. Placeholders
+ * are {@code {{name}}}, HTML-escaped in HTML sections, or {@code {{{name}}}}
+ * for pre-rendered markup. Each name is bound to its accessor at compile time,
+ * so rendering is a single pass of appends with no lookups or reflection.
+ */
+final class TemplateRenderer {
+
+	private static final Map<String, Function<NotificationModel, Object>> FIELDS = Map.of(
+			"eventType", model -> model.event().getEventType(),
+			"pnr", model -> model.event().getPnr(),
+			"userEmail", model -> model.event().getUserEmail(),
+			"totalPrice", model -> model.event().getTotalPrice(),
+			"departureFlightId", model -> model.event().getDepartureFlightId(),
+			"returnFlightId", model -> model.event().getReturnFlightId(),
+			"passengerCount", model -> model.event().getPassengerCount(),
+			"count", NotificationModel::count,
+			"items", NotificationModel::items,
+			"htmlItems", NotificationModel::htmlItems);
+
+	private interface Segment {
+		void append(StringBuilder out, NotificationModel model);
+	}
+
+	private final Segment[] segments;
+	private final int sizeHint;
+
+	private TemplateRenderer(Segment[] segments, int sizeHint) {
+		this.segments = segments;
+		this.sizeHint = sizeHint;
+	}
+
+	static TemplateRenderer compile(String source, boolean html, String name) {
+		List<Segment> segments = new ArrayList<>();
+		int literalLength = 0;
+		int pos = 0;
+		while (pos < source.length()) {
+			int open = source.indexOf("{{", pos);
+			if (open < 0) {
+				open = source.length();
+			}
+			if (open > pos) {
+				String literal = source.substring(pos, open);
+				segments.add((out, model) -> out.append(literal));
+				literalLength += literal.length();
+			}
+			if (open == source.length()) {
+				break;
+			}
+
+			boolean raw = source.startsWith("{{{", open);
+			String close = raw ? "}}}" : "}}";
+			int end = source.indexOf(close, open);
+			if (end < 0) {
+				throw new IllegalStateException("Unclosed placeholder in template " + name);
+			}
+			String field = source.substring(open + close.length(), end).trim();
+			Function<NotificationModel, Object> accessor = FIELDS.get(field);
+			if (accessor == null) {
+				throw new IllegalStateException("Unknown placeholder '" + field + "' in template " + name);
+			}
+			boolean escape = html && !raw;
+			segments.add((out, model) -> {
+				Object value = accessor.apply(model);
+				if (value == null) {
+					return;
+				}
+				if (escape) {
+					escapeHtml(out, value.toString());
+				} else {
+					out.append(value);
+				}
+			});
+			pos = end + close.length();
+		}
+		return new TemplateRenderer(segments.toArray(Segment[]::new), literalLength + 16 * segments.size());
+	}
+
+	String render(NotificationModel model) {
+		StringBuilder out = new StringBuilder(sizeHint);
+		for (Segment segment : segments) {
+			segment.append(out, model);
+		}
+		return out.toString();
+	}
+
+	static void escapeHtml(StringBuilder out, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '&' -> out.append("&amp;");
+			case '<' -> out.append("&lt;");
+			case '>' -> out.append("&gt;");
+			case '"' -> out.append("&quot;");
+			case '\'' -> out.append("&#39;");
+			default -> out.append(c);
+			}
+		}
+	}
+}
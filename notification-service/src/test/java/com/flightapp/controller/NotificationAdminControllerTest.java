@@ -0,0 +1,42 @@
+package com.flightapp.controller;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.flightapp.service.DltReplayService;
+
+import reactor.test.StepVerifier;
+
+class NotificationAdminControllerTest {
+
+	private DltReplayService dltReplayService;
+	private NotificationAdminController controller;
+
+	@BeforeEach
+	void setUp() {
+		dltReplayService = Mockito.mock(DltReplayService.class);
+		controller = new NotificationAdminController(dltReplayService);
+	}
+
+	@Test
+	void replayDeadLetters_returnsReplayedCount() {
+		when(dltReplayService.replay(100)).thenReturn(7);
+
+		StepVerifier.create(controller.replayDeadLetters(100))
+				.expectNext(new NotificationAdminController.ReplayResult(7)).verifyComplete();
+	}
+
+	@Test
+	void replayDeadLetters_clampsRequestedBatch() {
+		when(dltReplayService.replay(10_000)).thenReturn(0);
+
+		StepVerifier.create(controller.replayDeadLetters(1_000_000))
+				.expectNext(new NotificationAdminController.ReplayResult(0)).verifyComplete();
+
+		verify(dltReplayService).replay(10_000);
+	}
+}
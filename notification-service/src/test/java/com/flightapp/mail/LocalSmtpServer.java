@@ -0,0 +1,123 @@
+package com.flightapp.mail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal embedded SMTP server for tests. Accepts every command, records the
+ * DATA of each delivered message and counts client connections, including
+ * refused ones.
+ */
+class LocalSmtpServer implements AutoCloseable {
+
+	private final ServerSocket serverSocket;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final AtomicInteger connections = new AtomicInteger();
+	private final AtomicInteger dataFailures = new AtomicInteger();
+	private final AtomicInteger refusals = new AtomicInteger();
+	private final List<String> messages = new CopyOnWriteArrayList<>();
+
+	LocalSmtpServer() throws IOException {
+		serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		executor.submit(this::acceptLoop);
+	}
+
+	int port() {
+		return serverSocket.getLocalPort();
+	}
+
+	int connections() {
+		return connections.get();
+	}
+
+	List<String> messages() {
+		return messages;
+	}
+
+	/** Answers the next {@code count} DATA transfers with a transient 451. */
+	void failNextData(int count) {
+		dataFailures.set(count);
+	}
+
+	/** Greets the next {@code count} connections with a 421 and hangs up. */
+	void refuseNextConnections(int count) {
+		refusals.set(count);
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		executor.shutdownNow();
+	}
+
+	private void acceptLoop() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.incrementAndGet();
+				executor.submit(() -> session(socket));
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void session(Socket socket) {
+		try (socket;
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+			if (refusals.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+				reply(out, "421 localhost Service not available");
+				return;
+			}
+			reply(out, "220 localhost ESMTP");
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.length() > 4 ? line.substring(0, 4) : line;
+				switch (command.toUpperCase(Locale.ROOT)) {
+				case "EHLO" -> reply(out, "250-localhost\r\n250 8BITMIME");
+				case "HELO" -> reply(out, "250 localhost");
+				case "DATA" -> {
+					reply(out, "354 End data with <CR><LF>.<CR><LF>");
+					StringBuilder data = new StringBuilder();
+					while ((line = in.readLine()) != null && !line.equals(".")) {
+						data.append(line).append('\n');
+					}
+					if (dataFailures.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+						reply(out, "451 Try again later");
+					} else {
+						messages.add(data.toString());
+						reply(out, "250 OK");
+					}
+				}
+				case "QUIT" -> {
+					reply(out, "221 Bye");
+					return;
+				}
+				default -> reply(out, "250 OK");
+				}
+			}
+		} catch (IOException e) {
+			// client went away
+		}
+	}
+
+	private static void reply(Writer out, String response) throws IOException {
+		out.write(response + "\r\n");
+		out.flush();
+	}
+}
@@ -0,0 +1,151 @@
+package com.flightapp.mail;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+class PooledMailSenderTest {
+
+	private LocalSmtpServer server;
+	private PooledMailSender sender;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		server = new LocalSmtpServer();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (sender != null) {
+			sender.close();
+		}
+		server.close();
+	}
+
+	@Test
+	void send_reusesConnectionForConsecutiveMessages() {
+		sender = sender(1, 100, 3, 0);
+
+		for (int i = 0; i < 5; i++) {
+			sender.send(message("PNR" + i));
+		}
+
+		assertThat(server.messages()).hasSize(5);
+		assertThat(server.connections()).isEqualTo(1);
+	}
+
+	@Test
+	void send_reconnectsAfterMaxMessagesPerConnection() {
+		sender = sender(1, 2, 3, 0);
+
+		for (int i = 0; i < 5; i++) {
+			sender.send(message("PNR" + i));
+		}
+
+		assertThat(server.messages()).hasSize(5);
+		assertThat(server.connections()).isEqualTo(3);
+	}
+
+	@Test
+	void send_concurrentCallersShareBoundedPool() throws Exception {
+		sender = sender(2, 100, 3, 0);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<CompletableFuture<Void>> sends = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				String pnr = "PNR" + i;
+				sends.add(CompletableFuture.runAsync(() -> sender.send(message(pnr)), executor));
+			}
+			CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get();
+		} finally {
+			executor.shutdown();
+		}
+
+		assertThat(server.messages()).hasSize(20);
+		assertThat(server.connections()).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	void send_retriesTransientFailureOnFreshConnection() {
+		sender = sender(1, 100, 3, 0);
+		server.failNextData(1);
+
+		sender.send(message("PNR1"));
+
+		assertThat(server.messages()).hasSize(1);
+		assertThat(server.connections()).isEqualTo(2);
+	}
+
+	@Test
+	void send_givesUpAfterMaxAttempts() {
+		sender = sender(1, 100, 2, 0);
+		server.failNextData(2);
+
+		assertThatThrownBy(() -> sender.send(message("PNR1"))).isInstanceOf(MailSendException.class);
+		assertThat(server.messages()).isEmpty();
+
+		sender.send(message("PNR2"));
+		assertThat(server.messages()).hasSize(1);
+	}
+
+	@Test
+	void send_retriesFailedConnect() {
+		sender = sender(1, 100, 3, 0);
+		server.refuseNextConnections(1);
+
+		sender.send(message("PNR1"));
+
+		assertThat(server.messages()).hasSize(1);
+		assertThat(server.connections()).isEqualTo(2);
+	}
+
+	@Test
+	void send_givesUpWhenConnectKeepsFailing() {
+		sender = sender(1, 100, 2, 0);
+		server.refuseNextConnections(2);
+
+		assertThatThrownBy(() -> sender.send(message("PNR1"))).isInstanceOf(MailSendException.class);
+		assertThat(server.connections()).isEqualTo(2);
+
+		sender.send(message("PNR2"));
+		assertThat(server.messages()).hasSize(1);
+	}
+
+	@Test
+	void send_honoursRateLimit() {
+		sender = sender(1, 100, 3, 50);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 6; i++) {
+			sender.send(message("PNR" + i));
+		}
+
+		assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(90));
+	}
+
+	private PooledMailSender sender(int maxConnections, int maxMessagesPerConnection, int maxAttempts,
+			double maxPerSecond) {
+		JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+		mailSender.setHost("127.0.0.1");
+		mailSender.setPort(server.port());
+		return new PooledMailSender(mailSender, maxConnections, maxMessagesPerConnection, Duration.ofMinutes(1),
+				maxAttempts, Duration.ofMillis(10), maxPerSecond);
+	}
+
+	private static RenderedMail message(String pnr) {
+		return new RenderedMail("pooja@gmail.com", "Your flight booking is confirmed - PNR " + pnr, "Your PNR is " + pnr,
+				null);
+	}
+}
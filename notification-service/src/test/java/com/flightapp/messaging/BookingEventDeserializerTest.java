@@ -0,0 +1,55 @@
+package com.flightapp.messaging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+class BookingEventDeserializerTest {
+
+	private final BookingEventDeserializer deserializer = new BookingEventDeserializer();
+
+	@Test
+	void deserialize_shouldReadBinaryEvents() {
+		BookingEvent event = new BookingEvent();
+		event.setEventType("BOOKING_CONFIRMED");
+		event.setPnr("PNR123");
+		event.setUserEmail("test@example.com");
+		event.setTotalPrice(5000.0);
+		event.setPassengerCount(2);
+
+		assertEquals(event, deserializer.deserialize("booking-events", BookingEventCodec.encode(event)));
+	}
+
+	@Test
+	void deserialize_shouldStillReadLegacyJsonEvents() {
+		byte[] json = "{\"eventType\":\"BOOKING_CANCELLED\",\"pnr\":\"PNR123\",\"userEmail\":\"test@example.com\",\"totalPrice\":5000.0}"
+				.getBytes(StandardCharsets.UTF_8);
+
+		BookingEvent event = deserializer.deserialize("booking-events", json);
+
+		assertEquals("BOOKING_CANCELLED", event.getEventType());
+		assertEquals("PNR123", event.getPnr());
+		assertEquals(5000.0, event.getTotalPrice());
+		assertNull(event.getPassengerCount());
+	}
+
+	@Test
+	void deserialize_shouldRejectCorruptPayloads() {
+		assertNull(deserializer.deserialize("booking-events", null));
+		assertThrows(SerializationException.class,
+				() -> deserializer.deserialize("booking-events", new byte[] { 0x0, 2, 0x0A, 50 }));
+	}
+
+	@Test
+	void deserialize_shouldRejectNewerSchemaVersions() {
+		byte[] newer = BookingEventCodec.encode(new BookingEvent());
+		newer[1] = BookingEventCodec.SCHEMA_VERSION + 1;
+
+		assertThrows(SerializationException.class, () -> deserializer.deserialize("booking-events", newer));
+	}
+}
@@ -12,12 +12,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties.AckMode;
 
 import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.BookingEventDeserializer;
 
 class KafkaConsumerConfigTest {
 
-	private final KafkaConsumerConfig config = new KafkaConsumerConfig();
+	private final KafkaConsumerConfig config = new KafkaConsumerConfig(3, 200);
 
 	@Test
 	void bookingEventConsumerFactory_shouldCreateProperlyConfiguredConsumerFactory() {
@@ -36,12 +38,14 @@ class KafkaConsumerConfigTest {
 		assertEquals("notification-service", configs.get(ConsumerConfig.GROUP_ID_CONFIG),
 				"Group id should be notification-service");
 
+		assertEquals(false, configs.get(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG), "Auto commit should be disabled");
+		assertEquals(200, configs.get(ConsumerConfig.MAX_POLL_RECORDS_CONFIG), "Max poll records should be 200");
+
 		assertEquals(StringDeserializer.class, configs.get(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG),
 				"Key deserializer should be StringDeserializer");
 
-		assertEquals(org.springframework.kafka.support.serializer.JsonDeserializer.class,
-				configs.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG),
-				"Value deserializer should be JsonDeserializer class");
+		assertEquals(BookingEventDeserializer.class, configs.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG),
+				"Value deserializer should be BookingEventDeserializer class");
 	}
 
 	@Test
@@ -54,5 +58,9 @@ class KafkaConsumerConfigTest {
 
 		assertTrue(factory.getConsumerFactory() instanceof DefaultKafkaConsumerFactory,
 				"ConsumerFactory should be DefaultKafkaConsumerFactory");
+
+		assertTrue(factory.isBatchListener(), "Factory should deliver records in batches");
+		assertEquals(AckMode.MANUAL, factory.getContainerProperties().getAckMode(),
+				"Offsets should be committed manually after delivery");
 	}
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.flightapp.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.NotificationTopics;
+
+class DltReplayServiceImplTest {
+
+	private final TopicPartition partition = new TopicPartition(NotificationTopics.DLT, 0);
+
+	private MockConsumer<String, BookingEvent> consumer;
+	private KafkaTemplate<String, BookingEvent> kafkaTemplate;
+	private DltReplayServiceImpl replayService;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		consumer = spy(new MockConsumer<>(OffsetResetStrategy.EARLIEST));
+		consumer.updatePartitions(NotificationTopics.DLT,
+				List.of(new PartitionInfo(NotificationTopics.DLT, 0, null, null, null)));
+		consumer.updateBeginningOffsets(Map.of(partition, 0L));
+		consumer.updateEndOffsets(Map.of(partition, 3L));
+		consumer.schedulePollTask(() -> {
+			for (int offset = 0; offset < 3; offset++) {
+				consumer.addRecord(new ConsumerRecord<>(NotificationTopics.DLT, 0, offset, "PNR" + offset,
+						event("PNR" + offset)));
+			}
+		});
+
+		ConsumerFactory<String, BookingEvent> consumerFactory = mock(ConsumerFactory.class);
+		when(consumerFactory.createConsumer(eq(DltReplayServiceImpl.REPLAY_GROUP), isNull(), isNull(),
+				any(Properties.class))).thenReturn(consumer);
+		kafkaTemplate = mock(KafkaTemplate.class);
+		when(kafkaTemplate.send(eq(NotificationTopics.RETRY), anyString(), any(BookingEvent.class)))
+				.thenReturn(CompletableFuture.completedFuture(null));
+
+		replayService = new DltReplayServiceImpl(consumerFactory, kafkaTemplate);
+	}
+
+	@Test
+	void replay_republishesEveryDeadLetterAndCommits() {
+		assertThat(replayService.replay(500)).isEqualTo(3);
+
+		verify(kafkaTemplate, times(3)).send(eq(NotificationTopics.RETRY), anyString(), any(BookingEvent.class));
+		verify(consumer).commitSync(Map.of(partition, new OffsetAndMetadata(3)));
+	}
+
+	@Test
+	void replay_stopsAtMaxAndCommitsOnlyReplayedOffsets() {
+		assertThat(replayService.replay(2)).isEqualTo(2);
+
+		verify(kafkaTemplate).send(eq(NotificationTopics.RETRY), eq("PNR0"), any(BookingEvent.class));
+		verify(kafkaTemplate).send(eq(NotificationTopics.RETRY), eq("PNR1"), any(BookingEvent.class));
+		verify(consumer).commitSync(Map.of(partition, new OffsetAndMetadata(2)));
+	}
+
+	private static BookingEvent event(String pnr) {
+		BookingEvent event = new BookingEvent();
+		event.setEventType("BOOKING_CONFIRMED");
+		event.setPnr(pnr);
+		return event;
+	}
+}
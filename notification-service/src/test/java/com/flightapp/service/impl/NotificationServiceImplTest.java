@@ -1,32 +1,75 @@
 package com.flightapp.service.impl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.mail.MailSendException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 
+import com.flightapp.mail.PooledMailSender;
+import com.flightapp.mail.RenderedMail;
 import com.flightapp.messaging.BookingEvent;
+import com.flightapp.messaging.BookingEventCodec;
+import com.flightapp.messaging.BookingEventDeserializer;
+import com.flightapp.messaging.NotificationTopics;
+import com.flightapp.template.NotificationTemplates;
 
 @ExtendWith(MockitoExtension.class)
 class NotificationServiceImplTest {
 
 	@Mock
-	private JavaMailSender mailSender;
+	private PooledMailSender mailSender;
+
+	@Mock
+	private Acknowledgment acknowledgment;
+
+	@Mock
+	private KafkaTemplate<String, BookingEvent> kafkaTemplate;
+
+	@Mock
+	private Consumer<String, BookingEvent> consumer;
+
+	@Mock
+	private ConsumerSeekCallback seekCallback;
+
+	private final NotificationTemplates templates = new NotificationTemplates("en");
 
-	@InjectMocks
 	private NotificationServiceImpl notificationService;
 
+	@BeforeEach
+	void setUp() {
+		notificationService = new NotificationServiceImpl(mailSender, templates, Runnable::run, kafkaTemplate,
+				Duration.ZERO, 100, 50);
+	}
+
 	@Test
 	void handleBookingEvent_bookingConfirmed_sendsExpectedEmail() {
 		BookingEvent event = new BookingEvent();
@@ -37,13 +80,13 @@ class NotificationServiceImplTest {
 
 		notificationService.handleBookingEvent(event);
 
-		ArgumentCaptor<SimpleMailMessage> captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
+		ArgumentCaptor<RenderedMail> captor = ArgumentCaptor.forClass(RenderedMail.class);
 		verify(mailSender, times(1)).send(captor.capture());
 
-		SimpleMailMessage message = captor.getValue();
-		assertThat(message.getTo()).containsExactly("pooja@gmail.com");
-		assertThat(message.getSubject()).isEqualTo("Your flight booking is confirmed - PNR PNR123");
-		assertThat(message.getText()).contains("Your PNR is PNR123").contains("total price is 1500.0");
+		RenderedMail message = captor.getValue();
+		assertThat(message.to()).isEqualTo("pooja@gmail.com");
+		assertThat(message.subject()).isEqualTo("Your flight booking is confirmed - PNR PNR123");
+		assertThat(message.text()).contains("Your PNR is PNR123").contains("total price is 1500.0");
 	}
 
 	@Test
@@ -56,13 +99,13 @@ class NotificationServiceImplTest {
 
 		notificationService.handleBookingEvent(event);
 
-		ArgumentCaptor<SimpleMailMessage> captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
+		ArgumentCaptor<RenderedMail> captor = ArgumentCaptor.forClass(RenderedMail.class);
 		verify(mailSender, times(1)).send(captor.capture());
 
-		SimpleMailMessage message = captor.getValue();
-		assertThat(message.getTo()).containsExactly("pooja2@gmail.com");
-		assertThat(message.getSubject()).isEqualTo("Your flight booking is cancelled - PNR PNR456");
-		assertThat(message.getText()).isEqualTo("Your booking with PNR PNR456 has been cancelled.");
+		RenderedMail message = captor.getValue();
+		assertThat(message.to()).isEqualTo("pooja2@gmail.com");
+		assertThat(message.subject()).isEqualTo("Your flight booking is cancelled - PNR PNR456");
+		assertThat(message.text()).isEqualTo("Your booking with PNR PNR456 has been cancelled.");
 	}
 
 	@Test
@@ -75,27 +118,220 @@ class NotificationServiceImplTest {
 
 		notificationService.handleBookingEvent(event);
 
-		ArgumentCaptor<SimpleMailMessage> captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
+		ArgumentCaptor<RenderedMail> captor = ArgumentCaptor.forClass(RenderedMail.class);
 		verify(mailSender, times(1)).send(captor.capture());
 
-		SimpleMailMessage message = captor.getValue();
-		assertThat(message.getTo()).containsExactly("pooja@gmail.com");
-		assertThat(message.getSubject()).isEqualTo("Flight booking update");
-		assertThat(message.getText()).isEqualTo("Update for booking PNR: PNR789");
+		RenderedMail message = captor.getValue();
+		assertThat(message.to()).isEqualTo("pooja@gmail.com");
+		assertThat(message.subject()).isEqualTo("Flight booking update");
+		assertThat(message.text()).isEqualTo("Update for booking PNR: PNR789");
+	}
+
+	@Test
+	void handleBookingEvents_frenchBookingFromTheWireRendersFrenchTemplate() {
+		BookingEvent booked = event("PNR123", "pooja@gmail.com");
+		booked.setTotalPrice(1500.0);
+		booked.setLocale("fr-FR");
+		BookingEvent received = new BookingEventDeserializer().deserialize(NotificationTopics.BOOKING_EVENTS,
+				BookingEventCodec.encode(booked));
+
+		notificationService.handleBookingEvents(
+				List.of(new ConsumerRecord<>(NotificationTopics.BOOKING_EVENTS, 0, 0, "PNR123", received)),
+				acknowledgment, consumer);
+
+		ArgumentCaptor<RenderedMail> captor = ArgumentCaptor.forClass(RenderedMail.class);
+		verify(mailSender).send(captor.capture());
+		assertThat(captor.getValue().subject()).isEqualTo("Votre réservation de vol est confirmée - PNR PNR123");
+		assertThat(captor.getValue().text()).contains("Votre PNR est PNR123");
 	}
 
 	@Test
-	void handleBookingEvent_mailSenderThrows_exceptionIsCaught() {
+	void handleBookingEvent_mailSenderThrows_forwardsToRetryTopic() {
 		BookingEvent event = new BookingEvent();
 		event.setEventType("BOOKING_CONFIRMED");
 		event.setPnr("PNR999");
 		event.setUserEmail("pooja@gmail.com");
 		event.setTotalPrice(123.0);
 
-		doThrow(new MailSendException("fail")).when(mailSender).send(any(SimpleMailMessage.class));
+		doThrow(new MailSendException("fail")).when(mailSender).send(any(RenderedMail.class));
+		when(kafkaTemplate.send(NotificationTopics.RETRY, "PNR999", event))
+				.thenReturn(CompletableFuture.completedFuture(null));
 
 		notificationService.handleBookingEvent(event);
 
-		verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
+		verify(mailSender, times(1)).send(any(RenderedMail.class));
+		verify(kafkaTemplate).send(NotificationTopics.RETRY, "PNR999", event);
+	}
+
+	@Test
+	void handleBookingEvent_retryHandOffFails_exceptionPropagates() {
+		BookingEvent event = new BookingEvent();
+		event.setEventType("BOOKING_CONFIRMED");
+		event.setPnr("PNR999");
+
+		doThrow(new MailSendException("fail")).when(mailSender).send(any(RenderedMail.class));
+		when(kafkaTemplate.send(NotificationTopics.RETRY, "PNR999", event))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+		assertThatThrownBy(() -> notificationService.handleBookingEvent(event)).isInstanceOf(CompletionException.class);
+	}
+
+	@Test
+	void retryBookingEvent_mailSenderThrows_exceptionPropagatesToRetryTopics() {
+		BookingEvent event = new BookingEvent();
+		event.setEventType("BOOKING_CANCELLED");
+		event.setPnr("PNR999");
+		event.setUserEmail("pooja@gmail.com");
+
+		doThrow(new MailSendException("fail")).when(mailSender).send(any(RenderedMail.class));
+
+		assertThatThrownBy(() -> notificationService.retryBookingEvent(event)).isInstanceOf(MailSendException.class);
+		verify(kafkaTemplate, never()).send(anyString(), anyString(), any(BookingEvent.class));
+	}
+
+	@Test
+	void handleBookingEvents_sendsOneMailPerUserThenAcknowledges() {
+		List<ConsumerRecord<String, BookingEvent>> records = List.of(
+				record(0, "PNR1", "BOOKING_CONFIRMED", "pooja@gmail.com"),
+				record(1, "PNR2", "BOOKING_CONFIRMED", "poojith@gmail.com"),
+				record(2, "PNR1", "BOOKING_CANCELLED", "pooja@gmail.com"));
+
+		notificationService.handleBookingEvents(records, acknowledgment, consumer);
+
+		ArgumentCaptor<RenderedMail> captor = ArgumentCaptor.forClass(RenderedMail.class);
+		InOrder inOrder = inOrder(mailSender, acknowledgment);
+		inOrder.verify(mailSender, times(2)).send(captor.capture());
+		inOrder.verify(acknowledgment).acknowledge();
+
+		RenderedMail digest = captor.getAllValues().get(0);
+		assertThat(digest.to()).isEqualTo("pooja@gmail.com");
+		assertThat(digest.subject()).isEqualTo("Updates for 2 of your flight bookings");
+		assertThat(digest.text()).contains("- PNR PNR1: confirmed, total price 100.0\n- PNR PNR1: cancelled");
+		assertThat(captor.getAllValues().get(1).subject()).isEqualTo("Your flight booking is confirmed - PNR PNR2");
+	}
+
+	@Test
+	void handleBookingEvents_digestWindowDefersDeliveryAndAck() {
+		notificationService = new NotificationServiceImpl(mailSender, templates, Runnable::run, kafkaTemplate,
+				Duration.ofHours(1), 100, 50);
+
+		notificationService.handleBookingEvents(List.of(record(0, "PNR1", "BOOKING_CONFIRMED", "pooja@gmail.com")),
+				acknowledgment, consumer);
+		notificationService.handleBookingEvents(List.of(record(1, "PNR2", "BOOKING_CONFIRMED", "pooja@gmail.com")),
+				acknowledgment, consumer);
+
+		verify(mailSender, never()).send(any(RenderedMail.class));
+		verify(acknowledgment, never()).acknowledge();
+
+		notificationService.flushPendingDigests();
+
+		verify(mailSender, times(1)).send(any(RenderedMail.class));
+		verify(acknowledgment, times(2)).acknowledge();
+	}
+
+	@Test
+	void handleBookingEvents_flushesDigestEarlyAtMaxEvents() {
+		notificationService = new NotificationServiceImpl(mailSender, templates, Runnable::run, kafkaTemplate,
+				Duration.ofHours(1), 100, 2);
+
+		notificationService.handleBookingEvents(List.of(record(0, "PNR1", "BOOKING_CONFIRMED", "pooja@gmail.com"),
+				record(1, "PNR2", "BOOKING_CONFIRMED", "pooja@gmail.com")), acknowledgment, consumer);
+
+		verify(mailSender, times(1)).send(any(RenderedMail.class));
+		verify(acknowledgment).acknowledge();
+		notificationService.flushPendingDigests();
+	}
+
+	@Test
+	void handleBookingEvents_digestFailureRetriesEachEvent() {
+		doThrow(new MailSendException("fail")).when(mailSender).send(any(RenderedMail.class));
+		when(kafkaTemplate.send(eq(NotificationTopics.RETRY), anyString(), any(BookingEvent.class)))
+				.thenReturn(CompletableFuture.completedFuture(null));
+
+		notificationService.handleBookingEvents(List.of(record(0, "PNR1", "BOOKING_CONFIRMED", "pooja@gmail.com"),
+				record(1, "PNR2", "BOOKING_CANCELLED", "pooja@gmail.com")), acknowledgment, consumer);
+
+		verify(kafkaTemplate).send(eq(NotificationTopics.RETRY), eq("PNR1"), any(BookingEvent.class));
+		verify(kafkaTemplate).send(eq(NotificationTopics.RETRY), eq("PNR2"), any(BookingEvent.class));
+		verify(acknowledgment).acknowledge();
+	}
+
+	@Test
+	void handleBookingEvents_mailFailureStillAcknowledges() {
+		doThrow(new MailSendException("fail")).when(mailSender).send(any(RenderedMail.class));
+		when(kafkaTemplate.send(eq(NotificationTopics.RETRY), eq("PNR1"), any(BookingEvent.class)))
+				.thenReturn(CompletableFuture.completedFuture(null));
+
+		notificationService.handleBookingEvents(List.of(record(0, "PNR1", "BOOKING_CONFIRMED", "pooja@gmail.com")),
+				acknowledgment, consumer);
+
+		verify(acknowledgment).acknowledge();
+	}
+
+	@Test
+	void handleBookingEvents_failedBatchIsRedeliveredAndLaterBatchesStillAcknowledge() {
+		TopicPartition partition = new TopicPartition("booking-events", 0);
+		when(consumer.assignment()).thenReturn(Set.of(partition));
+		notificationService.registerSeekCallback(seekCallback);
+		doThrow(new MailSendException("fail")).doNothing().when(mailSender).send(any(RenderedMail.class));
+		when(kafkaTemplate.send(eq(NotificationTopics.RETRY), eq("PNR1"), any(BookingEvent.class)))
+				.thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+		notificationService.handleBookingEvents(List.of(record(0, "PNR1", "BOOKING_CONFIRMED", "pooja@gmail.com")),
+				acknowledgment, consumer);
+
+		verify(acknowledgment, never()).acknowledge();
+		verify(seekCallback).seek("booking-events", 0, 0L);
+
+		notificationService.handleBookingEvents(List.of(record(1, "PNR2", "BOOKING_CONFIRMED", "pooja@gmail.com")),
+				acknowledgment, consumer);
+
+		verify(consumer).seek(partition, 0L);
+		verify(mailSender, times(1)).send(any(RenderedMail.class));
+		verify(acknowledgment, never()).acknowledge();
+
+		notificationService.handleBookingEvents(List.of(record(0, "PNR1", "BOOKING_CONFIRMED", "pooja@gmail.com"),
+				record(1, "PNR2", "BOOKING_CONFIRMED", "pooja@gmail.com")), acknowledgment, consumer);
+
+		verify(mailSender, times(2)).send(any(RenderedMail.class));
+		verify(acknowledgment).acknowledge();
+	}
+
+	@Test
+	void handleBookingEvents_revokedPartitionsAreNotAcknowledgedAfterRebalance() {
+		notificationService = new NotificationServiceImpl(mailSender, templates, Runnable::run, kafkaTemplate,
+				Duration.ofHours(1), 100, 50);
+		TopicPartition revoked = new TopicPartition("booking-events", 0);
+		TopicPartition kept = new TopicPartition("booking-events", 1);
+		when(consumer.assignment()).thenReturn(Set.of(kept));
+
+		notificationService.handleBookingEvents(List.of(record(0, "PNR1", "BOOKING_CONFIRMED", "pooja@gmail.com"),
+				new ConsumerRecord<>("booking-events", 1, 7, "PNR2", event("PNR2", "poojith@gmail.com"))),
+				acknowledgment, consumer);
+		notificationService.onPartitionsRevoked(List.of(revoked));
+		notificationService.handleBookingEvents(
+				List.of(new ConsumerRecord<>("booking-events", 1, 8, "PNR3", event("PNR3", "poojith@gmail.com"))),
+				acknowledgment, consumer);
+		notificationService.flushPendingDigests();
+
+		verify(consumer).seek(kept, 7L);
+		verify(consumer, never()).seek(eq(revoked), anyLong());
+		verify(acknowledgment, never()).acknowledge();
+	}
+
+	private static BookingEvent event(String pnr, String userEmail) {
+		BookingEvent event = new BookingEvent();
+		event.setEventType("BOOKING_CONFIRMED");
+		event.setPnr(pnr);
+		event.setUserEmail(userEmail);
+		event.setTotalPrice(100.0);
+		return event;
+	}
+
+	private static ConsumerRecord<String, BookingEvent> record(long offset, String pnr, String eventType,
+			String userEmail) {
+		BookingEvent event = event(pnr, userEmail);
+		event.setEventType(eventType);
+		return new ConsumerRecord<>("booking-events", 0, offset, pnr, event);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package com.flightapp.template;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.flightapp.mail.RenderedMail;
+import com.flightapp.messaging.BookingEvent;
+
+/**
+ * Render cost of the compiled templates against the string concatenation
+ * they replaced. Not run by surefire; after {@code mvn test-compile} start
+ * main() from the IDE or with {@code mvn exec:java
+ * -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.flightapp.template.NotificationTemplatesBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationTemplatesBenchmark {
+
+	private final NotificationTemplates templates = new NotificationTemplates("en");
+	private final BookingEvent event = NotificationTemplatesTest.event("BOOKING_CONFIRMED", "7F3K9Q2M", "en");
+
+	/** Text body only, as the service built it before the templates. */
+	@Benchmark
+	public String concatenation() {
+		return "Your flight booking is confirmed - PNR " + event.getPnr() + "Thank you for booking. Your PNR is "
+				+ event.getPnr() + " and total price is " + event.getTotalPrice();
+	}
+
+	/** Subject, text and HTML body. */
+	@Benchmark
+	public RenderedMail compiled() {
+		return templates.render(event);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(NotificationTemplatesBenchmark.class.getName()).build()).run();
+	}
+}
@@ -0,0 +1,75 @@
+package com.flightapp.template;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.flightapp.mail.RenderedMail;
+import com.flightapp.messaging.BookingEvent;
+
+class NotificationTemplatesTest {
+
+	private final NotificationTemplates templates = new NotificationTemplates("en");
+
+	@Test
+	void render_producesPlaintextAndHtml() {
+		RenderedMail mail = templates.render(event("BOOKING_CONFIRMED", "PNR1", null));
+
+		assertThat(mail.to()).isEqualTo("pooja@gmail.com");
+		assertThat(mail.subject()).isEqualTo("Your flight booking is confirmed - PNR PNR1");
+		assertThat(mail.text()).isEqualTo("Thank you for booking. Your PNR is PNR1 and total price is 1500.0");
+		assertThat(mail.html()).contains("<strong>PNR1</strong>").contains("1500.0");
+	}
+
+	@Test
+	void render_picksTemplateByLocaleAndFallsBackToLanguageAndDefault() {
+		assertThat(templates.render(event("BOOKING_CANCELLED", "PNR1", "fr")).subject())
+				.isEqualTo("Votre réservation de vol est annulée - PNR PNR1");
+		assertThat(templates.render(event("BOOKING_CANCELLED", "PNR1", "fr-CA")).subject())
+				.isEqualTo("Votre réservation de vol est annulée - PNR PNR1");
+		assertThat(templates.render(event("BOOKING_CANCELLED", "PNR1", "ja")).subject())
+				.isEqualTo("Your flight booking is cancelled - PNR PNR1");
+		assertThat(templates.render(event("SEAT_CHANGED", "PNR1", "fr")).subject())
+				.isEqualTo("Mise à jour de votre réservation de vol");
+	}
+
+	@Test
+	void render_escapesValuesInHtmlOnly() {
+		RenderedMail mail = templates.render(event("BOOKING_CANCELLED", "<b>&", null));
+
+		assertThat(mail.text()).contains("PNR <b>& has been cancelled");
+		assertThat(mail.html()).contains("<strong>&lt;b&gt;&amp;</strong>");
+	}
+
+	@Test
+	void renderDigest_listsEverySummary() {
+		RenderedMail mail = templates.renderDigest(
+				List.of(event("BOOKING_CONFIRMED", "PNR1", null), event("BOOKING_CANCELLED", "PNR2", null)));
+
+		assertThat(mail.subject()).isEqualTo("Updates for 2 of your flight bookings");
+		assertThat(mail.text()).endsWith("- PNR PNR1: confirmed, total price 1500.0\n- PNR PNR2: cancelled");
+		assertThat(mail.html()).contains(
+				"<ul><li>PNR PNR1: confirmed, total price 1500.0</li><li>PNR PNR2: cancelled</li></ul>");
+	}
+
+	@Test
+	void compile_rejectsUnknownPlaceholders() {
+		assertThatThrownBy(() -> TemplateRenderer.compile("Hello {{passengerName}}", false, "TEST"))
+				.isInstanceOf(IllegalStateException.class).hasMessageContaining("passengerName");
+		assertThatThrownBy(() -> TemplateRenderer.compile("Hello {{pnr", false, "TEST"))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	static BookingEvent event(String eventType, String pnr, String locale) {
+		BookingEvent event = new BookingEvent();
+		event.setEventType(eventType);
+		event.setPnr(pnr);
+		event.setUserEmail("pooja@gmail.com");
+		event.setTotalPrice(1500.0);
+		event.setLocale(locale);
+		return event;
+	}
+}